@@ -0,0 +1,80 @@
+package liquibase.ext.neo4j.change;
+
+import liquibase.change.core.LoadDataChange.LOAD_DATA_TYPE;
+import liquibase.change.core.LoadDataColumnConfig;
+import liquibase.statement.SqlStatement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the conversion of loaded CSV rows into the parameters of the generated statement.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoadGraphDataChangeBenchmark {
+
+    private static final int COLUMN_COUNT = 10;
+
+    @Param({"100", "1000"})
+    public int rowCount;
+
+    private RowLoadingChange change;
+
+    @Setup
+    public void setUp() {
+        change = new RowLoadingChange(rowCount);
+        change.setTableName("Person");
+        for (int i = 0; i < rowCount; i++) {
+            List<LoadDataColumnConfig> columns = new ArrayList<>(COLUMN_COUNT);
+            for (int j = 0; j < COLUMN_COUNT; j++) {
+                LoadDataColumnConfig column = new LoadDataColumnConfig();
+                column.setName("column" + j);
+                column.setType(LOAD_DATA_TYPE.STRING.name());
+                // every fifth cell is empty, empty cells are skipped
+                column.setValue(j % 5 == 4 ? null : "value" + i + "_" + j);
+                columns.add(column);
+            }
+            change.addRow(columns);
+        }
+    }
+
+    @Benchmark
+    public SqlStatement[] generateStatements() {
+        return change.generateStatements();
+    }
+
+    // row configurations are only visible to subclasses of LoadDataChange
+    private static class RowLoadingChange extends LoadGraphDataChange {
+
+        private final List<LoadDataRowConfig> rows;
+
+        RowLoadingChange(int rowCount) {
+            rows = new ArrayList<>(rowCount);
+        }
+
+        void addRow(List<LoadDataColumnConfig> columns) {
+            rows.add(new LoadDataRowConfig(true, columns));
+        }
+
+        SqlStatement[] generateStatements() {
+            return generateStatementsFromRows(null, rows);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package liquibase.ext.neo4j.change.refactoring;
+
+import liquibase.exception.LiquibaseException;
+import liquibase.ext.neo4j.database.Neo4jDatabase;
+import liquibase.statement.SqlStatement;
+import liquibase.statement.core.RawParameterizedSqlStatement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the generation of node merge statements, against canned query results.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NodeMergerBenchmark {
+
+    private static final int NODE_COUNT = 10;
+
+    private static final int PROPERTY_COUNT = 20;
+
+    @Param({"10", "1000"})
+    public int relationshipCount;
+
+    private NodeMerger merger;
+
+    private final MatchPattern pattern = MatchPattern.of("(p:Person)", "p");
+
+    private final List<PropertyMergePolicy> policies = List.of(PropertyMergePolicy.of(".*", PropertyMergeStrategy.KEEP_ALL));
+
+    @Setup
+    public void setUp() {
+        merger = new NodeMerger(new CannedResultsDatabase(relationshipCount));
+    }
+
+    @Benchmark
+    public SqlStatement[] merge() throws LiquibaseException {
+        return merger.merge(pattern, policies);
+    }
+
+    private static class CannedResultsDatabase extends Neo4jDatabase {
+
+        private final List<Map<String, ?>> ids = new ArrayList<>(NODE_COUNT);
+
+        private final List<Map<String, ?>> labels;
+
+        private final List<Map<String, ?>> properties = new ArrayList<>(PROPERTY_COUNT);
+
+        private final List<Map<String, ?>> relationships;
+
+        CannedResultsDatabase(int relationshipCount) {
+            for (long id = 0; id < NODE_COUNT; id++) {
+                ids.add(Map.of("id", id));
+            }
+            labels = List.of(Map.of("labels", List.of("Employee", "Person")));
+            for (int i = 0; i < PROPERTY_COUNT; i++) {
+                properties.add(Map.of("property", Map.of("key", "property" + i, "values", List.of("a", "b", "c"))));
+            }
+            relationships = new ArrayList<>(relationshipCount);
+            for (long i = 0; i < relationshipCount; i++) {
+                Map<String, Object> relationship = new HashMap<>();
+                relationship.put("_type", "KNOWS");
+                relationship.put("_properties", Map.of("since", i));
+                // alternate outgoing, incoming and self relationships
+                relationship.put("_startId", i % 3 == 1 ? 100 + i : 1 + i % (NODE_COUNT - 1));
+                relationship.put("_endId", i % 3 == 0 ? 100 + i : 1 + (i + 1) % (NODE_COUNT - 1));
+                relationships.add(Map.of("rel", relationship));
+            }
+        }
+
+        @Override
+        public List<Map<String, ?>> run(SqlStatement statement) {
+            String query = ((RawParameterizedSqlStatement) statement).getSql();
+            if (query.startsWith("MATCH (p:Person)")) {
+                return ids;
+            }
+            if (query.contains("collect(label)")) {
+                return labels;
+            }
+            if (query.contains("AS property")) {
+                return properties;
+            }
+            return relationships;
+        }
+    }
+}
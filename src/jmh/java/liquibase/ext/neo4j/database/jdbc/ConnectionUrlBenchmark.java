@@ -0,0 +1,42 @@
+package liquibase.ext.neo4j.database.jdbc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parsing of JDBC URLs, which happens for every new connection and every shared driver lookup.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConnectionUrlBenchmark {
+
+    private static final String URL = "neo4j+s://example.com:7687/?database=movies&fetch.size=500" +
+            "&max.connection.poolsize=10&connection.timeout=30000&encryption=true&driver.sharing" +
+            "&impersonated.user=some%20user&trust.strategy=TRUST_SYSTEM_CA_SIGNED_CERTIFICATES";
+
+    private static final URI PARSED_URL = URI.create(URL);
+
+    @Benchmark
+    public QueryString parseQueryString() {
+        return QueryStringParser.parseQueryString(URL);
+    }
+
+    @Benchmark
+    public URI stripQueryString() {
+        return URIs.stripQueryString(PARSED_URL);
+    }
+}
@@ -0,0 +1,177 @@
+package liquibase.ext.neo4j.database.jdbc;
+
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.exceptions.NoSuchRecordException;
+import org.neo4j.driver.internal.InternalNode;
+import org.neo4j.driver.internal.InternalPath;
+import org.neo4j.driver.internal.InternalRecord;
+import org.neo4j.driver.internal.InternalRelationship;
+import org.neo4j.driver.internal.types.InternalTypeSystem;
+import org.neo4j.driver.summary.ResultSummary;
+import org.neo4j.driver.types.Entity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Measures the conversion of wide rows read via {@link Neo4jResultSet#getObject(String)}.
+ * Run with <code>-prof gc</code> to compare allocation rates.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Neo4jResultSetBenchmark {
+
+    private static final List<String> KEYS = List.of("node", "list", "path");
+
+    private static final int PATH_LENGTH = 10;
+
+    @Param({"10", "100"})
+    public int width;
+
+    private Record row;
+
+    @Setup
+    public void setUp() {
+        Map<String, Value> properties = new HashMap<>(width);
+        List<Object> list = new ArrayList<>(width);
+        for (int i = 0; i < width; i++) {
+            properties.put("property" + i, Values.value("value" + i));
+            list.add(Map.of("index", i, "tags", List.of("a", "b", "c")));
+        }
+        Value node = new InternalNode(42L, "4:neo4j:42", List.of("Person", "Employee"), properties).asValue();
+        List<Entity> pathEntities = new ArrayList<>(2 * PATH_LENGTH + 1);
+        pathEntities.add(new InternalNode(0L, "4:neo4j:0", List.of("Person"), Map.of()));
+        for (long i = 1; i <= PATH_LENGTH; i++) {
+            pathEntities.add(new InternalRelationship(i, "5:neo4j:" + i, i - 1, "4:neo4j:" + (i - 1), i, "4:neo4j:" + i, "KNOWS", Map.of()));
+            pathEntities.add(new InternalNode(i, "4:neo4j:" + i, List.of("Person"), Map.of()));
+        }
+        Value path = new InternalPath(pathEntities).asValue();
+        row = new InternalRecord(KEYS, List.of(node, Values.value(list), path));
+    }
+
+    @Benchmark
+    public Object readNode() throws SQLException {
+        return firstRow().getObject("node");
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Object readSingleNodeProperty() throws SQLException {
+        Map<String, Object> node = (Map<String, Object>) firstRow().getObject("node");
+        return ((Map<String, Object>) node.get("_properties")).get("property0");
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void readAllNodeProperties(Blackhole blackhole) throws SQLException {
+        Map<String, Object> node = (Map<String, Object>) firstRow().getObject("node");
+        ((Map<String, Object>) node.get("_properties")).forEach((key, value) -> blackhole.consume(value));
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Object readFirstListElement() throws SQLException {
+        return ((List<Object>) firstRow().getObject("list")).get(0);
+    }
+
+    @Benchmark
+    public Object readPath() throws SQLException {
+        return firstRow().getObject("path");
+    }
+
+    private Neo4jResultSet firstRow() throws SQLException {
+        Neo4jResultSet resultSet = new Neo4jResultSet(null, InternalTypeSystem.TYPE_SYSTEM, new SingleRecordResult(row));
+        resultSet.next();
+        return resultSet;
+    }
+
+    private static class SingleRecordResult implements Result {
+
+        private Record record;
+
+        SingleRecordResult(Record record) {
+            this.record = record;
+        }
+
+        @Override
+        public List<String> keys() {
+            return KEYS;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return record != null;
+        }
+
+        @Override
+        public Record next() {
+            if (record == null) {
+                throw new NoSuchRecordException("No more records");
+            }
+            Record result = record;
+            record = null;
+            return result;
+        }
+
+        @Override
+        public Record single() {
+            return next();
+        }
+
+        @Override
+        public Record peek() {
+            return record;
+        }
+
+        @Override
+        public Stream<Record> stream() {
+            return Stream.ofNullable(record);
+        }
+
+        @Override
+        public List<Record> list() {
+            return stream().toList();
+        }
+
+        @Override
+        public <T> List<T> list(Function<Record, T> mapFunction) {
+            return stream().map(mapFunction).toList();
+        }
+
+        @Override
+        public ResultSummary consume() {
+            record = null;
+            return null;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return record != null;
+        }
+    }
+}
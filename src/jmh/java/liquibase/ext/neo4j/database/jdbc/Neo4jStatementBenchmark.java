@@ -0,0 +1,87 @@
+package liquibase.ext.neo4j.database.jdbc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parameter binding of prepared statements, which happens once per executed Liquibase statement.
+ * No statement is sent to the server.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Neo4jStatementBenchmark {
+
+    private static final Date DATE = Date.valueOf("2024-01-01");
+
+    private static final Timestamp TIMESTAMP = Timestamp.valueOf("2024-01-01 12:00:00");
+
+    @Param({"10", "100"})
+    public int batchSize;
+
+    private Neo4jConnection connection;
+
+    private Neo4jStatement statement;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = new Neo4jConnection("jdbc:neo4j:neo4j://localhost", new Properties());
+        connection.setAutoCommit(false);
+        statement = new Neo4jStatement(connection, "CREATE (n:Node {a: $1, b: $2, c: $3, d: $4, e: $5, f: $6, g: $7, h: $8})");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> bindParameters() throws SQLException {
+        bind(statement, 42);
+        return statement.getParameters();
+    }
+
+    @Benchmark
+    public int accumulateBatch() throws SQLException {
+        for (int i = 0; i < batchSize; i++) {
+            bind(statement, i);
+            statement.addBatch();
+        }
+        statement.clearBatch();
+        return batchSize;
+    }
+
+    private static void bind(Neo4jStatement statement, int i) throws SQLException {
+        statement.clearParameters();
+        statement.setInt(1, i);
+        statement.setLong(2, i * 1_000L);
+        statement.setString(3, "value");
+        statement.setBoolean(4, i % 2 == 0);
+        statement.setBigDecimal(5, BigDecimal.TEN);
+        statement.setDate(6, DATE);
+        statement.setTimestamp(7, TIMESTAMP);
+        statement.setObject(8, List.of("a", "b", "c"));
+    }
+}
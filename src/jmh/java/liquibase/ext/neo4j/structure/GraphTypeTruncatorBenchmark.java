@@ -0,0 +1,43 @@
+package liquibase.ext.neo4j.structure;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the truncation of graph type specifications, as displayed by snapshots.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GraphTypeTruncatorBenchmark {
+
+    private static final String SHORT_SPEC = "{(:`Person` => {`name` :: STRING})}";
+
+    private static final String LONG_SPEC = "{\n" +
+            "  (:`Company` => {`address` :: STRING, `name` :: STRING}),\n" +
+            "  (:`Person`)-[:`WORKS_FOR` => {`role` :: STRING}]->(:`Company` =>),\n" +
+            "  CONSTRAINT `constraint_1324d6fc` FOR (`n`:`Company` =>) REQUIRE (`n`.`address`) IS UNIQUE\n" +
+            "}";
+
+    @Benchmark
+    public String truncateShortSpec() {
+        return GraphTypeTruncator.truncate(SHORT_SPEC);
+    }
+
+    @Benchmark
+    public String truncateLongSpec() {
+        return GraphTypeTruncator.truncate(LONG_SPEC);
+    }
+}
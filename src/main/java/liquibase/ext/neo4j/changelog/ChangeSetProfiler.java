@@ -0,0 +1,284 @@
+package liquibase.ext.neo4j.changelog;
+
+import liquibase.Scope;
+import liquibase.changelog.ChangeSet;
+import liquibase.ext.neo4j.database.jdbc.Neo4jStatementListener;
+import liquibase.ext.neo4j.database.jdbc.StatementKind;
+import org.neo4j.driver.summary.ResultSummary;
+import org.neo4j.driver.summary.SummaryCounters;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregates the Cypher statements run on behalf of each change set into an execution profile.
+ * Statements are attributed to the change set Liquibase is currently running, history and lock statements are left
+ * out.
+ * Profiles are kept in execution order and written as CSV or JSON by {@link #writeReport(Path, String)}.
+ */
+public class ChangeSetProfiler implements Neo4jStatementListener {
+
+    private static final String[] COLUMNS = {
+            "changeLog", "id", "author", "statements", "failedStatements", "serverTimeMs", "clientTimeMs",
+            "nodesCreated", "nodesDeleted", "relationshipsCreated", "relationshipsDeleted", "propertiesSet",
+            "innerTransactions"
+    };
+
+    private static final DateTimeFormatter REPORT_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmssSSS'Z'").withZone(ZoneOffset.UTC);
+
+    private final Map<String, ChangeSetProfile> profiles = new LinkedHashMap<>();
+
+    private final Clock clock;
+
+    public ChangeSetProfiler() {
+        this(Clock.systemUTC());
+    }
+
+    ChangeSetProfiler(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public Completion statementStarted(StatementKind kind, String cypher) {
+        if (kind == StatementKind.HISTORY || kind == StatementKind.LOCK) {
+            return null;
+        }
+        ChangeSet changeSet = Scope.getCurrentScope().get(Scope.Attr.changeSet.name(), ChangeSet.class);
+        if (changeSet == null) {
+            return null;
+        }
+        ChangeSetProfile profile = profileOf(changeSet);
+        return (clientTimeNanos, summary, innerTransactions) -> record(profile, clientTimeNanos, summary, innerTransactions);
+    }
+
+    /**
+     * Writes the profiles collected so far and starts over.
+     * Nothing is written if no change set has been profiled since the last report.
+     * Every report goes to a new file, named after the configured one, the database and the time of the report, so
+     * that concurrent databases and successive commands do not overwrite each other's reports.
+     *
+     * @param report       the configured report file, written as CSV if its name ends with <code>.csv</code>, as JSON
+     *                     otherwise
+     * @param databaseName the profiled database, null if unknown
+     * @return the written file, null if nothing has been written
+     */
+    public Path writeReport(Path report, String databaseName) throws IOException {
+        List<ChangeSetProfile> snapshot;
+        synchronized (this) {
+            if (profiles.isEmpty()) {
+                return null;
+            }
+            snapshot = new ArrayList<>(profiles.size());
+            for (ChangeSetProfile profile : profiles.values()) {
+                snapshot.add(profile.copy());
+            }
+            profiles.clear();
+        }
+        Path parent = report.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        String fileName = report.getFileName().toString();
+        int extensionStart = fileName.lastIndexOf('.');
+        String baseName = extensionStart > 0 ? fileName.substring(0, extensionStart) : fileName;
+        String extension = extensionStart > 0 ? fileName.substring(extensionStart) : "";
+        StringBuilder uniqueName = new StringBuilder(baseName);
+        if (databaseName != null) {
+            uniqueName.append('-').append(databaseName.replaceAll("[^A-Za-z0-9._-]", "_"));
+        }
+        uniqueName.append('-').append(REPORT_TIMESTAMP.format(clock.instant()));
+        for (int attempt = 0; ; attempt++) {
+            Path file = report.resolveSibling(uniqueName + (attempt == 0 ? "" : "-" + attempt) + extension);
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                if (extension.equalsIgnoreCase(".csv")) {
+                    writeCsv(writer, snapshot);
+                } else {
+                    writeJson(writer, snapshot);
+                }
+                return file;
+            } catch (FileAlreadyExistsException e) {
+                // another report has been written at the same millisecond
+            }
+        }
+    }
+
+    private synchronized ChangeSetProfile profileOf(ChangeSet changeSet) {
+        String key = String.join("::", changeSet.getFilePath(), changeSet.getId(), changeSet.getAuthor());
+        return profiles.computeIfAbsent(key, k -> new ChangeSetProfile(changeSet.getFilePath(), changeSet.getId(), changeSet.getAuthor()));
+    }
+
+    // completions may be notified from driver threads when statements are pipelined
+    private synchronized void record(ChangeSetProfile profile, long clientTimeNanos, ResultSummary summary, long innerTransactions) {
+        profile.statements++;
+        profile.clientTimeNanos += clientTimeNanos;
+        if (innerTransactions < 0) {
+            profile.innerTransactionsKnown = false;
+        } else {
+            profile.innerTransactions += innerTransactions;
+        }
+        if (summary == null) {
+            profile.failedStatements++;
+            return;
+        }
+        profile.serverTimeMillis += Math.max(0, summary.resultAvailableAfter(TimeUnit.MILLISECONDS))
+                + Math.max(0, summary.resultConsumedAfter(TimeUnit.MILLISECONDS));
+        SummaryCounters counters = summary.counters();
+        profile.nodesCreated += counters.nodesCreated();
+        profile.nodesDeleted += counters.nodesDeleted();
+        profile.relationshipsCreated += counters.relationshipsCreated();
+        profile.relationshipsDeleted += counters.relationshipsDeleted();
+        profile.propertiesSet += counters.propertiesSet();
+    }
+
+    private static void writeCsv(BufferedWriter writer, List<ChangeSetProfile> profiles) throws IOException {
+        writer.write(String.join(",", COLUMNS));
+        writer.newLine();
+        for (ChangeSetProfile profile : profiles) {
+            List<Object> values = profile.values();
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(csvValue(values.get(i)));
+            }
+            writer.newLine();
+        }
+    }
+
+    private static void writeJson(BufferedWriter writer, List<ChangeSetProfile> profiles) throws IOException {
+        writer.write('[');
+        for (int i = 0; i < profiles.size(); i++) {
+            writer.write(i == 0 ? "\n  {" : ",\n  {");
+            List<Object> values = profiles.get(i).values();
+            for (int j = 0; j < COLUMNS.length; j++) {
+                if (j > 0) {
+                    writer.write(", ");
+                }
+                writer.write(jsonString(COLUMNS[j]));
+                writer.write(": ");
+                Object value = values.get(j);
+                writer.write(value instanceof Number || value == null ? String.valueOf(value) : jsonString(value.toString()));
+            }
+            writer.write('}');
+        }
+        writer.write("\n]");
+        writer.newLine();
+    }
+
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String result = value.toString();
+        if (result.indexOf(',') < 0 && result.indexOf('"') < 0 && result.indexOf('\n') < 0 && result.indexOf('\r') < 0) {
+            return result;
+        }
+        return '"' + result.replace("\"", "\"\"") + '"';
+    }
+
+    private static String jsonString(String value) {
+        StringBuilder result = new StringBuilder(value.length() + 2).append('"');
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    result.append("\\\"");
+                    break;
+                case '\\':
+                    result.append("\\\\");
+                    break;
+                case '\n':
+                    result.append("\\n");
+                    break;
+                case '\r':
+                    result.append("\\r");
+                    break;
+                case '\t':
+                    result.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        result.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        result.append(c);
+                    }
+            }
+        }
+        return result.append('"').toString();
+    }
+
+    private static class ChangeSetProfile {
+
+        private final String changeLog;
+
+        private final String id;
+
+        private final String author;
+
+        private long statements;
+
+        private long failedStatements;
+
+        private long serverTimeMillis;
+
+        private long clientTimeNanos;
+
+        private long nodesCreated;
+
+        private long nodesDeleted;
+
+        private long relationshipsCreated;
+
+        private long relationshipsDeleted;
+
+        private long propertiesSet;
+
+        private long innerTransactions;
+
+        private boolean innerTransactionsKnown = true;
+
+        ChangeSetProfile(String changeLog, String id, String author) {
+            this.changeLog = changeLog;
+            this.id = id;
+            this.author = author;
+        }
+
+        ChangeSetProfile copy() {
+            ChangeSetProfile result = new ChangeSetProfile(changeLog, id, author);
+            result.statements = statements;
+            result.failedStatements = failedStatements;
+            result.serverTimeMillis = serverTimeMillis;
+            result.clientTimeNanos = clientTimeNanos;
+            result.nodesCreated = nodesCreated;
+            result.nodesDeleted = nodesDeleted;
+            result.relationshipsCreated = relationshipsCreated;
+            result.relationshipsDeleted = relationshipsDeleted;
+            result.propertiesSet = propertiesSet;
+            result.innerTransactions = innerTransactions;
+            result.innerTransactionsKnown = innerTransactionsKnown;
+            return result;
+        }
+
+        // follows the order of COLUMNS, an unknown number of inner transactions is reported as null
+        List<Object> values() {
+            return Arrays.asList(
+                    changeLog, id, author, statements, failedStatements, serverTimeMillis,
+                    TimeUnit.NANOSECONDS.toMillis(clientTimeNanos), nodesCreated, nodesDeleted, relationshipsCreated,
+                    relationshipsDeleted, propertiesSet, innerTransactionsKnown ? innerTransactions : null
+            );
+        }
+    }
+}
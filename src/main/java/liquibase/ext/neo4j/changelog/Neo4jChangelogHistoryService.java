@@ -2,6 +2,8 @@ package liquibase.ext.neo4j.changelog;
 
 import liquibase.ChecksumVersion;
 import liquibase.ContextExpression;
+import liquibase.Contexts;
+import liquibase.LabelExpression;
 import liquibase.Labels;
 import liquibase.Scope;
 import liquibase.Scope.Attr;
@@ -9,24 +11,50 @@ import liquibase.change.CheckSum;
 import liquibase.change.core.TagDatabaseChange;
 import liquibase.changelog.AbstractChangeLogHistoryService;
 import liquibase.changelog.ChangeSet;
+import liquibase.changelog.DatabaseChangeLog;
 import liquibase.changelog.RanChangeSet;
+import liquibase.changelog.filter.ContextChangeSetFilter;
+import liquibase.changelog.filter.DbmsChangeSetFilter;
 import liquibase.database.Database;
+import liquibase.database.DatabaseConnection;
 import liquibase.exception.DatabaseException;
+import liquibase.exception.DatabaseHistoryException;
 import liquibase.exception.LiquibaseException;
 import liquibase.executor.Executor;
 import liquibase.executor.ExecutorService;
+import liquibase.ext.neo4j.changelog.RanChangeSetFileCache.HistoryVersion;
+import liquibase.ext.neo4j.configuration.Neo4jConfiguration;
+import liquibase.ext.neo4j.database.KernelVersion;
 import liquibase.ext.neo4j.database.Neo4jDatabase;
+import liquibase.logging.Logger;
+import liquibase.statement.SqlStatement;
 import liquibase.statement.core.RawParameterizedSqlStatement;
 import liquibase.statement.core.RawSqlStatement;
 import liquibase.util.LiquibaseUtil;
 
-import java.sql.Timestamp;
+import java.nio.file.Paths;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.partitioningBy;
 import static java.util.stream.Collectors.toList;
+import static liquibase.ext.neo4j.database.KernelVersion.V4_0_0;
+import static liquibase.ext.neo4j.database.KernelVersion.V4_4_0;
+import static liquibase.ext.neo4j.database.KernelVersion.V5_0_0;
+import static liquibase.ext.neo4j.database.KernelVersion.V5_21_0;
+import static liquibase.ext.neo4j.database.KernelVersion.V5_3_0;
 
 public class Neo4jChangelogHistoryService extends AbstractChangeLogHistoryService {
 
@@ -40,10 +68,72 @@ public class Neo4jChangelogHistoryService extends AbstractChangeLogHistoryServic
 
     public static final String CHANGE_SET_CHECK_SUM_INDEX_NAME = "index_liquibase_change_set_check_sum";
 
+    public static final String CHANGE_SET_KEY_INDEX_NAME = "index_liquibase_change_set_key";
+
+    // range predicates are served by the checksum index, the first match is enough
+    private static final String OTHER_CHECK_SUM_VERSION_QUERY =
+            "MATCH (changeSet:__LiquibaseChangeSet) " +
+                    "WHERE changeSet.checkSum < $1 AND (changeSet)-[:IN_CHANGELOG]->(:__LiquibaseChangeLog) " +
+                    "RETURN true AS found LIMIT 1 " +
+                    "UNION " +
+                    "MATCH (changeSet:__LiquibaseChangeSet) " +
+                    "WHERE changeSet.checkSum >= $2 AND (changeSet)-[:IN_CHANGELOG]->(:__LiquibaseChangeLog) " +
+                    "RETURN true AS found LIMIT 1";
+
+    // keeps track of the highest execution order, so that the next sequence value does not require a history scan
+    private static final String LAST_ORDER_EXECUTED_CLAUSE =
+            "SET changeLog.lastOrderExecuted = reduce(" +
+                    "   last = coalesce(changeLog.lastOrderExecuted, 0), record IN $1 | " +
+                    "   CASE WHEN record.orderExecuted > last THEN record.orderExecuted ELSE last END" +
+                    ") ";
+
+    /**
+     * Cypher tail linking each change set bound to the <code>changeSet</code> variable to the contexts, labels and tag
+     * of its history record, bound to the <code>record</code> variable.
+     * If the tag already exists, it is disconnected from any prior change set
+     * If the change set is already tagged, it is first untagged
+     * The tag clauses come last since they rely on UNWIND, which yields no rows when the change set is not tagged
+     */
+    private static final String LINK_CLAUSES = "FOREACH (contextValue IN record.contexts | " +
+            "   MERGE (context:__LiquibaseContext {context: contextValue}) " +
+            "      ON CREATE SET context.dateCreated = datetime() " +
+            "      ON MATCH SET context.dateUpdated = datetime() " +
+            "   CREATE (context)-[:CONTEXTUALIZES]->(changeSet)) " +
+            "FOREACH (labelValue IN record.labels | " +
+            "   MERGE (label:__LiquibaseLabel {label: labelValue}) " +
+            "      ON CREATE SET label.dateCreated = datetime() " +
+            "      ON MATCH SET label.dateUpdated = datetime() " +
+            "   CREATE (label)-[:LABELS]->(changeSet)) " +
+            "WITH changeSet, record " +
+            "UNWIND record.tag AS tagValue " +
+            "MERGE (tag:__LiquibaseTag {tag: tagValue}) " +
+            "   ON CREATE SET tag.dateCreated = datetime() " +
+            "   ON MATCH SET tag.dateUpdated = datetime() " +
+            "WITH changeSet, tag " +
+            "OPTIONAL MATCH (tag)-[r:TAGS]->(:__LiquibaseChangeSet) DELETE r " +
+            "WITH DISTINCT changeSet, tag " +
+            "OPTIONAL MATCH (changeSet)<-[r:TAGS]-(:__LiquibaseTag) DELETE r " +
+            "WITH DISTINCT changeSet, tag " +
+            "CREATE (tag)-[:TAGS]->(changeSet)";
+
     private Neo4jDatabase database;
 
+    private final List<Map<String, Object>> pendingRecords = new ArrayList<>();
+
+    // the in-memory history, in execution order
     private List<RanChangeSet> ranChangeSets;
 
+    // lookup structures over ranChangeSets, rebuilt whenever the list itself is replaced
+    private List<RanChangeSet> indexedRanChangeSets;
+
+    // keyed like history nodes, by exact id, author and change log
+    private Map<List<String>, RanChangeSet> ranChangeSetsByKey;
+
+    // keyed like RanChangeSet#isSameAs, which ignores case and normalizes change log paths, in execution order
+    private Map<List<String>, List<RanChangeSet>> ranChangeSetsByNormalizedKey;
+
+    private Map<String, RanChangeSet> ranChangeSetsByTag;
+
     private Integer lastChangeSetSequenceValue;
 
     private boolean containsOlderCheckSums;
@@ -74,14 +164,17 @@ public class Neo4jChangelogHistoryService extends AbstractChangeLogHistoryServic
     public void init() throws DatabaseException {
         currentCheckSumVersion = Scope.getCurrentScope().get(Attr.checksumVersion, ChecksumVersion.class);
         cleanUpGraph();
-        createConstraints();
-        createIndices();
+        Set<String> existingIndexNames = database.listIndexNames();
+        database.rollback();
+        createConstraints(existingIndexNames);
+        createIndices(existingIndexNames);
         initializeHistory();
         readCheckSums();
     }
 
     @Override
     public void destroy() throws DatabaseException {
+        pendingRecords.clear();
         removeHistory();
         removeIndices();
         removeConstraints();
@@ -104,11 +197,25 @@ public class Neo4jChangelogHistoryService extends AbstractChangeLogHistoryServic
         if (ranChangeSets != null) {
             return ranChangeSets;
         }
-        Executor executor = Scope.getCurrentScope().getSingleton(ExecutorService.class).getExecutor("jdbc", database);
+        flush();
+        RanChangeSetFileCache fileCache = fileCache();
         try {
-            List<Map<String, Object>> results = readChangeSets(executor);
+            if (fileCache == null) {
+                List<RanChangeSet> results = readChangeSets();
+                database.rollback();
+                loadRanChangeSets(results);
+                return ranChangeSets;
+            }
+            HistoryVersion version = readHistoryVersion();
+            List<RanChangeSet> results = version == null ? null : fileCache.read(version);
+            if (results == null) {
+                results = readChangeSets();
+                if (version != null) {
+                    fileCache.write(version, results);
+                }
+            }
             database.rollback();
-            ranChangeSets = mapRanChangeSets(results);
+            loadRanChangeSets(results);
         } catch (LiquibaseException e) {
             throw new DatabaseException("Could not read ran change sets", e);
         }
@@ -118,10 +225,11 @@ public class Neo4jChangelogHistoryService extends AbstractChangeLogHistoryServic
     // visible for Liquigraph
     @Override
     public void replaceChecksum(ChangeSet changeSet) throws DatabaseException {
+        flush();
         try {
             database.execute(new RawParameterizedSqlStatement(
                     "MATCH (changeSet:__LiquibaseChangeSet {id: $1, author: $2, changeLog: $3})-[:IN_CHANGELOG]->(changeLog:__LiquibaseChangeLog) " +
-                            "SET changeLog.dateUpdated = datetime() SET changeSet.checkSum = $4",
+                            "SET changeLog.dateUpdated = datetime(), changeLog.revision = coalesce(changeLog.revision, 0) + 1 SET changeSet.checkSum = $4",
                     changeSet.getId(),
                     changeSet.getAuthor(),
                     changeSet.getFilePath(),
@@ -134,9 +242,87 @@ public class Neo4jChangelogHistoryService extends AbstractChangeLogHistoryServic
         reset();
     }
 
+    /**
+     * Replaces the checksums of the given change sets in a single statement.
+     * Contrary to {@link #replaceChecksum(ChangeSet)}, the in-memory history is only invalidated once, regardless of
+     * the number of change sets.
+     *
+     * @param changeSets the change sets whose checksum needs to be replaced
+     * @throws DatabaseException if the checksums could not be replaced
+     */
+    public void replaceChecksums(Collection<ChangeSet> changeSets) throws DatabaseException {
+        if (changeSets.isEmpty()) {
+            return;
+        }
+        flush();
+        List<Map<String, Object>> records = new ArrayList<>(changeSets.size());
+        for (ChangeSet changeSet : changeSets) {
+            Map<String, Object> record = new HashMap<>(4);
+            record.put("id", changeSet.getId());
+            record.put("author", changeSet.getAuthor());
+            record.put("changeLog", changeSet.getFilePath());
+            record.put("checkSum", changeSet.generateCheckSum(currentCheckSumVersion).toString());
+            records.add(record);
+        }
+        try {
+            database.execute(new RawParameterizedSqlStatement(
+                    "MATCH (changeLog:__LiquibaseChangeLog) " +
+                            "SET changeLog.dateUpdated = datetime(), changeLog.revision = coalesce(changeLog.revision, 0) + 1 " +
+                            "WITH changeLog " +
+                            "UNWIND $1 AS record " +
+                            "MATCH (changeSet:__LiquibaseChangeSet {id: record.id, author: record.author, changeLog: record.changeLog})-[:IN_CHANGELOG]->(changeLog) " +
+                            "SET changeSet.checkSum = record.checkSum",
+                    records
+            ));
+            database.commit();
+        } catch (LiquibaseException e) {
+            throw new DatabaseException(String.format("Could not replace checksums of %d change set(s)", changeSets.size()), e);
+        }
+        reset();
+    }
+
+    @Override
+    public void upgradeChecksums(DatabaseChangeLog databaseChangeLog, Contexts contexts, LabelExpression labels) throws DatabaseException {
+        // same selection as the default implementation, but the checksums are replaced all at once
+        ContextChangeSetFilter contextFilter = new ContextChangeSetFilter(contexts);
+        DbmsChangeSetFilter dbmsFilter = new DbmsChangeSetFilter(database);
+        Logger log = Scope.getCurrentScope().getLog(getClass());
+        List<ChangeSet> changeSets = new ArrayList<>();
+        for (RanChangeSet ranChangeSet : getRanChangeSets()) {
+            if (ranChangeSet.getLastCheckSum() != null) {
+                continue;
+            }
+            for (ChangeSet changeSet : databaseChangeLog.getChangeSets(ranChangeSet)) {
+                if (changeSet != null
+                        && contextFilter.accepts(changeSet).isAccepted()
+                        && dbmsFilter.accepts(changeSet).isAccepted()) {
+                    log.fine(String.format("Updating null or out of date checksum on change set %s to correct value", changeSet));
+                    changeSets.add(changeSet);
+                }
+            }
+        }
+        replaceChecksums(changeSets);
+    }
+
+    @Override
+    public RanChangeSet getRanChangeSet(ChangeSet changeSet) throws DatabaseException, DatabaseHistoryException {
+        getRanChangeSets();
+        indexRanChangeSets();
+        RanChangeSet ranChangeSet = ranChangeSetsByKey.get(key(changeSet.getId(), changeSet.getAuthor(), changeSet.getFilePath()));
+        if (ranChangeSet != null) {
+            return ranChangeSet;
+        }
+        List<RanChangeSet> sameChangeSets = ranChangeSetsByNormalizedKey.get(normalizedKey(changeSet.getId(), changeSet.getAuthor(), changeSet.getFilePath()));
+        return sameChangeSets == null ? null : sameChangeSets.get(0);
+    }
+
     @Override
     public void reset() {
         ranChangeSets = null;
+        indexedRanChangeSets = null;
+        ranChangeSetsByKey = null;
+        ranChangeSetsByNormalizedKey = null;
+        ranChangeSetsByTag = null;
         lastChangeSetSequenceValue = null;
     }
 
@@ -145,27 +331,72 @@ public class Neo4jChangelogHistoryService extends AbstractChangeLogHistoryServic
         if (execType == ChangeSet.ExecType.FAILED || execType == ChangeSet.ExecType.SKIPPED) {
             return;
         }
+        boolean groupCommit = Neo4jConfiguration.HISTORY_GROUP_COMMIT.getCurrentValue();
         try {
-            int nextSequenceValue = getNextSequenceValue();
-            if (execType == ChangeSet.ExecType.RERAN) {
-                updateChangeSet(changeSet, execType, nextSequenceValue);
-            } else {
-                insertChangeSet(changeSet, execType, nextSequenceValue);
+            Map<String, Object> record = historyRecord(changeSet, execType, getNextSequenceValue());
+            if (!groupCommit) {
+                writeChangeSets(singletonList(record));
+                database.commit();
+                updateRanChangeSets(record);
+                return;
             }
-            reLinkChangeSet(changeSet);
-            database.commit();
+            if (conflictsWithPendingRecords(record)) {
+                flush();
+            }
+            pendingRecords.add(record);
+            updateRanChangeSets(record);
         } catch (LiquibaseException e) {
             database.rollback();
             throw new DatabaseException(String.format("Could not persist change set %s with execution type %s", changeSet, execType), e);
         }
+        int groupCommitSize = Neo4jConfiguration.HISTORY_GROUP_COMMIT_SIZE.getCurrentValue();
+        if (!changeSet.isRunInTransaction() || (groupCommitSize > 0 && pendingRecords.size() >= groupCommitSize)) {
+            flush();
+        }
+    }
+
+    /**
+     * Persists, in a single transaction, the history records queued while {@link Neo4jConfiguration#HISTORY_GROUP_COMMIT}
+     * is enabled.
+     * This is a no-op when nothing is pending.
+     * Pending records are discarded whether the flush succeeds or not: the corresponding change sets run again during
+     * the next update, exactly as if the process had been killed before the flush.
+     *
+     * @throws DatabaseException if the pending records cannot be persisted
+     */
+    public void flush() throws DatabaseException {
+        if (pendingRecords.isEmpty()) {
+            return;
+        }
+        List<Map<String, Object>> records = new ArrayList<>(pendingRecords);
+        pendingRecords.clear();
+        try {
+            writeChangeSets(records);
+            database.commit();
+        } catch (LiquibaseException e) {
+            database.rollback();
+            // the in-memory history already includes the pending change sets
+            reset();
+            throw new DatabaseException(String.format("Could not persist %d pending change set(s)", records.size()), e);
+        }
+    }
+
+    @Override
+    public ChangeSet.RunStatus getRunStatus(ChangeSet changeSet) throws DatabaseException, DatabaseHistoryException {
+        if (!changeSet.isRunInTransaction()) {
+            // non-transactional change sets may end up partially applied, record all prior change sets before they run
+            flush();
+        }
+        return super.getRunStatus(changeSet);
     }
 
     @Override
     public void removeFromHistory(ChangeSet changeSet) throws DatabaseException {
+        flush();
         try {
             database.execute(new RawParameterizedSqlStatement(
                     "MATCH (changeSet:__LiquibaseChangeSet {id: $1, author: $2, changeLog: $3 })-[:IN_CHANGELOG]->(changeLog:__LiquibaseChangeLog) " +
-                    "SET changeLog.dateUpdated = datetime() DETACH DELETE changeSet",
+                    "SET changeLog.dateUpdated = datetime(), changeLog.revision = coalesce(changeLog.revision, 0) + 1 DETACH DELETE changeSet",
                     changeSet.getId(),
                     changeSet.getAuthor(),
                     changeSet.getFilePath()
@@ -176,39 +407,55 @@ public class Neo4jChangelogHistoryService extends AbstractChangeLogHistoryServic
             throw new DatabaseException(String.format("Could not remove change set %s from history", changeSet), e);
         }
         if (ranChangeSets != null) {
-            ranChangeSets.remove(new RanChangeSet(changeSet));
+            indexRanChangeSets();
+            RanChangeSet ranChangeSet = ranChangeSetsByKey.get(key(changeSet.getId(), changeSet.getAuthor(), changeSet.getFilePath()));
+            if (ranChangeSet != null) {
+                removeRanChangeSet(ranChangeSet);
+            }
         }
     }
 
     @Override
     public int getNextSequenceValue() throws LiquibaseException {
         if (lastChangeSetSequenceValue == null) {
-            Executor executor = Scope.getCurrentScope().getSingleton(ExecutorService.class).getExecutor("jdbc", database);
-            int value = (int) executor
-                    .queryForLong(new RawSqlStatement(
-                            "MATCH (:__LiquibaseChangeSet)-[execution:IN_CHANGELOG]->(:__LiquibaseChangeLog) "
-                            + "RETURN MAX(execution.orderExecuted) AS value"));
+            flush();
+            List<Object> values = database.query(
+                    "MATCH (changeLog:__LiquibaseChangeLog) RETURN changeLog.lastOrderExecuted AS value",
+                    (row, rowNumber) -> row.getObject("value"));
+            Object value = values.isEmpty() ? null : values.get(0);
+            if (value == null) {
+                // history graphs written by older versions of the extension do not track the last execution order yet
+                Executor executor = Scope.getCurrentScope().getSingleton(ExecutorService.class).getExecutor("jdbc", database);
+                value = executor
+                        .queryForLong(new RawSqlStatement(
+                                "MATCH (:__LiquibaseChangeSet)-[execution:IN_CHANGELOG]->(:__LiquibaseChangeLog) "
+                                + "RETURN MAX(execution.orderExecuted) AS value"));
+            }
             database.rollback();
-            lastChangeSetSequenceValue = value;
+            lastChangeSetSequenceValue = ((Number) value).intValue();
         }
         return ++lastChangeSetSequenceValue;
     }
 
     @Override
     public void tag(String tagString) throws DatabaseException {
+        flush();
         Map<String, Object> changeSetIds = mergeTag(tagString);
         if (this.ranChangeSets != null && changeSetIds != null) {
-            this.ranChangeSets.stream()
-                    .filter(ranChangeSet -> ranChangeSet.getId().equals(changeSetIds.get("id"))
-                            && ranChangeSet.getAuthor().equals(changeSetIds.get("author"))
-                            && ranChangeSet.getChangeLog().equals(changeSetIds.get("changeLog")))
-                    .findFirst()
-                    .ifPresent(ranChangeSet -> ranChangeSet.setTag(tagString));
+            indexRanChangeSets();
+            RanChangeSet ranChangeSet = ranChangeSetsByKey.get(key(
+                    (String) changeSetIds.get("id"),
+                    (String) changeSetIds.get("author"),
+                    (String) changeSetIds.get("changeLog")));
+            if (ranChangeSet != null) {
+                moveTag(tagString, ranChangeSet);
+            }
         }
     }
 
     @Override
     public boolean tagExists(String tag) throws DatabaseException {
+        flush();
         Executor executor = Scope.getCurrentScope().getSingleton(ExecutorService.class).getExecutor("jdbc", database);
         long count = executor.queryForLong(new RawParameterizedSqlStatement("MATCH (t:__LiquibaseTag {tag: $1}) RETURN count(t) AS count", tag));
         database.rollback();
@@ -217,167 +464,377 @@ public class Neo4jChangelogHistoryService extends AbstractChangeLogHistoryServic
 
     @Override
     public void clearAllCheckSums() throws LiquibaseException {
+        flush();
+        if (database.getKernelVersion().compareTo(V4_4_0) < 0) {
+            database.execute(new RawSqlStatement(
+                    "MATCH (changeLog:__LiquibaseChangeLog) " +
+                    "SET changeLog.dateUpdated = datetime(), changeLog.revision = coalesce(changeLog.revision, 0) + 1 " +
+                    "WITH changeLog " +
+                    "MATCH (changeSet:__LiquibaseChangeSet)-[:IN_CHANGELOG]->(changeLog) " +
+                    "REMOVE changeSet.checkSum"));
+            database.commit();
+            return;
+        }
+        // the change log is updated first: if a batch fails, the history is still considered changed
         database.execute(new RawSqlStatement(
-                "MATCH (changeSet:__LiquibaseChangeSet)-[:IN_CHANGELOG]->(changeLog:__LiquibaseChangeLog) " +
-                "SET changeLog.dateUpdated = datetime() " +
-                "REMOVE changeSet.checkSum"));
+                "MATCH (changeLog:__LiquibaseChangeLog) " +
+                "SET changeLog.dateUpdated = datetime(), changeLog.revision = coalesce(changeLog.revision, 0) + 1"));
         database.commit();
+        // large histories would otherwise build a single transaction state as large as the history itself
+        runInAutocommitTransaction(new RawSqlStatement(String.format(
+                "MATCH (changeSet:__LiquibaseChangeSet)-[:IN_CHANGELOG]->(:__LiquibaseChangeLog) " +
+                "WHERE changeSet.checkSum IS NOT NULL " +
+                "CALL { WITH changeSet REMOVE changeSet.checkSum } IN TRANSACTIONS OF %d ROWS", batchSize())));
+    }
+
+    // CALL {} IN TRANSACTIONS can only run in implicit (autocommit) transactions
+    private void runInAutocommitTransaction(SqlStatement statement) throws LiquibaseException {
+        DatabaseConnection connection = database.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(true);
+        try {
+            database.execute(statement);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private boolean conflictsWithPendingRecords(Map<String, Object> record) {
+        // a single batch must neither persist the same change set twice nor move a tag it links
+        return pendingRecords.stream().anyMatch(pendingRecord ->
+                (Objects.equals(pendingRecord.get("id"), record.get("id"))
+                        && Objects.equals(pendingRecord.get("author"), record.get("author"))
+                        && Objects.equals(pendingRecord.get("changeLog"), record.get("changeLog")))
+                        || !Collections.disjoint((List<?>) pendingRecord.get("tag"), (List<?>) record.get("tag")));
+    }
+
+    /**
+     * Loads the in-memory history.
+     *
+     * @param results the ran change sets, in execution order
+     */
+    private void loadRanChangeSets(List<RanChangeSet> results) {
+        ranChangeSets = results instanceof ArrayList ? results : new ArrayList<>(results);
+    }
+
+    /**
+     * Indexes the in-memory history, which must be loaded beforehand, by change set key and tag.
+     * The index is lazily rebuilt whenever the history list is replaced.
+     */
+    private void indexRanChangeSets() {
+        if (indexedRanChangeSets == ranChangeSets) {
+            return;
+        }
+        if (!(ranChangeSets instanceof ArrayList)) {
+            // the in-memory history is updated in place from now on
+            ranChangeSets = new ArrayList<>(ranChangeSets);
+        }
+        ranChangeSetsByKey = new HashMap<>(ranChangeSets.size() * 2);
+        ranChangeSetsByNormalizedKey = new HashMap<>(ranChangeSets.size() * 2);
+        ranChangeSetsByTag = new HashMap<>();
+        for (RanChangeSet ranChangeSet : ranChangeSets) {
+            indexRanChangeSet(ranChangeSet);
+            if (ranChangeSet.getTag() != null) {
+                ranChangeSetsByTag.put(ranChangeSet.getTag(), ranChangeSet);
+            }
+        }
+        indexedRanChangeSets = ranChangeSets;
+    }
+
+    /**
+     * Applies the given history record to the in-memory history, if loaded, the same way it is persisted: change sets
+     * are appended to the history, re-ran change sets are moved to its end.
+     *
+     * @param record the history record that has just been persisted or queued
+     */
+    private void updateRanChangeSets(Map<String, Object> record) {
+        if (ranChangeSets == null) {
+            return;
+        }
+        indexRanChangeSets();
+        RanChangeSet ranChangeSet = ranChangeSet(record);
+        RanChangeSet previous = ranChangeSetsByKey.get(key(ranChangeSet.getId(), ranChangeSet.getAuthor(), ranChangeSet.getChangeLog()));
+        if (previous != null) {
+            removeRanChangeSet(previous);
+            if (ranChangeSet.getTag() == null) {
+                // existing tags are only replaced, never removed, when a change set is re-ran
+                ranChangeSet.setTag(previous.getTag());
+            }
+        }
+        addRanChangeSet(ranChangeSet);
+        if (ranChangeSet.getTag() != null) {
+            moveTag(ranChangeSet.getTag(), ranChangeSet);
+        }
     }
 
-    private List<RanChangeSet> mapRanChangeSets(List<Map<String, Object>> results) {
-        return results.stream().map(this::mapRanChangeSet).collect(toList());
+    private void addRanChangeSet(RanChangeSet ranChangeSet) {
+        ranChangeSets.add(ranChangeSet);
+        indexRanChangeSet(ranChangeSet);
+    }
+
+    private void indexRanChangeSet(RanChangeSet ranChangeSet) {
+        ranChangeSetsByKey.put(key(ranChangeSet.getId(), ranChangeSet.getAuthor(), ranChangeSet.getChangeLog()), ranChangeSet);
+        ranChangeSetsByNormalizedKey
+                .computeIfAbsent(normalizedKey(ranChangeSet.getId(), ranChangeSet.getAuthor(), ranChangeSet.getChangeLog()), key -> new ArrayList<>(1))
+                .add(ranChangeSet);
+    }
+
+    // removals are rare (rollbacks, re-ran change sets) and recent change sets are the likeliest to go
+    private void removeRanChangeSet(RanChangeSet ranChangeSet) {
+        removeLastIdentical(ranChangeSets, ranChangeSet);
+        ranChangeSetsByKey.remove(key(ranChangeSet.getId(), ranChangeSet.getAuthor(), ranChangeSet.getChangeLog()), ranChangeSet);
+        List<String> normalizedKey = normalizedKey(ranChangeSet.getId(), ranChangeSet.getAuthor(), ranChangeSet.getChangeLog());
+        List<RanChangeSet> sameChangeSets = ranChangeSetsByNormalizedKey.get(normalizedKey);
+        if (sameChangeSets != null) {
+            removeLastIdentical(sameChangeSets, ranChangeSet);
+            if (sameChangeSets.isEmpty()) {
+                ranChangeSetsByNormalizedKey.remove(normalizedKey);
+            }
+        }
+        ranChangeSetsByTag.remove(ranChangeSet.getTag(), ranChangeSet);
+    }
+
+    private static void removeLastIdentical(List<RanChangeSet> ranChangeSets, RanChangeSet ranChangeSet) {
+        for (int i = ranChangeSets.size() - 1; i >= 0; i--) {
+            if (ranChangeSets.get(i) == ranChangeSet) {
+                ranChangeSets.remove(i);
+                return;
+            }
+        }
+    }
+
+    private void moveTag(String tag, RanChangeSet ranChangeSet) {
+        RanChangeSet previous = ranChangeSetsByTag.put(tag, ranChangeSet);
+        if (previous != null && previous != ranChangeSet && tag.equals(previous.getTag())) {
+            previous.setTag(null);
+        }
+        String previousTag = ranChangeSet.getTag();
+        if (previousTag != null && !previousTag.equals(tag)) {
+            ranChangeSetsByTag.remove(previousTag, ranChangeSet);
+        }
+        ranChangeSet.setTag(tag);
     }
 
     @SuppressWarnings("unchecked")
-    private List<Map<String, Object>> readChangeSets(Executor executor) throws DatabaseException {
-        return (List<Map<String, Object>>) executor.queryForList(
-                new RawSqlStatement(
-                        "MATCH (changeLog:__LiquibaseChangeLog) " +
-                                "MATCH (changeSet:__LiquibaseChangeSet)-[changeSetExecution:IN_CHANGELOG]->(changeLog) " +
-                                "OPTIONAL MATCH (tag:__LiquibaseTag)-[:TAGS]->(changeSet) " +
-                                "OPTIONAL MATCH (label:__LiquibaseLabel)-[:LABELS]->(changeSet) " +
-                                "OPTIONAL MATCH (context:__LiquibaseContext)-[:CONTEXTUALIZES]->(changeSet) " +
-                                "WITH changeSet, changeSetExecution, tag.tag AS tag, collect(label.label) AS labels, collect(context.context) AS contexts " +
-                                "ORDER BY changeSetExecution.dateExecuted ASC, changeSetExecution.orderExecuted ASC " +
-                                "RETURN changeSet { " +
-                                "   .changeLog, " +
-                                "   .id, " +
-                                "   .author, " +
-                                "   .checkSum, " +
-                                "   .execType, " +
-                                "   .description, " +
-                                "   .comments, " +
-                                "   .deploymentId, " +
-                                "   .storedChangeLog, " +
-                                "   .liquibaseVersion, " +
-                                "   orderExecuted: changeSetExecution.orderExecuted, " +
-                                "   dateExecuted: changeSetExecution.dateExecuted, " +
-                                "   tag: tag, " +
-                                "   labels: labels, " +
-                                "   contexts: contexts " +
-                                "}"
-                ),
-                Map.class
+    private static RanChangeSet ranChangeSet(Map<String, Object> record) {
+        List<String> tag = (List<String>) record.get("tag");
+        RanChangeSet result = new RanChangeSet(
+                (String) record.get("changeLog"),
+                (String) record.get("id"),
+                (String) record.get("author"),
+                CheckSum.parse((String) record.get("checkSum")),
+                new Date(),
+                tag.isEmpty() ? null : tag.get(0),
+                ChangeSet.ExecType.valueOf((String) record.get("execType")),
+                (String) record.get("description"),
+                (String) record.get("comments"),
+                new ContextExpression((Collection<String>) record.get("contexts")),
+                new Labels((Collection<String>) record.get("labels")),
+                (String) record.get("deploymentId"),
+                (String) record.get("storedChangeLog")
+        );
+        result.setOrderExecuted((Integer) record.get("orderExecuted"));
+        result.setLiquibaseVersion((String) record.get("liquibaseVersion"));
+        return result;
+    }
+
+    // mirrors the history node key
+    private static List<String> key(String id, String author, String changeLog) {
+        return Arrays.asList(id, author, changeLog);
+    }
+
+    // mirrors RanChangeSet#isSameAs, which ignores case and normalizes change log paths
+    private static List<String> normalizedKey(String id, String author, String changeLog) {
+        return Arrays.asList(
+                id == null ? null : id.toLowerCase(Locale.ENGLISH),
+                author == null ? null : author.toLowerCase(Locale.ENGLISH),
+                changeLog == null ? null : DatabaseChangeLog.normalizePath(changeLog).toLowerCase(Locale.ENGLISH));
+    }
+
+    private RanChangeSetFileCache fileCache() {
+        String directory = Neo4jConfiguration.HISTORY_CACHE_DIRECTORY.getCurrentValue();
+        if (directory == null || directory.trim().isEmpty()) {
+            return null;
+        }
+        DatabaseConnection connection = database.getConnection();
+        String catalog;
+        try {
+            catalog = connection.getCatalog();
+        } catch (DatabaseException e) {
+            catalog = null;
+        }
+        return RanChangeSetFileCache.forTarget(Paths.get(directory), connection.getURL(), catalog, connection.getConnectionUserName());
+    }
+
+    /**
+     * Reads the current version of the history graph, which only requires the change log node and its degree.
+     * The update date is read down to the nanosecond, since several mutations may happen within the same millisecond.
+     *
+     * @return the history version or <code>null</code> if the history graph is not initialized yet
+     */
+    private HistoryVersion readHistoryVersion() throws DatabaseException {
+        String changeSetCount;
+        if (database.getKernelVersion().compareTo(V5_3_0) >= 0) {
+            changeSetCount = "COUNT { (changeLog)<-[:IN_CHANGELOG]-(:__LiquibaseChangeSet) }";
+        } else if (database.getKernelVersion().compareTo(V5_0_0) >= 0) {
+            changeSetCount = "size([(changeLog)<-[:IN_CHANGELOG]-(:__LiquibaseChangeSet) | 1])";
+        } else {
+            changeSetCount = "size((changeLog)<-[:IN_CHANGELOG]-(:__LiquibaseChangeSet))";
+        }
+        List<HistoryVersion> versions = database.query(
+                "MATCH (changeLog:__LiquibaseChangeLog) " +
+                        "RETURN changeLog.dateCreated.epochMillis AS dateCreated, " +
+                        "   coalesce(changeLog.dateUpdated.epochSeconds * 1000000000 + changeLog.dateUpdated.nanosecond, -1) AS dateUpdated, " +
+                        "   coalesce(changeLog.revision, 0) AS revision, " +
+                        "   " + changeSetCount + " AS changeSetCount",
+                (row, rowNumber) -> new HistoryVersion(row.getLong("dateCreated"), row.getLong("dateUpdated"), row.getLong("revision"), row.getLong("changeSetCount"))
+        );
+        return versions.size() == 1 ? versions.get(0) : null;
+    }
+
+    /**
+     * Streams the history from the server and maps each change set as soon as it is fetched.
+     * Tags, labels and contexts are fetched with pattern comprehensions instead of optional matches and aggregations,
+     * and only the columns needed to build each {@link RanChangeSet} are read.
+     */
+    private List<RanChangeSet> readChangeSets() throws DatabaseException {
+        return database.query(
+                "MATCH (changeSet:__LiquibaseChangeSet)-[changeSetExecution:IN_CHANGELOG]->(:__LiquibaseChangeLog) " +
+                        "RETURN changeSet.changeLog AS changeLog, " +
+                        "   changeSet.id AS id, " +
+                        "   changeSet.author AS author, " +
+                        "   changeSet.checkSum AS checkSum, " +
+                        "   changeSet.execType AS execType, " +
+                        "   changeSet.description AS description, " +
+                        "   changeSet.comments AS comments, " +
+                        "   changeSet.deploymentId AS deploymentId, " +
+                        "   changeSet.storedChangeLog AS storedChangeLog, " +
+                        "   changeSet.liquibaseVersion AS liquibaseVersion, " +
+                        "   changeSetExecution.orderExecuted AS orderExecuted, " +
+                        "   changeSetExecution.dateExecuted.epochMillis AS dateExecuted, " +
+                        "   head([(tag:__LiquibaseTag)-[:TAGS]->(changeSet) | tag.tag]) AS tag, " +
+                        "   [(label:__LiquibaseLabel)-[:LABELS]->(changeSet) | label.label] AS labels, " +
+                        "   [(context:__LiquibaseContext)-[:CONTEXTUALIZES]->(changeSet) | context.context] AS contexts " +
+                        "ORDER BY changeSetExecution.dateExecuted ASC, changeSetExecution.orderExecuted ASC",
+                this::mapRanChangeSet
         );
     }
 
-    private void updateChangeSet(ChangeSet changeSet, ChangeSet.ExecType execType, int nextSequenceValue) throws LiquibaseException {
+    private Map<String, Object> historyRecord(ChangeSet changeSet, ChangeSet.ExecType execType, int nextSequenceValue) throws LiquibaseException {
+        Map<String, Object> record = new HashMap<>();
+        record.put("changeLog", changeSet.getFilePath());
+        record.put("id", changeSet.getId());
+        record.put("author", changeSet.getAuthor());
+        record.put("checkSum", changeSet.generateCheckSum(currentCheckSumVersion).toString());
+        record.put("execType", execType.value);
+        record.put("description", changeSet.getDescription());
+        record.put("comments", changeSet.getComments());
+        record.put("deploymentId", Scope.getCurrentScope().getDeploymentId());
+        record.put("storedChangeLog", changeSet.getStoredFilePath());
+        record.put("liquibaseVersion", getLiquibaseVersion());
+        record.put("orderExecuted", nextSequenceValue);
+        record.put("contexts", contexts(changeSet));
+        record.put("labels", labels(changeSet));
+        record.put("tag", tag(changeSet));
+        return record;
+    }
+
+    /**
+     * Persists the given history records, without committing.
+     * Re-ran change sets are updated, all other change sets are inserted.
+     * All records of a single call share the same execution date, their execution order is preserved.
+     *
+     * @param records the history records to persist
+     * @throws LiquibaseException if the query execution goes wrong
+     */
+    private void writeChangeSets(List<Map<String, Object>> records) throws LiquibaseException {
+        Map<Boolean, List<Map<String, Object>>> recordsByReRun = records.stream()
+                .collect(partitioningBy(record -> ChangeSet.ExecType.RERAN.value.equals(record.get("execType"))));
+        List<Map<String, Object>> reRunRecords = recordsByReRun.get(true);
+        if (!reRunRecords.isEmpty()) {
+            updateChangeSets(reRunRecords);
+        }
+        List<Map<String, Object>> newRecords = recordsByReRun.get(false);
+        if (!newRecords.isEmpty()) {
+            insertChangeSets(newRecords);
+        }
+    }
+
+    private void updateChangeSets(List<Map<String, Object>> records) throws LiquibaseException {
         database.execute(new RawParameterizedSqlStatement(
                 "MATCH (changeLog:__LiquibaseChangeLog) " +
-                        "SET changeLog.dateUpdated = datetime() " +
+                        "SET changeLog.dateUpdated = datetime(), changeLog.revision = coalesce(changeLog.revision, 0) + 1 " +
+                        LAST_ORDER_EXECUTED_CLAUSE +
                         "WITH changeLog " +
-                        "MATCH (changeSet:__LiquibaseChangeSet {id: $1, author: $2, changeLog: $3 })-[changeSetExecution:IN_CHANGELOG]->(changeLog) " +
+                        "UNWIND $1 AS record " +
+                        "MATCH (changeSet:__LiquibaseChangeSet {id: record.id, author: record.author, changeLog: record.changeLog })-[changeSetExecution:IN_CHANGELOG]->(changeLog) " +
                         "SET changeSetExecution.dateExecuted = datetime() " +
-                        "SET changeSetExecution.orderExecuted = $4 " +
-                        "SET changeSet.checkSum = $5 " +
-                        "SET changeSet.execType = $6 " +
-                        "SET changeSet.deploymentId = $7 ",
-                changeSet.getId(),
-                changeSet.getAuthor(),
-                changeSet.getFilePath(),
-                nextSequenceValue,
-                changeSet.generateCheckSum(currentCheckSumVersion).toString(),
-                execType.value,
-                Scope.getCurrentScope().getDeploymentId()
+                        "SET changeSetExecution.orderExecuted = record.orderExecuted " +
+                        "SET changeSet.checkSum = record.checkSum " +
+                        "SET changeSet.execType = record.execType " +
+                        "SET changeSet.deploymentId = record.deploymentId " +
+                        "WITH changeSet, record " +
+                        "OPTIONAL MATCH (changeSet)<-[c:CONTEXTUALIZES]-(:__LiquibaseContext) DELETE c " +
+                        "WITH DISTINCT changeSet, record " +
+                        "OPTIONAL MATCH (changeSet)<-[l:LABELS]-(:__LiquibaseLabel) DELETE l " +
+                        "WITH DISTINCT changeSet, record " +
+                        LINK_CLAUSES,
+                records
         ));
     }
 
-    private void insertChangeSet(ChangeSet changeSet, ChangeSet.ExecType execType, int nextSequenceValue) throws LiquibaseException {
+    private void insertChangeSets(List<Map<String, Object>> records) throws LiquibaseException {
         database.execute(new RawParameterizedSqlStatement(
                 "MATCH (changeLog:__LiquibaseChangeLog) " +
-                        "SET changeLog.dateUpdated = datetime() " +
+                        "SET changeLog.dateUpdated = datetime(), changeLog.revision = coalesce(changeLog.revision, 0) + 1 " +
+                        LAST_ORDER_EXECUTED_CLAUSE +
+                        "WITH changeLog " +
+                        "UNWIND $1 AS record " +
                         "CREATE (changeSet:__LiquibaseChangeSet {" +
-                        "   changeLog: $1, " +
-                        "   id: $2," +
-                        "   author: $3," +
-                        "   checkSum: $4," +
-                        "   execType: $5, " +
-                        "   description: $6, " +
-                        "   comments: $7, " +
-                        "   deploymentId: $8, " +
-                        "   storedChangeLog: $9, " +
-                        "   liquibaseVersion: $10 " +
+                        "   changeLog: record.changeLog, " +
+                        "   id: record.id," +
+                        "   author: record.author," +
+                        "   checkSum: record.checkSum," +
+                        "   execType: record.execType, " +
+                        "   description: record.description, " +
+                        "   comments: record.comments, " +
+                        "   deploymentId: record.deploymentId, " +
+                        "   storedChangeLog: record.storedChangeLog, " +
+                        "   liquibaseVersion: record.liquibaseVersion " +
                         "})-[:IN_CHANGELOG {" +
                         "   dateExecuted: datetime(), " +
-                        "   orderExecuted: $11 " +
-                        "}]->(changeLog)",
-                changeSet.getFilePath(),
-                changeSet.getId(),
-                changeSet.getAuthor(),
-                changeSet.generateCheckSum(currentCheckSumVersion).toString(),
-                execType.value,
-                changeSet.getDescription(),
-                changeSet.getComments(),
-                Scope.getCurrentScope().getDeploymentId(),
-                changeSet.getStoredFilePath(),
-                getLiquibaseVersion(),
-                nextSequenceValue
-        ));
-    }
-
-    private void reLinkChangeSet(ChangeSet changeSet) throws LiquibaseException {
-        database.execute(new RawParameterizedSqlStatement(
-                "MATCH (changeSet:__LiquibaseChangeSet {id: $1, author: $2, changeLog: $3 })-[:IN_CHANGELOG]->(:__LiquibaseChangeLog) " +
-                        "OPTIONAL MATCH (changeSet)<-[c:CONTEXTUALIZES]-(:__LiquibaseContext) DELETE c " +
-                        "WITH changeSet " +
-                        "OPTIONAL MATCH (changeSet)<-[l:LABELS]-(:__LiquibaseLabel) DELETE l ",
-                changeSet.getId(),
-                changeSet.getAuthor(),
-                changeSet.getFilePath()
+                        "   orderExecuted: record.orderExecuted " +
+                        "}]->(changeLog) " +
+                        "WITH changeSet, record " +
+                        LINK_CLAUSES,
+                records
         ));
-        linkContexts(changeSet);
-        linkLabels(changeSet);
-        linkTag(changeSet);
     }
 
-    private void linkContexts(ChangeSet changeSet) throws LiquibaseException {
+    private static List<String> contexts(ChangeSet changeSet) {
         ContextExpression contexts = changeSet.getContextFilter();
         if (contexts == null) {
-            return;
-        }
-        for (String context : contexts.getContexts()) {
-            database.execute(new RawParameterizedSqlStatement(
-                    "MATCH (changeSet:__LiquibaseChangeSet {id: $1, author: $2, changeLog: $3 }) " +
-                            "MERGE (context:__LiquibaseContext{ context: $4 }) " +
-                            "   ON CREATE SET context.dateCreated = datetime() " +
-                            "   ON MATCH SET context.dateUpdated = datetime() " +
-                            "CREATE (context)-[:CONTEXTUALIZES]->(changeSet)",
-                    changeSet.getId(),
-                    changeSet.getAuthor(),
-                    changeSet.getFilePath(),
-                    context
-            ));
+            return Collections.emptyList();
         }
+        return new ArrayList<>(contexts.getContexts());
     }
 
-    private void linkLabels(ChangeSet changeSet) throws LiquibaseException {
+    private static List<String> labels(ChangeSet changeSet) {
         Labels labels = changeSet.getLabels();
         if (labels == null) {
-            return;
-        }
-        for (String label : labels.getLabels()) {
-            database.execute(new RawParameterizedSqlStatement(
-                    "MATCH (changeSet:__LiquibaseChangeSet {id: $1, author: $2, changeLog: $3 }) " +
-                            "MERGE (label:__LiquibaseLabel{ label: $4 }) " +
-                            "   ON CREATE SET label.dateCreated = datetime() " +
-                            "   ON MATCH SET label.dateUpdated = datetime() " +
-                            "CREATE (label)-[:LABELS]->(changeSet)",
-                    changeSet.getId(),
-                    changeSet.getAuthor(),
-                    changeSet.getFilePath(),
-                    label
-            ));
+            return Collections.emptyList();
         }
+        return new ArrayList<>(labels.getLabels());
     }
 
     /**
-     * Upserts the tag change of the change set, if any
-     * If the tag already exists, it is disconnected from any prior change set
-     * If the change set is already tagged, it is first untagged
+     * Extracts the tag change of the change set, if any
+     *
      * @param changeSet the change set to possibly tag
-     * @throws LiquibaseException if more than one tag change is found or if the query execution goes wrong
+     * @return a list with the single tag value, or an empty list if the change set is not tagged
+     * @throws LiquibaseException if more than one tag change is found
      */
-    private void linkTag(ChangeSet changeSet) throws LiquibaseException {
+    private static List<String> tag(ChangeSet changeSet) throws LiquibaseException {
         List<String> tagValues = changeSet.getChanges().stream()
                 .filter(TagDatabaseChange.class::isInstance)
                 .map(change -> ((TagDatabaseChange) change).getTag())
@@ -385,26 +842,7 @@ public class Neo4jChangelogHistoryService extends AbstractChangeLogHistoryServic
         if (tagValues.size() > 1) {
             throw new LiquibaseException(String.format("A change set can only declare one tag, but found [%s]", String.join(", ", tagValues)));
         }
-        if (tagValues.isEmpty()) {
-            return;
-        }
-
-        String tag = tagValues.iterator().next();
-        database.execute(new RawParameterizedSqlStatement(
-                "MERGE (tag:__LiquibaseTag {tag: $1}) " +
-                        "   ON CREATE SET tag.dateCreated = datetime()" +
-                        "   ON MATCH SET tag.dateUpdated = datetime() " +
-                        "WITH tag " +
-                        "OPTIONAL MATCH (tag)-[r:TAGS]->(:__LiquibaseChangeSet) DELETE r " +
-                        "WITH tag " +
-                        "MATCH (changeSet:__LiquibaseChangeSet {id: $2, author: $3, changeLog: $4 }) " +
-                        "OPTIONAL MATCH (changeSet)<-[r:TAGS]-(:__LiquibaseTag) DELETE r " +
-                        "CREATE (tag)-[:TAGS]->(changeSet)",
-                tag,
-                changeSet.getId(),
-                changeSet.getAuthor(),
-                changeSet.getFilePath()
-        ));
+        return tagValues;
     }
 
     /**
@@ -429,9 +867,10 @@ public class Neo4jChangelogHistoryService extends AbstractChangeLogHistoryServic
                             "WITH tag " +
                             "MATCH (changeSet:__LiquibaseChangeSet)-[execution:IN_CHANGELOG]->(changeLog:__LiquibaseChangeLog) " +
                             "SET changeLog.dateUpdated = datetime() " +
-                            "WITH tag, changeSet " +
+                            "WITH tag, changeSet, changeLog " +
                             "ORDER BY execution.dateExecuted DESC, execution.orderExecuted DESC " +
                             "LIMIT 1 " +
+                            "SET changeLog.revision = coalesce(changeLog.revision, 0) + 1 " +
                             "MERGE (tag)-[:TAGS]->(changeSet) " +
                             "RETURN changeSet {.id, .author, .changeLog}", tagString),
                     Map.class
@@ -444,42 +883,68 @@ public class Neo4jChangelogHistoryService extends AbstractChangeLogHistoryServic
         }
     }
 
-    private RanChangeSet mapRanChangeSet(Map<String, Object> row) {
-        @SuppressWarnings("unchecked")
-        Collection<String> contexts = (Collection<String>) row.get("contexts");
-        @SuppressWarnings("unchecked")
-        Collection<String> labels = (Collection<String>) row.get("labels");
+    @SuppressWarnings("unchecked")
+    private RanChangeSet mapRanChangeSet(ResultSet row, int rowNumber) throws SQLException {
         RanChangeSet ranChangeSet = new RanChangeSet(
-                (String) row.get("changeLog"),
-                (String) row.get("id"),
-                (String) row.get("author"),
-                CheckSum.parse((String) row.get("checkSum")),
-                Date.from(((Timestamp) row.get("dateExecuted")).toInstant()),
-                (String) row.get("tag"),
-                ChangeSet.ExecType.valueOf((String) row.get("execType")),
-                (String) row.get("description"),
-                (String) row.get("comments"),
-                new ContextExpression(contexts),
-                new Labels(labels),
-                (String) row.get("deploymentId"),
-                (String) row.get("storedChangeLog")
+                row.getString("changeLog"),
+                row.getString("id"),
+                row.getString("author"),
+                CheckSum.parse(row.getString("checkSum")),
+                new Date(row.getLong("dateExecuted")),
+                row.getString("tag"),
+                ChangeSet.ExecType.valueOf(row.getString("execType")),
+                row.getString("description"),
+                row.getString("comments"),
+                new ContextExpression((Collection<String>) row.getObject("contexts")),
+                new Labels((Collection<String>) row.getObject("labels")),
+                row.getString("deploymentId"),
+                row.getString("storedChangeLog")
         );
-        ranChangeSet.setOrderExecuted(Integer.valueOf(row.get("orderExecuted").toString(), 10));
-        ranChangeSet.setLiquibaseVersion(row.get("liquibaseVersion").toString());
+        ranChangeSet.setOrderExecuted(row.getInt("orderExecuted"));
+        ranChangeSet.setLiquibaseVersion(row.getString("liquibaseVersion"));
         return ranChangeSet;
     }
 
-
-    private void createConstraints() throws DatabaseException {
-        database.createUniqueConstraint(TAG_CONSTRAINT_NAME, "__LiquibaseTag", "tag");
-        database.createUniqueConstraint(CONTEXT_CONSTRAINT_NAME, "__LiquibaseContext", "context");
-        database.createUniqueConstraint(LABEL_CONSTRAINT_NAME, "__LiquibaseLabel", "label");
-        database.createNodeKeyConstraint(CHANGE_SET_CONSTRAINT_NAME, "__LiquibaseChangeSet", "id", "author", "changeLog");
+    /**
+     * Creates the missing constraints.
+     *
+     * @param existingIndexNames the names of the existing indexes, or <code>null</code> if unknown, in which case every
+     *                           constraint is created if it does not exist yet
+     */
+    private void createConstraints(Set<String> existingIndexNames) throws DatabaseException {
+        if (isMissing(existingIndexNames, TAG_CONSTRAINT_NAME)) {
+            database.createUniqueConstraint(TAG_CONSTRAINT_NAME, "__LiquibaseTag", "tag");
+        }
+        if (isMissing(existingIndexNames, CONTEXT_CONSTRAINT_NAME)) {
+            database.createUniqueConstraint(CONTEXT_CONSTRAINT_NAME, "__LiquibaseContext", "context");
+        }
+        if (isMissing(existingIndexNames, LABEL_CONSTRAINT_NAME)) {
+            database.createUniqueConstraint(LABEL_CONSTRAINT_NAME, "__LiquibaseLabel", "label");
+        }
+        if (!database.isEnterprise()) {
+            return;
+        }
+        if (database.getKernelVersion().compareTo(V4_0_0) >= 0 && !isMissing(existingIndexNames, CHANGE_SET_KEY_INDEX_NAME)) {
+            // the index created on Community Edition would prevent the equivalent node key from being created
+            database.dropIndex(CHANGE_SET_KEY_INDEX_NAME, "__LiquibaseChangeSet", "id", "author", "changeLog");
+        }
+        if (isMissing(existingIndexNames, CHANGE_SET_CONSTRAINT_NAME)) {
+            database.createNodeKeyConstraint(CHANGE_SET_CONSTRAINT_NAME, "__LiquibaseChangeSet", "id", "author", "changeLog");
+        }
     }
 
+    private void createIndices(Set<String> existingIndexNames) throws DatabaseException {
+        if (isMissing(existingIndexNames, CHANGE_SET_CHECK_SUM_INDEX_NAME)) {
+            database.createIndex(CHANGE_SET_CHECK_SUM_INDEX_NAME, "__LiquibaseChangeSet", "checkSum");
+        }
+        if (!database.isEnterprise() && isMissing(existingIndexNames, CHANGE_SET_KEY_INDEX_NAME)) {
+            // node key constraints are not available on Community Edition, change set lookups need an index regardless
+            database.createIndex(CHANGE_SET_KEY_INDEX_NAME, "__LiquibaseChangeSet", "id", "author", "changeLog");
+        }
+    }
 
-    private void createIndices() throws DatabaseException {
-        database.createIndex(CHANGE_SET_CHECK_SUM_INDEX_NAME, "__LiquibaseChangeSet", "checkSum");
+    private static boolean isMissing(Set<String> existingIndexNames, String name) {
+        return existingIndexNames == null || !existingIndexNames.contains(name);
     }
 
     private void initializeHistory() throws DatabaseException {
@@ -487,6 +952,11 @@ public class Neo4jChangelogHistoryService extends AbstractChangeLogHistoryServic
             database.execute(new RawSqlStatement("MERGE (changeLog:__LiquibaseChangeLog) " +
                     "   ON CREATE SET changeLog.dateCreated = datetime() " +
                     "   ON MATCH SET changeLog.dateUpdated = datetime()"));
+            database.execute(new RawSqlStatement("MATCH (changeLog:__LiquibaseChangeLog) " +
+                    "WHERE changeLog.lastOrderExecuted IS NULL " +
+                    "OPTIONAL MATCH (changeLog)<-[execution:IN_CHANGELOG]-(:__LiquibaseChangeSet) " +
+                    "WITH changeLog, max(execution.orderExecuted) AS lastOrderExecuted " +
+                    "SET changeLog.lastOrderExecuted = coalesce(lastOrderExecuted, 0)"));
             database.commit();
         } catch (LiquibaseException e) {
             database.rollback();
@@ -501,10 +971,7 @@ public class Neo4jChangelogHistoryService extends AbstractChangeLogHistoryServic
 
     private void removeDisconnectedLabels() throws DatabaseException {
         try {
-            database.execute(new RawSqlStatement("MATCH (label:__LiquibaseLabel) " +
-                    "WHERE NOT (label)--() " +
-                    "DELETE label"));
-            database.commit();
+            deleteInBatches("MATCH (label:__LiquibaseLabel) WHERE NOT (label)--()", "label", "DELETE label", true);
         } catch (LiquibaseException e) {
             database.rollback();
             throw new DatabaseException("Could not delete disconnected labels", e);
@@ -513,10 +980,7 @@ public class Neo4jChangelogHistoryService extends AbstractChangeLogHistoryServic
 
     private void removeDisconnectedContexts() throws DatabaseException {
         try {
-            database.execute(new RawSqlStatement("MATCH (context:__LiquibaseContext) " +
-                    "WHERE NOT (context)--() " +
-                    "DELETE context"));
-            database.commit();
+            deleteInBatches("MATCH (context:__LiquibaseContext) WHERE NOT (context)--()", "context", "DELETE context", true);
         } catch (LiquibaseException e) {
             database.rollback();
             throw new DatabaseException("Could not delete disconnected labels", e);
@@ -525,20 +989,65 @@ public class Neo4jChangelogHistoryService extends AbstractChangeLogHistoryServic
 
     private void removeHistory() throws DatabaseException {
         try {
-            database.execute(new RawSqlStatement("MATCH (changeLog:__LiquibaseChangeLog) DETACH DELETE changeLog"));
-            database.execute(new RawSqlStatement("MATCH (changeSet:__LiquibaseChangeSet) DETACH DELETE changeSet"));
-            database.execute(new RawSqlStatement("MATCH (label:__LiquibaseLabel)         DETACH DELETE label"));
-            database.execute(new RawSqlStatement("MATCH (context:__LiquibaseContext)     DETACH DELETE context"));
-            database.execute(new RawSqlStatement("MATCH (tag:__LiquibaseTag)             DETACH DELETE tag"));
-            database.commit();
+            // change sets go first, so that the change log node is not left with all their relationships to delete at once
+            deleteInBatches("MATCH (changeSet:__LiquibaseChangeSet)", "changeSet", "DETACH DELETE changeSet", false);
+            deleteInBatches("MATCH (label:__LiquibaseLabel)", "label", "DETACH DELETE label", false);
+            deleteInBatches("MATCH (context:__LiquibaseContext)", "context", "DETACH DELETE context", false);
+            deleteInBatches("MATCH (tag:__LiquibaseTag)", "tag", "DETACH DELETE tag", false);
+            deleteInBatches("MATCH (changeLog:__LiquibaseChangeLog)", "changeLog", "DETACH DELETE changeLog", false);
         } catch (LiquibaseException e) {
             database.rollback();
             throw new DatabaseException("Could not delete history", e);
         }
     }
 
+    /**
+     * Deletes the matched history nodes, committing every {@link Neo4jConfiguration#HISTORY_BATCH_SIZE} nodes.
+     * Batches run server-side with <code>CALL {} IN TRANSACTIONS</code> on Neo4j 4.4+ and client-side otherwise.
+     *
+     * @param match      the pattern matching the nodes to delete
+     * @param variable   the variable bound to the nodes by the pattern
+     * @param deletion   the clause deleting a single node
+     * @param concurrent whether batches can run concurrently, which is only safe when the deleted nodes share no
+     *                   relationship (and is only supported by Neo4j 5.21+)
+     */
+    private void deleteInBatches(String match, String variable, String deletion, boolean concurrent) throws LiquibaseException {
+        int batchSize = batchSize();
+        KernelVersion version = database.getKernelVersion();
+        if (version.compareTo(V4_4_0) >= 0) {
+            String transactions = concurrent && version.compareTo(V5_21_0) >= 0 ? "CONCURRENT TRANSACTIONS" : "TRANSACTIONS";
+            runInAutocommitTransaction(new RawSqlStatement(String.format(
+                    "%s CALL { WITH %s %s } IN %s OF %d ROWS", match, variable, deletion, transactions, batchSize)));
+            return;
+        }
+        Executor executor = Scope.getCurrentScope().getSingleton(ExecutorService.class).getExecutor("jdbc", database);
+        if (!executor.updatesDatabase()) {
+            // statements are only logged (e.g. update-sql), deletions would never be observed by the loop below
+            database.execute(new RawSqlStatement(String.format("%s %s", match, deletion)));
+            database.commit();
+            return;
+        }
+        long deleted;
+        do {
+            deleted = executor.queryForLong(new RawParameterizedSqlStatement(String.format(
+                    "%1$s WITH %2$s LIMIT $1 %3$s RETURN count(%2$s) AS count", match, variable, deletion), batchSize));
+            database.commit();
+        } while (deleted >= batchSize);
+    }
+
+    private static int batchSize() throws DatabaseException {
+        int batchSize = Neo4jConfiguration.HISTORY_BATCH_SIZE.getCurrentValue();
+        if (batchSize <= 0) {
+            throw new DatabaseException(String.format("%s must be strictly positive, found %d", Neo4jConfiguration.HISTORY_BATCH_SIZE.getKey(), batchSize));
+        }
+        return batchSize;
+    }
+
     private void removeIndices() throws DatabaseException {
         database.dropIndex(CHANGE_SET_CHECK_SUM_INDEX_NAME, "__LiquibaseChangeSet", "checkSum");
+        if (!database.isEnterprise()) {
+            database.dropIndex(CHANGE_SET_KEY_INDEX_NAME, "__LiquibaseChangeSet", "id", "author", "changeLog");
+        }
         database.commit();
     }
 
@@ -552,17 +1061,16 @@ public class Neo4jChangelogHistoryService extends AbstractChangeLogHistoryServic
 
     private void readCheckSums() throws DatabaseException {
         Executor executor = Scope.getCurrentScope().getSingleton(ExecutorService.class).getExecutor("jdbc", database);
-        boolean result = executor.queryForObject(
-                new RawParameterizedSqlStatement(
-                        "MATCH (changeSet:__LiquibaseChangeSet)-[:IN_CHANGELOG]->(: __LiquibaseChangeLog)" +
-                                " WHERE NOT changeSet.checkSum STARTS WITH $1" +
-                                " RETURN count(changeSet) > 0",
-                        String.format("%d:", currentCheckSumVersion.getVersion())
-                ),
-                Boolean.class
-        );
+        // checksums starting with the current version prefix are exactly the ones in the [prefix, nextPrefix) range
+        String prefix = String.format("%d:", currentCheckSumVersion.getVersion());
+        String nextPrefix = prefix.substring(0, prefix.length() - 1) + (char) (':' + 1);
+        List<Map<String, ?>> result = executor.queryForList(new RawParameterizedSqlStatement(
+                OTHER_CHECK_SUM_VERSION_QUERY,
+                prefix,
+                nextPrefix
+        ));
         database.rollback();
-        containsOlderCheckSums = result;
+        containsOlderCheckSums = !result.isEmpty();
     }
 
     private String getLiquibaseVersion() {
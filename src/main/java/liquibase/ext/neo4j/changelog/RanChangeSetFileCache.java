@@ -0,0 +1,295 @@
+package liquibase.ext.neo4j.changelog;
+
+import liquibase.ContextExpression;
+import liquibase.Labels;
+import liquibase.Scope;
+import liquibase.change.CheckSum;
+import liquibase.changelog.ChangeSet;
+import liquibase.changelog.RanChangeSet;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Local, binary copy of the ran change sets of a given history graph.
+ * The copy is only valid for the exact {@link HistoryVersion} it was written for.
+ * Any I/O problem is treated as a cache miss: the cache never prevents the history from being read from the server.
+ */
+class RanChangeSetFileCache {
+
+    private static final int MAGIC = 0x4E344A48; // "N4JH"
+
+    private static final int FORMAT_VERSION = 2;
+
+    private final Path file;
+
+    RanChangeSetFileCache(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Resolves the cache file of the history graph reachable via the given connection coordinates.
+     * The file name is derived from the coordinates, so that different servers, databases or users never share the
+     * same cache file.
+     */
+    static RanChangeSetFileCache forTarget(Path directory, String url, String catalog, String user) {
+        String target = String.join("\u0000", String.valueOf(url), String.valueOf(catalog), String.valueOf(user));
+        return new RanChangeSetFileCache(directory.resolve(String.format("liquibase-neo4j-history-%s.bin", sha256(target))));
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Reads the cached change sets
+     *
+     * @param version the current version of the history graph
+     * @return the cached change sets or <code>null</code> if the cache is missing, stale or unreadable
+     */
+    List<RanChangeSet> read(HistoryVersion version) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            if (!version.equals(HistoryVersion.read(input))) {
+                return null;
+            }
+            int count = input.readInt();
+            List<RanChangeSet> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                result.add(readRanChangeSet(input));
+            }
+            return result;
+        } catch (IOException | RuntimeException e) {
+            Scope.getCurrentScope().getLog(RanChangeSetFileCache.class)
+                    .fine(String.format("Ignoring unreadable change set history cache %s", file), e);
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the cached change sets.
+     * The file is written next to its final location first and then moved, so that concurrent readers never observe a
+     * partially written cache.
+     *
+     * @param version       the version of the history graph the change sets were read from
+     * @param ranChangeSets the change sets to cache
+     */
+    void write(HistoryVersion version, List<RanChangeSet> ranChangeSets) {
+        Path temporaryFile = null;
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                version.write(output);
+                output.writeInt(ranChangeSets.size());
+                for (RanChangeSet ranChangeSet : ranChangeSets) {
+                    writeRanChangeSet(output, ranChangeSet);
+                }
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Scope.getCurrentScope().getLog(RanChangeSetFileCache.class)
+                    .warning(String.format("Could not write change set history cache %s", file), e);
+            deleteQuietly(temporaryFile);
+        }
+    }
+
+    private static void writeRanChangeSet(DataOutputStream output, RanChangeSet ranChangeSet) throws IOException {
+        writeString(output, ranChangeSet.getChangeLog());
+        writeString(output, ranChangeSet.getId());
+        writeString(output, ranChangeSet.getAuthor());
+        CheckSum checkSum = ranChangeSet.getLastCheckSum();
+        writeString(output, checkSum == null ? null : checkSum.toString());
+        output.writeLong(ranChangeSet.getDateExecuted().getTime());
+        writeString(output, ranChangeSet.getTag());
+        writeString(output, ranChangeSet.getExecType().name());
+        writeString(output, ranChangeSet.getDescription());
+        writeString(output, ranChangeSet.getComments());
+        ContextExpression contexts = ranChangeSet.getContextExpression();
+        writeStrings(output, contexts == null ? null : contexts.getContexts());
+        Labels labels = ranChangeSet.getLabels();
+        writeStrings(output, labels == null ? null : labels.getLabels());
+        writeString(output, ranChangeSet.getDeploymentId());
+        writeString(output, ranChangeSet.getStoredChangeLog());
+        output.writeInt(ranChangeSet.getOrderExecuted() == null ? -1 : ranChangeSet.getOrderExecuted());
+        writeString(output, ranChangeSet.getLiquibaseVersion());
+    }
+
+    private static RanChangeSet readRanChangeSet(DataInputStream input) throws IOException {
+        String changeLog = readString(input);
+        String id = readString(input);
+        String author = readString(input);
+        CheckSum checkSum = CheckSum.parse(readString(input));
+        Date dateExecuted = new Date(input.readLong());
+        String tag = readString(input);
+        ChangeSet.ExecType execType = ChangeSet.ExecType.valueOf(readString(input));
+        String description = readString(input);
+        String comments = readString(input);
+        List<String> contexts = readStrings(input);
+        List<String> labels = readStrings(input);
+        String deploymentId = readString(input);
+        String storedChangeLog = readString(input);
+        RanChangeSet result = new RanChangeSet(
+                changeLog,
+                id,
+                author,
+                checkSum,
+                dateExecuted,
+                tag,
+                execType,
+                description,
+                comments,
+                contexts == null ? null : new ContextExpression(contexts),
+                labels == null ? null : new Labels(labels),
+                deploymentId,
+                storedChangeLog
+        );
+        int orderExecuted = input.readInt();
+        result.setOrderExecuted(orderExecuted == -1 ? null : orderExecuted);
+        result.setLiquibaseVersion(readString(input));
+        return result;
+    }
+
+    private static void writeStrings(DataOutputStream output, Collection<String> values) throws IOException {
+        if (values == null) {
+            output.writeInt(-1);
+            return;
+        }
+        output.writeInt(values.size());
+        for (String value : values) {
+            writeString(output, value);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream input) throws IOException {
+        int size = input.readInt();
+        if (size == -1) {
+            return null;
+        }
+        List<String> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(readString(input));
+        }
+        return result;
+    }
+
+    // DataOutputStream#writeUTF is limited to 64KB, which change set comments may exceed
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length == -1) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder result = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                result.append(String.format("%02x", b));
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Identifies a given state of the history graph.
+     * The history graph creation date distinguishes a graph from a previously destroyed one.
+     * The update date is set by every history mutation, including the ones of earlier versions of this extension, while
+     * the revision is only incremented by this version but tells apart mutations that happen within the same clock tick.
+     * The change set count acts as an extra safety net.
+     */
+    static final class HistoryVersion {
+
+        private final long dateCreated;
+
+        private final long dateUpdated;
+
+        private final long revision;
+
+        private final long changeSetCount;
+
+        HistoryVersion(long dateCreated, long dateUpdated, long revision, long changeSetCount) {
+            this.dateCreated = dateCreated;
+            this.dateUpdated = dateUpdated;
+            this.revision = revision;
+            this.changeSetCount = changeSetCount;
+        }
+
+        private static HistoryVersion read(DataInputStream input) throws IOException {
+            return new HistoryVersion(input.readLong(), input.readLong(), input.readLong(), input.readLong());
+        }
+
+        private void write(DataOutputStream output) throws IOException {
+            output.writeLong(dateCreated);
+            output.writeLong(dateUpdated);
+            output.writeLong(revision);
+            output.writeLong(changeSetCount);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            HistoryVersion that = (HistoryVersion) o;
+            return dateCreated == that.dateCreated && dateUpdated == that.dateUpdated && revision == that.revision && changeSetCount == that.changeSetCount;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dateCreated, dateUpdated, revision, changeSetCount);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("HistoryVersion{dateCreated=%d, dateUpdated=%d, revision=%d, changeSetCount=%d}", dateCreated, dateUpdated, revision, changeSetCount);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package liquibase.ext.neo4j.configuration;
+
+import liquibase.configuration.AutoloadedConfigurations;
+import liquibase.configuration.ConfigurationDefinition;
+
+/**
+ * Liquibase settings specific to the Neo4j extension.
+ * As with any Liquibase setting, they can be set via system properties, environment variables, the CLI or
+ * <code>liquibase.properties</code>.
+ */
+public class Neo4jConfiguration implements AutoloadedConfigurations {
+
+    public static final ConfigurationDefinition<Boolean> HISTORY_GROUP_COMMIT;
+
+    public static final ConfigurationDefinition<Integer> HISTORY_GROUP_COMMIT_SIZE;
+
+    public static final ConfigurationDefinition<String> HISTORY_CACHE_DIRECTORY;
+
+    public static final ConfigurationDefinition<Integer> HISTORY_BATCH_SIZE;
+
+    public static final ConfigurationDefinition<Long> LOCK_RETRY_INITIAL_DELAY;
+
+    public static final ConfigurationDefinition<Boolean> LOCK_READ_PROBE;
+
+    public static final ConfigurationDefinition<Long> LOCK_LEASE_DURATION;
+
+    public static final ConfigurationDefinition<String> PROFILE_REPORT;
+
+    static {
+        ConfigurationDefinition.Builder builder = new ConfigurationDefinition.Builder("liquibase.neo4j");
+
+        HISTORY_GROUP_COMMIT = builder.define("historyGroupCommit", Boolean.class)
+                .setDescription("Queues change set history records in memory and persists them in batches, instead of committing one history transaction per change set. " +
+                        "Change sets applied since the last flush are run again if the process dies before the history is flushed.")
+                .setDefaultValue(false)
+                .build();
+
+        HISTORY_GROUP_COMMIT_SIZE = builder.define("historyGroupCommitSize", Integer.class)
+                .setDescription("Number of queued change set history records that triggers a flush when historyGroupCommit is enabled. " +
+                        "Values less than or equal to 0 disable size-based flushes, history is then only flushed at the end of the update and around non-transactional change sets.")
+                .setDefaultValue(100)
+                .build();
+
+        HISTORY_CACHE_DIRECTORY = builder.define("historyCacheDirectory", String.class)
+                .setDescription("Directory where a local copy of the ran change sets is kept. " +
+                        "The copy is reused as long as the history graph is left unchanged, which saves a full history read at startup. " +
+                        "The local copy is disabled when this setting is not set.")
+                .build();
+
+        HISTORY_BATCH_SIZE = builder.define("historyBatchSize", Integer.class)
+                .setDescription("Number of history nodes processed per transaction when the history is cleaned up, cleared or removed. " +
+                        "Must be strictly positive.")
+                .setDefaultValue(10_000)
+                .build();
+
+        LOCK_RETRY_INITIAL_DELAY = builder.define("lockRetryInitialDelay", Long.class)
+                .setDescription("Delay in milliseconds before the first retry when the change log lock is already taken. " +
+                        "The delay then doubles after every unsuccessful attempt, up to changeLogLockPollRate, and is randomized to spread out concurrent waiters. " +
+                        "Values less than 1 are raised to 1, so that waiters never retry without any delay.")
+                .setDefaultValue(10L)
+                .build();
+
+        LOCK_READ_PROBE = builder.define("lockReadProbe", Boolean.class)
+                .setDescription("Checks whether the change log lock is taken with a read query before trying to create it. " +
+                        "This avoids a failing write transaction per attempt while the lock is held by someone else, which mostly matters with many concurrent waiters.")
+                .setDefaultValue(false)
+                .build();
+
+        LOCK_LEASE_DURATION = builder.define("lockLeaseDuration", Long.class)
+                .setDescription("Enables lease mode when set to a strictly positive number of seconds. " +
+                        "The change log lock then expires after that duration unless its holder extends it, which it does in the background while it is alive. " +
+                        "Expired locks are taken over by the next instance trying to acquire the lock, instead of requiring a manual release.")
+                .build();
+
+        PROFILE_REPORT = builder.define("profileReport", String.class)
+                .setDescription("File where a per-change-set execution profile is written once the change log lock is released, at the end of an update. " +
+                        "The database name and a UTC timestamp are appended to the file name, so that each database and run gets its own report. " +
+                        "The report is written as CSV when the file name ends with .csv and as JSON otherwise. " +
+                        "Change sets are not profiled when this setting is not set.")
+                .build();
+    }
+}
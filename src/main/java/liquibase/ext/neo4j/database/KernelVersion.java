@@ -9,6 +9,7 @@ public class KernelVersion implements Comparable<KernelVersion> {
     public static final KernelVersion V4_3_0 = new KernelVersion(4, 3, 0);
     public static final KernelVersion V4_4_0 = new KernelVersion(4, 4, 0);
     public static final KernelVersion V5_0_0 = new KernelVersion(5, 0, 0);
+    public static final KernelVersion V5_3_0 = new KernelVersion(5, 3, 0);
     public static final KernelVersion V5_7_0 = new KernelVersion(5, 7, 0);
     public static final KernelVersion V5_9_0 = new KernelVersion(5, 9, 0);
     public static final KernelVersion V5_10_0 = new KernelVersion(5, 10, 0);
@@ -7,25 +7,39 @@ import liquibase.exception.DatabaseException;
 import liquibase.exception.LiquibaseException;
 import liquibase.executor.Executor;
 import liquibase.executor.ExecutorService;
+import liquibase.executor.jvm.RowMapper;
+import liquibase.ext.neo4j.changelog.ChangeSetProfiler;
+import liquibase.ext.neo4j.configuration.Neo4jConfiguration;
+import liquibase.ext.neo4j.database.jdbc.Neo4jIndependentSessions;
+import liquibase.ext.neo4j.database.jdbc.Neo4jStatementListenerSupport;
 import liquibase.ext.neo4j.database.jdbc.Neo4jTransactionState;
 import liquibase.statement.SqlStatement;
 import liquibase.statement.core.RawSqlStatement;
 import liquibase.structure.DatabaseObject;
 import liquibase.structure.core.Catalog;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static java.util.Arrays.stream;
 import static liquibase.ext.neo4j.database.KernelVersion.V3_5_0;
 import static liquibase.ext.neo4j.database.KernelVersion.V4_0_0;
+import static liquibase.ext.neo4j.database.KernelVersion.V4_3_0;
 import static liquibase.ext.neo4j.database.KernelVersion.V5_0_0;
 import static liquibase.ext.neo4j.database.jdbc.SupportedJdbcUrl.IS_SUPPORTED_JDBC_URL;
 import static liquibase.ext.neo4j.lockservice.Exceptions.convertToRuntimeException;
@@ -49,10 +63,15 @@ public class Neo4jDatabase extends AbstractJdbcDatabase {
 
     private String neo4jEdition;
 
+    private ChangeSetProfiler changeSetProfiler;
+
+    private Path profileReport;
+
     @Override
     public void setConnection(DatabaseConnection conn) {
         super.setConnection(conn);
         initializeServerAttributes();
+        installChangeSetProfiler();
     }
 
     @Override
@@ -146,18 +165,19 @@ public class Neo4jDatabase extends AbstractJdbcDatabase {
         return true;
     }
 
-    public void createIndex(String name, String label, String property) throws DatabaseException {
+    public void createIndex(String name, String label, String firstProperty, String... rest) throws DatabaseException {
+        String[] properties = Arrays.prepend(firstProperty, rest, String.class);
         if (kernelVersion.compareTo(V5_0_0) >= 0) {
-            createIndexForNeo4j5(name, label, property);
+            createIndexForNeo4j5(name, label, properties);
         } else if (kernelVersion.compareTo(V4_0_0) >= 0) {
-            createIndexForNeo4j4(name, label, property);
+            createIndexForNeo4j4(name, label, properties);
         } else  if (kernelVersion.compareTo(V3_5_0) >= 0) {
-            createIndexForNeo4j3(label, property);
+            createIndexForNeo4j3(label, properties);
         } else{
             throw new DatabaseException(String.format(
                     "Index creation for (n:%s {%s}) aborted: Neo4j version %s is not supported",
                     label,
-                    property,
+                    String.join(", ", properties),
                     kernelVersion
             ));
         }
@@ -201,18 +221,19 @@ public class Neo4jDatabase extends AbstractJdbcDatabase {
         }
     }
 
-    public void dropIndex(String name, String label, String property) throws DatabaseException {
+    public void dropIndex(String name, String label, String firstProperty, String... rest) throws DatabaseException {
+        String[] properties = Arrays.prepend(firstProperty, rest, String.class);
         if (kernelVersion.compareTo(V5_0_0) >= 0) {
             dropIndexForNeo4j5(name);
         } else if (kernelVersion.compareTo(V4_0_0) >= 0) {
             dropIndexForNeo4j4(name);
         } else if (kernelVersion.compareTo(V3_5_0) >= 0) {
-            dropIndexForNeo4j3(label, property);
+            dropIndexForNeo4j3(label, properties);
         } else {
             throw new DatabaseException(String.format(
-                    "Unique constraint removal for (n:%s {%s}) aborted: Neo4j version %s is not supported",
+                    "Index removal for (n:%s {%s}) aborted: Neo4j version %s is not supported",
                     label,
-                    property,
+                    String.join(", ", properties),
                     kernelVersion
             ));
         }
@@ -315,6 +336,112 @@ public class Neo4jDatabase extends AbstractJdbcDatabase {
         return jdbcExecutor().queryForList(statement);
     }
 
+    /**
+     * Runs the given read query against the underlying connection and maps each row as soon as it is fetched.
+     * Contrary to {@link #run(SqlStatement)}, rows are neither materialized as maps nor converted to their JDBC
+     * representation upfront: the row mapper only reads the columns it needs.
+     * Rows are pulled from the server in batches, according to the configured fetch size.
+     * The query is always sent to the database, even when the "jdbc" executor only logs statements (e.g. update-sql).
+     *
+     * @param cypher    the read query to run
+     * @param rowMapper the function mapping the current row of the result set
+     * @param <T>       the type of mapped rows
+     * @return the mapped rows
+     * @throws DatabaseException if the query execution or the row mapping goes wrong
+     */
+    public <T> List<T> query(String cypher, RowMapper rowMapper) throws DatabaseException {
+        return query(cypher, 0, rowMapper);
+    }
+
+    /**
+     * Runs the given read query on the current connection and maps each row of its results.
+     * The fetch size is only honoured when the query begins a new transaction.
+     *
+     * @param cypher    the read query to run
+     * @param fetchSize the number of records pulled per batch, 0 for the connection default
+     * @param rowMapper the function mapping the current row of the result set
+     * @param <T>       the type of mapped rows
+     * @return the mapped rows
+     * @throws DatabaseException if the query execution or the row mapping goes wrong
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> query(String cypher, int fetchSize, RowMapper rowMapper) throws DatabaseException {
+        DatabaseConnection connection = getConnection();
+        Connection jdbcConnection = connection == null ? null : connection.getUnderlyingConnection();
+        if (jdbcConnection == null) {
+            throw new DatabaseException(String.format("Could not run query %s without an underlying JDBC connection", cypher));
+        }
+        try (Statement statement = jdbcConnection.createStatement()) {
+            statement.setFetchSize(fetchSize);
+            try (ResultSet resultSet = statement.executeQuery(cypher)) {
+                List<T> rows = new ArrayList<>();
+                int rowNumber = 0;
+                while (resultSet.next()) {
+                    rows.add((T) rowMapper.mapRow(resultSet, rowNumber++));
+                }
+                return rows;
+            }
+        } catch (SQLException | RuntimeException e) {
+            throw new DatabaseException(String.format("Could not run query %s", cypher), e);
+        }
+    }
+
+    /**
+     * Writes the execution profile of the change sets run since the last report, if profiling is enabled via
+     * {@link Neo4jConfiguration#PROFILE_REPORT}.
+     * The report is best-effort: failures are logged and never interrupt the update.
+     */
+    public void writeChangeSetProfileReport() {
+        if (changeSetProfiler == null) {
+            return;
+        }
+        try {
+            Path report = changeSetProfiler.writeReport(profileReport, profiledDatabaseName());
+            if (report != null) {
+                Scope.getCurrentScope().getLog(getClass()).info(String.format("Wrote change set profile report to %s", report));
+            }
+        } catch (IOException | RuntimeException e) {
+            Scope.getCurrentScope().getLog(getClass()).warning(String.format("Could not write change set profile report to %s", profileReport), e);
+        }
+    }
+
+    /**
+     * Runs the given auto-commit query in a session of its own, outside the current transaction.
+     * Contrary to the other methods of this class, this can be called from other threads while migrations run.
+     *
+     * @param cypher     the query to run, returning a single integer column
+     * @param parameters the query parameters
+     * @return the value of the first column of the first row, 0 if there is no such row
+     * @throws DatabaseException if the connection does not support independent sessions or the query fails
+     */
+    public long queryForLongInIndependentSession(String cypher, Map<String, Object> parameters) throws DatabaseException {
+        DatabaseConnection connection = getConnection();
+        Connection jdbcConnection = connection == null ? null : connection.getUnderlyingConnection();
+        try {
+            if (jdbcConnection == null || !jdbcConnection.isWrapperFor(Neo4jIndependentSessions.class)) {
+                throw new DatabaseException(String.format("Could not run query %s in independent session: unsupported connection", cypher));
+            }
+            return jdbcConnection.unwrap(Neo4jIndependentSessions.class).queryForLongInIndependentSession(cypher, parameters);
+        } catch (SQLException e) {
+            throw new DatabaseException(String.format("Could not run query %s in independent session", cypher), e);
+        }
+    }
+
+    /**
+     * Lists the names of the existing indexes, including the indexes backing constraints, which share the name of
+     * their constraint.
+     * The transaction possibly opened by the listing is left to the caller.
+     *
+     * @return the index names or <code>null</code> if the server cannot list them in a single query (before Neo4j 4.3)
+     * @throws DatabaseException if the listing fails
+     */
+    public Set<String> listIndexNames() throws DatabaseException {
+        if (kernelVersion.compareTo(V4_3_0) < 0) {
+            return null;
+        }
+        return new HashSet<>(query("SHOW INDEXES YIELD name RETURN name", (row, rowNumber) -> row.getString("name")));
+    }
+
     public KernelVersion getKernelVersion() {
         return kernelVersion;
     }
@@ -329,6 +456,35 @@ public class Neo4jDatabase extends AbstractJdbcDatabase {
         this.neo4jEdition = ((String) components.get("edition")).toLowerCase(Locale.ENGLISH);
     }
 
+    private String profiledDatabaseName() {
+        try {
+            DatabaseConnection connection = getConnection();
+            return connection == null ? null : connection.getCatalog();
+        } catch (DatabaseException e) {
+            return null;
+        }
+    }
+
+    private void installChangeSetProfiler() {
+        String report = Neo4jConfiguration.PROFILE_REPORT.getCurrentValue();
+        if (report == null || report.trim().isEmpty()) {
+            return;
+        }
+        DatabaseConnection connection = getConnection();
+        Connection jdbcConnection = connection == null ? null : connection.getUnderlyingConnection();
+        try {
+            if (jdbcConnection == null || !jdbcConnection.isWrapperFor(Neo4jStatementListenerSupport.class)) {
+                Scope.getCurrentScope().getLog(getClass()).warning("Change sets cannot be profiled with this connection, no profile report will be written");
+                return;
+            }
+            changeSetProfiler = new ChangeSetProfiler();
+            profileReport = Paths.get(report);
+            jdbcConnection.unwrap(Neo4jStatementListenerSupport.class).setStatementListener(changeSetProfiler);
+        } catch (SQLException e) {
+            throw new RuntimeException("Cannot enable change set profiling, aborting now.", e);
+        }
+    }
+
     private Map<String, ?> readComponents() {
         try {
             List<Map<String, ?>> result = jdbcExecutor().queryForList(new RawSqlStatement(SERVER_VERSION_QUERY));
@@ -377,10 +533,11 @@ public class Neo4jDatabase extends AbstractJdbcDatabase {
 
     // before 4.x, indices cannot be given names
 
-    private void createIndexForNeo4j3(String label, String property) {
+    private void createIndexForNeo4j3(String label, String[] properties) {
+        String list = stream(properties).map(p -> String.format("`%s`", p)).collect(Collectors.joining(", "));
         onThrow(this::rollbackIfIndexExists,
                 () -> {
-                    RawSqlStatement sql = new RawSqlStatement(String.format("CREATE INDEX ON :`%s`(%s)", label, property));
+                    RawSqlStatement sql = new RawSqlStatement(String.format("CREATE INDEX ON :`%s`(%s)", label, list));
                     this.execute(sql);
                     this.commit();
                 }
@@ -399,11 +556,12 @@ public class Neo4jDatabase extends AbstractJdbcDatabase {
         );
     }
 
-    private void createIndexForNeo4j4(String name, String label, String property) {
+    private void createIndexForNeo4j4(String name, String label, String[] properties) {
         // `CREATE INDEX IF NOT EXISTS` is only available with Neo4j 4.1.3+
+        String list = stream(properties).map(p -> String.format("n.`%s`", p)).collect(Collectors.joining(", ", "(", ")"));
         onThrow(this::rollbackIfIndexExists,
                 () -> {
-                    RawSqlStatement sql = new RawSqlStatement(String.format("CREATE INDEX `%s` FOR (n:`%s`) ON (n.`%s`)", name, label, property));
+                    RawSqlStatement sql = new RawSqlStatement(String.format("CREATE INDEX `%s` FOR (n:`%s`) ON %s", name, label, list));
                     this.execute(sql);
                     this.commit();
                 }
@@ -422,9 +580,10 @@ public class Neo4jDatabase extends AbstractJdbcDatabase {
         );
     }
 
-    private void createIndexForNeo4j5(String name, String label, String property) {
+    private void createIndexForNeo4j5(String name, String label, String[] properties) {
+        String list = stream(properties).map(p -> String.format("n.`%s`", p)).collect(Collectors.joining(", ", "(", ")"));
         try {
-            RawSqlStatement sql = new RawSqlStatement(String.format("CREATE INDEX `%s` IF NOT EXISTS FOR (n:`%s`) ON (n.`%s`)", name, label, property));
+            RawSqlStatement sql = new RawSqlStatement(String.format("CREATE INDEX `%s` IF NOT EXISTS FOR (n:`%s`) ON %s", name, label, list));
             this.execute(sql);
             this.commit();
         } catch (LiquibaseException e) {
@@ -446,10 +605,11 @@ public class Neo4jDatabase extends AbstractJdbcDatabase {
 
     // before 4.x, constraints cannot be given names
 
-    private void dropIndexForNeo4j3(String label, String property) {
+    private void dropIndexForNeo4j3(String label, String[] properties) {
+        String list = stream(properties).map(p -> String.format("`%s`", p)).collect(Collectors.joining(", "));
         onThrow(this::rollbackIfNoSuchIndexExists,
                 () -> {
-                    RawSqlStatement sql = new RawSqlStatement(String.format("DROP INDEX ON :`%s`(`%s`)", label, property));
+                    RawSqlStatement sql = new RawSqlStatement(String.format("DROP INDEX ON :`%s`(%s)", label, list));
                     this.execute(sql);
                     this.commit();
                 }
@@ -10,12 +10,16 @@ import org.neo4j.driver.SessionConfig;
 import org.neo4j.driver.SessionConfig.Builder;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -23,6 +27,10 @@ import java.util.logging.Level;
 
 class DriverConfigSupplier implements Supplier<Config> {
 
+    static final List<String> CREDENTIALS = Arrays.asList("user", "password");
+
+    private static final Set<String> SESSION_SETTINGS = new HashSet<>(Arrays.asList("database", "fetch.size", "impersonated.user", "pipelining"));
+
     private final QueryString urlConfiguration;
     private final Properties configuration;
 
@@ -68,7 +76,8 @@ class DriverConfigSupplier implements Supplier<Config> {
         Integer maxPoolSize = readSingleSetting("max.connection.poolsize", Integer::parseInt).orElse(null);
         if (maxPoolSize != null) {
             builder = builder.withMaxConnectionPoolSize(maxPoolSize);
-        } else {
+        } else if (!isDriverSharingEnabled()) {
+            // shared drivers serve concurrent connections, a single pooled connection would make them wait on each other
             builder = builder.withMaxConnectionPoolSize(1);
         }
         Long maxTransactionRetryTime = readSingleSetting("max.transaction.retry.time", Long::parseLong).orElse(null);
@@ -108,6 +117,39 @@ class DriverConfigSupplier implements Supplier<Config> {
         }
     }
 
+    public boolean isDriverSharingEnabled() {
+        return readSingleSetting("driver.sharing", Boolean::parseBoolean).orElse(false);
+    }
+
+    public long getDriverSharingIdleTimeout() {
+        return readSingleSetting("driver.sharing.idle.timeout", Long::parseLong).orElse(60_000L);
+    }
+
+    public boolean isPipeliningEnabled() {
+        return readSingleSetting("pipelining", Boolean::parseBoolean).orElse(false);
+    }
+
+    /**
+     * Returns the settings the native driver is created with, URL settings taking precedence over connection
+     * properties.
+     * Session settings are left out, since sessions with different settings can share a driver.
+     * Credentials are only read from connection properties, like the driver's auth token.
+     */
+    public Map<String, String> getDriverSettings() {
+        Map<String, String> result = new TreeMap<>();
+        configuration.stringPropertyNames().forEach(key -> result.put(key, configuration.getProperty(key)));
+        urlConfiguration.forEach((key, values) -> result.put(key, String.join(",", values)));
+        for (String credential : CREDENTIALS) {
+            result.remove(credential);
+            String value = configuration.getProperty(credential);
+            if (value != null) {
+                result.put(credential, value);
+            }
+        }
+        result.keySet().removeAll(SESSION_SETTINGS);
+        return result;
+    }
+
     public SessionConfig getSessionConfig() {
         Builder builder = SessionConfig.builder().withDefaultAccessMode(AccessMode.WRITE);
         String database = readSingleSetting("database", Function.identity()).orElse(null);
@@ -0,0 +1,274 @@
+package liquibase.ext.neo4j.database.jdbc;
+
+import org.neo4j.driver.Driver;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static liquibase.ext.neo4j.database.jdbc.SupportedJdbcUrl.normalizeUri;
+
+/**
+ * Reference-counted native drivers, shared by connections targeting the same URL with the same settings and
+ * credentials.
+ * A driver that is not used by any connection anymore is kept open for the configured idle timeout, so that
+ * subsequent connections (next test, next CLI command, application restart within the same JVM...) reuse its warm
+ * connection pool and routing table.
+ * Idle drivers are closed once their idle timeout elapses, and all drivers are closed when the JVM shuts down.
+ */
+class DriverRegistry {
+
+    private static final int DEFAULT_BOLT_PORT = 7687;
+
+    static final DriverRegistry INSTANCE = new DriverRegistry(
+            System::nanoTime,
+            (eviction, delayNanos) -> EvictionExecutor.INSTANCE.schedule(eviction, delayNanos, TimeUnit.NANOSECONDS),
+            closeAll -> Runtime.getRuntime().addShutdownHook(new Thread(closeAll, "liquibase-neo4j-driver-registry-shutdown"))
+    );
+
+    private final LongSupplier nanoClock;
+
+    private final BiConsumer<Runnable, Long> evictionScheduler;
+
+    private final Consumer<Runnable> shutdownHookRegistrar;
+
+    private final Map<Key, Entry> entries = new HashMap<>();
+
+    private boolean shutdownHookRegistered;
+
+    /**
+     * @param evictionScheduler     runs the given eviction after the given delay in nanoseconds
+     * @param shutdownHookRegistrar registers the given task to run at JVM shutdown, only called once a driver is shared
+     */
+    DriverRegistry(LongSupplier nanoClock, BiConsumer<Runnable, Long> evictionScheduler, Consumer<Runnable> shutdownHookRegistrar) {
+        this.nanoClock = nanoClock;
+        this.evictionScheduler = evictionScheduler;
+        this.shutdownHookRegistrar = shutdownHookRegistrar;
+    }
+
+    /**
+     * Returns the driver registered with the given key, creating it if needed.
+     * Every call must be followed by exactly one {@link #release(Key, long)} call with the same key.
+     */
+    Driver acquire(Key key, Supplier<Driver> driverFactory) {
+        List<Driver> evicted;
+        Driver driver;
+        synchronized (this) {
+            if (!shutdownHookRegistered) {
+                shutdownHookRegistrar.accept(this::closeAll);
+                shutdownHookRegistered = true;
+            }
+            evicted = evictIdleDrivers();
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(driverFactory.get());
+                entries.put(key, entry);
+            }
+            entry.references++;
+            driver = entry.driver;
+        }
+        closeAll(evicted);
+        return driver;
+    }
+
+    /**
+     * @param idleTimeoutNanos how long the driver stays open once it is not referenced anymore, 0 to close it right away
+     */
+    void release(Key key, long idleTimeoutNanos) {
+        boolean scheduleEviction = false;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return;
+            }
+            entry.references--;
+            if (entry.references == 0) {
+                entry.idleUntil = nanoClock.getAsLong() + Math.max(0L, idleTimeoutNanos);
+                scheduleEviction = idleTimeoutNanos > 0;
+            }
+        }
+        closeIdleDrivers();
+        if (scheduleEviction) {
+            // the eviction is a no-op if the driver has been acquired again in the meantime
+            evictionScheduler.accept(this::closeIdleDrivers, idleTimeoutNanos);
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    void closeAll() {
+        List<Driver> drivers;
+        synchronized (this) {
+            drivers = new ArrayList<>(entries.size());
+            entries.values().forEach(entry -> drivers.add(entry.driver));
+            entries.clear();
+        }
+        closeAll(drivers);
+    }
+
+    // closing drivers may take a while, this is done outside the lock
+    private static void closeAll(List<Driver> drivers) {
+        for (Driver driver : drivers) {
+            try {
+                driver.close();
+            } catch (RuntimeException ignored) {
+            }
+        }
+    }
+
+    private void closeIdleDrivers() {
+        List<Driver> evicted;
+        synchronized (this) {
+            evicted = evictIdleDrivers();
+        }
+        closeAll(evicted);
+    }
+
+    private List<Driver> evictIdleDrivers() {
+        List<Driver> evicted = new ArrayList<>(0);
+        long now = nanoClock.getAsLong();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.references == 0 && now - entry.idleUntil >= 0) {
+                evicted.add(entry.driver);
+                iterator.remove();
+            }
+        }
+        return evicted;
+    }
+
+    private static final class Entry {
+
+        private final Driver driver;
+
+        private int references;
+
+        private long idleUntil;
+
+        private Entry(Driver driver) {
+            this.driver = driver;
+        }
+    }
+
+    private static final class EvictionExecutor {
+
+        private static final ScheduledExecutorService INSTANCE = create();
+
+        // the thread is only started when an eviction is scheduled and stops once idle
+        private static ScheduledExecutorService create() {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "liquibase-neo4j-driver-registry-eviction");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.setKeepAliveTime(30, TimeUnit.SECONDS);
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+    /**
+     * Identifies drivers by normalized server address and by effective driver settings, credentials included.
+     * URL settings and connection properties are merged beforehand, so two connections share a driver whenever they
+     * configure it the same way, however they spell it.
+     * Keys outlive connections, they only keep a salted digest of the credentials.
+     */
+    static final class Key {
+
+        private static final byte[] CREDENTIALS_SALT = credentialsSalt();
+
+        private final String address;
+
+        private final Map<String, String> settings;
+
+        private final String credentialsDigest;
+
+        Key(String url, DriverConfigSupplier configSupplier) {
+            Map<String, String> settings = configSupplier.getDriverSettings();
+            this.address = address(url);
+            this.credentialsDigest = credentialsDigest(settings);
+            this.settings = settings;
+        }
+
+        // removes the credentials from the given settings
+        private static String credentialsDigest(Map<String, String> settings) {
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+            digest.update(CREDENTIALS_SALT);
+            for (String credential : DriverConfigSupplier.CREDENTIALS) {
+                String value = settings.remove(credential);
+                // length prefixes keep ("ab", "c") and ("a", "bc") apart, -1 stands for a missing credential
+                byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+                digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(value == null ? -1 : bytes.length).array());
+                digest.update(bytes);
+            }
+            return Base64.getEncoder().encodeToString(digest.digest());
+        }
+
+        private static byte[] credentialsSalt() {
+            byte[] salt = new byte[16];
+            new SecureRandom().nextBytes(salt);
+            return salt;
+        }
+
+        // scheme, host and port are all the driver uses, a missing port is the default Bolt port
+        private static String address(String url) {
+            URI uri = URI.create(normalizeUri(url, URIs::stripQueryString));
+            if (uri.getHost() == null) {
+                return uri.toString();
+            }
+            try {
+                return new URI(
+                        uri.getScheme().toLowerCase(Locale.ENGLISH),
+                        null,
+                        uri.getHost().toLowerCase(Locale.ENGLISH),
+                        uri.getPort() == -1 ? DEFAULT_BOLT_PORT : uri.getPort(),
+                        null,
+                        null,
+                        null
+                ).toString();
+            } catch (URISyntaxException e) {
+                throw new RuntimeException(String.format("could not normalize URI: %s", uri), e);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return address.equals(key.address) && settings.equals(key.settings) && credentialsDigest.equals(key.credentialsDigest);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(address, settings, credentialsDigest);
+        }
+    }
+}
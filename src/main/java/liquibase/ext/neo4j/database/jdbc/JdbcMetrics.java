@@ -0,0 +1,46 @@
+package liquibase.ext.neo4j.database.jdbc;
+
+import org.neo4j.driver.summary.ResultSummary;
+
+/**
+ * Metrics of the statements and transactions of the JDBC bridge.
+ * Metrics are published to Micrometer's global registry when Micrometer is on the classpath, and discarded otherwise.
+ */
+abstract class JdbcMetrics {
+
+    static final JdbcMetrics INSTANCE = load();
+
+    abstract boolean isEnabled();
+
+    /**
+     * @param summary the statement summary, <code>null</code> if the statement failed
+     */
+    abstract void recordStatement(StatementKind kind, long durationNanos, ResultSummary summary);
+
+    abstract void recordTransaction(String operation, boolean succeeded, long durationNanos);
+
+    private static JdbcMetrics load() {
+        try {
+            Class.forName("io.micrometer.core.instrument.Metrics", false, JdbcMetrics.class.getClassLoader());
+            return MicrometerJdbcMetrics.global();
+        } catch (ClassNotFoundException | LinkageError e) {
+            return new NoopJdbcMetrics();
+        }
+    }
+
+    private static class NoopJdbcMetrics extends JdbcMetrics {
+
+        @Override
+        boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        void recordStatement(StatementKind kind, long durationNanos, ResultSummary summary) {
+        }
+
+        @Override
+        void recordTransaction(String operation, boolean succeeded, long durationNanos) {
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package liquibase.ext.neo4j.database.jdbc;
+
+import org.neo4j.driver.Value;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+/**
+ * Read-only list view over a driver list, converting each element on first access only.
+ * Converted elements are cached, so that repeated accesses return the same instance.
+ */
+final class LazyValueList extends AbstractList<Object> implements RandomAccess {
+
+    private static final Object UNCONVERTED = new Object();
+
+    private final Value source;
+
+    private final Function<Value, Object> converter;
+
+    private Object[] converted;
+
+    LazyValueList(Value source, Function<Value, Object> converter) {
+        this.source = source;
+        this.converter = converter;
+    }
+
+    @Override
+    public Object get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(String.format("Index %d out of bounds for length %d", index, size()));
+        }
+        if (converted == null) {
+            converted = new Object[size()];
+            Arrays.fill(converted, UNCONVERTED);
+        }
+        Object value = converted[index];
+        if (value == UNCONVERTED) {
+            value = converter.apply(source.get(index));
+            converted[index] = value;
+        }
+        return value;
+    }
+
+    @Override
+    public int size() {
+        return source.size();
+    }
+}
@@ -0,0 +1,83 @@
+package liquibase.ext.neo4j.database.jdbc;
+
+import org.neo4j.driver.Value;
+import org.neo4j.driver.types.MapAccessor;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Read-only map view over a driver map or entity, converting each value on first access only.
+ * Converted values are cached, so that repeated accesses return the same instance.
+ */
+final class LazyValueMap extends AbstractMap<String, Object> {
+
+    private final MapAccessor source;
+
+    private final Function<Value, Object> converter;
+
+    private Map<String, Object> converted;
+
+    LazyValueMap(MapAccessor source, Function<Value, Object> converter) {
+        this.source = source;
+        this.converter = converter;
+    }
+
+    @Override
+    public int size() {
+        return source.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && source.containsKey((String) key);
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (!containsKey(key)) {
+            return null;
+        }
+        String name = (String) key;
+        if (converted == null) {
+            converted = new HashMap<>();
+        } else if (converted.containsKey(name)) {
+            return converted.get(name);
+        }
+        Object value = converter.apply(source.get(name));
+        converted.put(name, value);
+        return value;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                Iterator<String> keys = source.keys().iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return keys.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        String key = keys.next();
+                        return new SimpleImmutableEntry<>(key, get(key));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return source.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package liquibase.ext.neo4j.database.jdbc;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.neo4j.driver.summary.ResultSummary;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Only loaded when Micrometer is on the classpath.
+ */
+class MicrometerJdbcMetrics extends JdbcMetrics {
+
+    static final String STATEMENT_TIMER = "liquibase.neo4j.statement";
+
+    static final String STATEMENT_SERVER_TIMER = "liquibase.neo4j.statement.server";
+
+    static final String STATEMENT_UPDATES = "liquibase.neo4j.statement.updates";
+
+    static final String TRANSACTION_TIMER = "liquibase.neo4j.transaction";
+
+    private final CompositeMeterRegistry registry;
+
+    MicrometerJdbcMetrics(CompositeMeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    static MicrometerJdbcMetrics global() {
+        return new MicrometerJdbcMetrics(Metrics.globalRegistry);
+    }
+
+    // meters of a composite registry without any child registry are no-ops, the statement does not need to be measured
+    @Override
+    boolean isEnabled() {
+        return !registry.getRegistries().isEmpty();
+    }
+
+    @Override
+    void recordStatement(StatementKind kind, long durationNanos, ResultSummary summary) {
+        String kindTag = kind.tagValue();
+        Timer.builder(STATEMENT_TIMER)
+                .description("Time from sending a Cypher statement until its results are consumed")
+                .tags("kind", kindTag, "outcome", summary == null ? "failure" : "success")
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        if (summary == null) {
+            return;
+        }
+        DistributionSummary.builder(STATEMENT_UPDATES)
+                .description("Number of updates reported by a Cypher statement")
+                .tags("kind", kindTag)
+                .register(registry)
+                .record(Neo4jResultSet.sumAll(summary.counters()));
+        recordServerTime(kindTag, "available", summary.resultAvailableAfter(TimeUnit.NANOSECONDS));
+        recordServerTime(kindTag, "consumed", summary.resultConsumedAfter(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    void recordTransaction(String operation, boolean succeeded, long durationNanos) {
+        Timer.builder(TRANSACTION_TIMER)
+                .description("Time to commit or roll back an explicit transaction")
+                .tags("operation", operation, "outcome", succeeded ? "success" : "failure")
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // the server reports -1 when the timing is not available
+    private void recordServerTime(String kindTag, String phase, long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        Timer.builder(STATEMENT_SERVER_TIMER)
+                .description("Server-reported time until the first record was available or all records were consumed")
+                .tags("kind", kindTag, "phase", phase)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
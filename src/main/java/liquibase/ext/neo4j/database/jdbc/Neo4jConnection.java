@@ -2,12 +2,17 @@ package liquibase.ext.neo4j.database.jdbc;
 
 import org.neo4j.driver.AuthToken;
 import org.neo4j.driver.AuthTokens;
+import org.neo4j.driver.Bookmark;
+import org.neo4j.driver.BookmarkManager;
+import org.neo4j.driver.BookmarkManagerConfig;
+import org.neo4j.driver.BookmarkManagers;
 import org.neo4j.driver.Config;
 import org.neo4j.driver.Driver;
 import org.neo4j.driver.GraphDatabase;
 import org.neo4j.driver.Session;
 import org.neo4j.driver.SessionConfig;
 import org.neo4j.driver.Transaction;
+import org.neo4j.driver.exceptions.ClientException;
 import org.neo4j.driver.internal.types.InternalTypeSystem;
 import org.neo4j.driver.types.TypeSystem;
 
@@ -32,7 +37,9 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import static java.sql.ResultSet.CLOSE_CURSORS_AT_COMMIT;
@@ -40,14 +47,24 @@ import static java.sql.ResultSet.HOLD_CURSORS_OVER_COMMIT;
 import static java.sql.ResultSet.TYPE_FORWARD_ONLY;
 import static liquibase.ext.neo4j.database.jdbc.SupportedJdbcUrl.normalizeUri;
 
-class Neo4jConnection implements Connection, DatabaseMetaData, Neo4jTransactionState {
+class Neo4jConnection implements Connection, DatabaseMetaData, Neo4jTransactionState, Neo4jIndependentSessions, Neo4jStatementListenerSupport {
     private static final String SERVER_VERSION_QUERY =
             "CALL dbms.components() YIELD name, edition, versions WHERE name = \"Neo4j Kernel\" RETURN edition, versions[0] AS version LIMIT 1";
     private static final String CURRENT_USER_QUERY = "SHOW CURRENT USER YIELD user RETURN user";
+    private static final String LAST_COMMITTED_TRANSACTION_QUERY = "SHOW DATABASE $name YIELD lastCommittedTxn RETURN max(lastCommittedTxn) AS id";
+    private static final Set<String> UNSUPPORTED_QUERY_ERROR_CODES = Set.of(
+            "Neo.ClientError.Statement.SyntaxError", "Neo.ClientError.Procedure.ProcedureNotFound");
 
     private final String uri;
     private final Driver driver;
+    private final Runnable driverRelease;
+    private final Supplier<Driver> independentDriverFactory;
+    private final Object independentDriverLock = new Object();
+    private Driver independentDriver;
+    private boolean independentDriverClosed;
     private SessionConfig sessionConfig;
+    private final Long defaultFetchSize;
+    private final boolean pipelining;
     private Session session;
     private Transaction transaction;
     private String catalog;
@@ -56,20 +73,54 @@ class Neo4jConnection implements Connection, DatabaseMetaData, Neo4jTransactionS
     private String neo4jVersion;
     private String neo4jEdition;
     private String username;
+    private volatile Neo4jStatementListener statementListener;
+    private volatile boolean transactionIdsAvailable = true;
 
     public Neo4jConnection(String url, Properties info) {
         this(url, info, new DriverConfigSupplier(QueryStringParser.parseQueryString(url.replaceFirst("jdbc:neo4j:", "")), info));
     }
 
     Neo4jConnection(String uri, Properties info, DriverConfigSupplier configSupplier) {
+        this(uri, info, configSupplier, DriverRegistry.INSTANCE);
+    }
+
+    Neo4jConnection(String uri, Properties info, DriverConfigSupplier configSupplier, DriverRegistry registry) {
+        this.uri = uri;
+        if (configSupplier.isDriverSharingEnabled()) {
+            DriverRegistry.Key key = new DriverRegistry.Key(uri, configSupplier);
+            long idleTimeout = TimeUnit.MILLISECONDS.toNanos(configSupplier.getDriverSharingIdleTimeout());
+            this.driver = registry.acquire(key, () -> createDriver(uri, configSupplier, info));
+            this.driverRelease = () -> registry.release(key, idleTimeout);
+        } else {
+            this.driver = createDriver(uri, configSupplier, info);
+            this.driverRelease = this.driver::close;
+        }
+        // with a single pooled connection, independent sessions would wait for the transaction of this connection to end
+        this.independentDriverFactory = configSupplier.get().maxConnectionPoolSize() > 1 ? null : () -> createDriver(uri, configSupplier, info);
+        this.pipelining = configSupplier.isPipeliningEnabled();
+        this.sessionConfig = withBookmarkManager(configSupplier.getSessionConfig());
+        this.defaultFetchSize = this.sessionConfig.fetchSize().orElse(null);
+        this.catalog = this.sessionConfig.database().orElse(null);
+        this.session = openSession();
+    }
+
+    /**
+     * @param driverRelease what to do with the driver once this connection is closed, as the driver may be shared with
+     *                      other connections
+     */
+    Neo4jConnection(String uri, Driver driver, SessionConfig sessionConfig, Runnable driverRelease) {
         this.uri = uri;
-        this.driver = createDriver(configSupplier, info);
-        this.sessionConfig = configSupplier.getSessionConfig();
+        this.driver = driver;
+        this.driverRelease = driverRelease;
+        this.independentDriverFactory = null;
+        this.pipelining = false;
+        this.sessionConfig = withBookmarkManager(sessionConfig);
+        this.defaultFetchSize = sessionConfig.fetchSize().orElse(null);
         this.catalog = this.sessionConfig.database().orElse(null);
         this.session = openSession();
     }
 
-    private Driver createDriver(Supplier<Config> configSupplier, Properties info) {
+    static Driver createDriver(String uri, Supplier<Config> configSupplier, Properties info) {
         return GraphDatabase.driver(normalizeUri(uri, URIs::stripQueryString), newAuthToken(info), configSupplier.get());
     }
 
@@ -856,7 +907,7 @@ class Neo4jConnection implements Connection, DatabaseMetaData, Neo4jTransactionS
 
     @Override
     public boolean supportsBatchUpdates() {
-        return false;
+        return true;
     }
 
     @Override
@@ -1011,7 +1062,7 @@ class Neo4jConnection implements Connection, DatabaseMetaData, Neo4jTransactionS
         if (hasActiveTransaction()) {
             throw new SQLException(String.format("Cannot switch catalog to '%s' while a transaction is active", catalog));
         }
-        SessionConfig newSessionConfig = sessionConfig(catalog);
+        SessionConfig newSessionConfig = sessionConfig(catalog, this.sessionConfig.fetchSize().orElse(null), this.sessionConfig.bookmarks());
         if (newSessionConfig.equals(this.sessionConfig)) {
             return;
         }
@@ -1265,10 +1316,17 @@ class Neo4jConnection implements Connection, DatabaseMetaData, Neo4jTransactionS
         if (transaction == null || !transaction.isOpen()) {
             return;
         }
+        TransactionProbe probe = TransactionProbe.start("commit");
+        boolean succeeded = false;
         try (Transaction tx = transaction) {
+            if (tx instanceof PipelinedTransaction) {
+                ((PipelinedTransaction) tx).awaitPending();
+            }
             tx.commit();
+            succeeded = true;
         } finally {
             transaction = null;
+            probe.finish(succeeded);
         }
     }
 
@@ -1280,10 +1338,14 @@ class Neo4jConnection implements Connection, DatabaseMetaData, Neo4jTransactionS
         if (transaction == null || !transaction.isOpen()) {
             return;
         }
+        TransactionProbe probe = TransactionProbe.start("rollback");
+        boolean succeeded = false;
         try (Transaction tx = transaction) {
             tx.rollback();
+            succeeded = true;
         } finally {
             transaction = null;
+            probe.finish(succeeded);
         }
     }
 
@@ -1294,12 +1356,30 @@ class Neo4jConnection implements Connection, DatabaseMetaData, Neo4jTransactionS
 
     @Override
     public void close() {
-        if (transaction != null) {
-            transaction.close();
+        if (closed) {
+            return;
         }
-        session.close();
-        driver.close();
         closed = true;
+        try {
+            if (transaction != null) {
+                transaction.close();
+            }
+        } finally {
+            try {
+                session.close();
+            } finally {
+                // a shared driver must be released even if the session could not be closed properly
+                releaseDrivers();
+            }
+        }
+    }
+
+    private void releaseDrivers() {
+        try {
+            closeIndependentDriver();
+        } finally {
+            driverRelease.run();
+        }
     }
 
     public Session getSession() {
@@ -1310,18 +1390,119 @@ class Neo4jConnection implements Connection, DatabaseMetaData, Neo4jTransactionS
         return autocommit;
     }
 
-    public Transaction getOrBeginTransaction() {
+    public Transaction getOrBeginTransaction() throws SQLException {
+        return getOrBeginTransaction(0);
+    }
+
+    /**
+     * Returns the active transaction or begins a new one.
+     * The fetch size of a session is fixed and a transaction is bound to its session, so the given fetch size is only
+     * honoured when a new transaction begins: the session is then replaced by one with the requested fetch size.
+     *
+     * @param fetchSize the number of records pulled per batch, 0 for the connection default
+     */
+    public Transaction getOrBeginTransaction(long fetchSize) throws SQLException {
+        if (!hasActiveTransaction()) {
+            useFetchSize(fetchSize);
+            transaction = pipelining ? PipelinedTransaction.begin(driver, sessionConfig) : session.beginTransaction();
+        }
+        return transaction;
+    }
+
+    /**
+     * Returns the active transaction or begins a new one able to pipeline statements, whatever the pipelining setting.
+     * An active transaction that cannot pipeline statements is returned as is.
+     *
+     * @param fetchSize the number of records pulled per batch, 0 for the connection default
+     */
+    Transaction getOrBeginPipelinedTransaction(long fetchSize) throws SQLException {
         if (!hasActiveTransaction()) {
-            transaction = session.beginTransaction();
+            useFetchSize(fetchSize);
+            transaction = PipelinedTransaction.begin(driver, sessionConfig);
         }
         return transaction;
     }
 
+    /**
+     * Begins a transaction able to pipeline statements, independent of the transaction of this connection.
+     */
+    PipelinedTransaction beginPipelinedTransaction() {
+        return PipelinedTransaction.begin(driver, sessionConfig);
+    }
+
+    /**
+     * @return whether statements whose results are not read are pipelined within explicit transactions
+     */
+    boolean isPipeliningEnabled() {
+        return pipelining;
+    }
+
+    // visible for testing
+    Long getEffectiveFetchSize() {
+        return sessionConfig.fetchSize().orElse(null);
+    }
+
     @Override
     public boolean hasActiveTransaction() {
         return transaction != null && transaction.isOpen();
     }
 
+    @Override
+    public long queryForLongInIndependentSession(String cypher, Map<String, Object> parameters) throws SQLException {
+        try (Session independentSession = independentDriver().session(sessionConfig)) {
+            var results = independentSession.run(cypher, parameters);
+            if (!results.hasNext()) {
+                return 0L;
+            }
+            var value = results.next().get(0);
+            return value.isNull() ? 0L : value.asLong();
+        } catch (RuntimeException e) {
+            throw new SQLException(String.format("Could not run query %s in independent session", cypher), e);
+        }
+    }
+
+    @Override
+    public void setStatementListener(Neo4jStatementListener listener) {
+        this.statementListener = listener;
+    }
+
+    Neo4jStatementListener getStatementListener() {
+        return statementListener;
+    }
+
+    /**
+     * Reads the ID of the last transaction committed to the current database, in a session of its own.
+     * This is safe to use from other threads.
+     *
+     * @return the transaction ID, -1 if the server does not expose it
+     */
+    long lastCommittedTransactionId() {
+        if (!transactionIdsAvailable) {
+            return -1L;
+        }
+        SessionConfig.Builder systemSessionConfig = SessionConfig.builder().withDatabase("system");
+        sessionConfig.impersonatedUser().ifPresent(systemSessionConfig::withImpersonatedUser);
+        try {
+            // lastCommittedTxn is not available before Neo4j 5, there is no point in trying again
+            if (getDatabaseMajorVersion() < 5) {
+                transactionIdsAvailable = false;
+                return -1L;
+            }
+            try (Session systemSession = independentDriver().session(systemSessionConfig.build())) {
+                var id = systemSession.run(LAST_COMMITTED_TRANSACTION_QUERY, Map.of("name", getCatalog())).single().get("id");
+                return id.isNull() ? -1L : id.asLong();
+            }
+        } catch (ClientException e) {
+            if (UNSUPPORTED_QUERY_ERROR_CODES.contains(e.code())) {
+                transactionIdsAvailable = false;
+            }
+            return -1L;
+        } catch (SQLException | RuntimeException e) {
+            // transient failures (network, leader switch...) do not prevent subsequent reads
+            return -1L;
+        }
+    }
+
     // visible for testing
     final Transaction getTransaction() {
         return transaction;
@@ -1331,6 +1512,37 @@ class Neo4jConnection implements Connection, DatabaseMetaData, Neo4jTransactionS
         return driver.session(this.sessionConfig);
     }
 
+    /**
+     * Independent sessions run while the session of this connection may hold its pooled connection in an open
+     * transaction, for instance while the change log lock lease is extended in the middle of a long change set.
+     * When the driver of this connection only pools a single connection, they run on a dedicated driver, created on
+     * first use and closed with this connection.
+     */
+    private Driver independentDriver() {
+        if (independentDriverFactory == null) {
+            return driver;
+        }
+        synchronized (independentDriverLock) {
+            if (independentDriverClosed) {
+                throw new IllegalStateException("Connection is closed");
+            }
+            if (independentDriver == null) {
+                independentDriver = independentDriverFactory.get();
+            }
+            return independentDriver;
+        }
+    }
+
+    private void closeIndependentDriver() {
+        synchronized (independentDriverLock) {
+            independentDriverClosed = true;
+            if (independentDriver != null) {
+                independentDriver.close();
+                independentDriver = null;
+            }
+        }
+    }
+
     TypeSystem getTypeSystem() {
         return InternalTypeSystem.TYPE_SYSTEM;
     }
@@ -1386,19 +1598,60 @@ class Neo4jConnection implements Connection, DatabaseMetaData, Neo4jTransactionS
         }
     }
 
+    // visible for testing
+    void useFetchSize(long fetchSize) throws SQLException {
+        Long requestedFetchSize = fetchSize > 0 ? Long.valueOf(fetchSize) : defaultFetchSize;
+        if (Objects.equals(requestedFetchSize, getEffectiveFetchSize())) {
+            return;
+        }
+        // the last bookmarks keep the new session causally consistent with the previous one
+        SessionConfig newSessionConfig = sessionConfig(catalog, requestedFetchSize, session.lastBookmarks());
+        Session newSession;
+        try {
+            newSession = driver.session(newSessionConfig);
+        } catch (RuntimeException e) {
+            throw new SQLException(String.format("Could not open session with fetch size %s", requestedFetchSize), e);
+        }
+        Session previousSession = this.session;
+        this.sessionConfig = newSessionConfig;
+        this.session = newSession;
+        try {
+            previousSession.close();
+        } catch (RuntimeException e) {
+            throw new SQLException(String.format("Could not close session while switching to fetch size %s", requestedFetchSize), e);
+        }
+    }
+
+    private SessionConfig sessionConfig(String catalog, Long fetchSize, Iterable<Bookmark> bookmarks) {
+        return copySessionConfig(this.sessionConfig, catalog, fetchSize, bookmarks, this.sessionConfig.bookmarkManager().orElse(null));
+    }
+
+    // pipelined transactions run in sessions of their own, the shared bookmark manager chains them with the main session
+    private static SessionConfig withBookmarkManager(SessionConfig config) {
+        if (config.bookmarkManager().isPresent()) {
+            return config;
+        }
+        BookmarkManager bookmarkManager = BookmarkManagers.defaultManager(BookmarkManagerConfig.builder().build());
+        return copySessionConfig(config, config.database().orElse(null), config.fetchSize().orElse(null), config.bookmarks(), bookmarkManager);
+    }
+
     @SuppressWarnings("deprecation")
-    private SessionConfig sessionConfig(String catalog) {
+    private static SessionConfig copySessionConfig(SessionConfig config, String catalog, Long fetchSize, Iterable<Bookmark> bookmarks, BookmarkManager bookmarkManager) {
         SessionConfig.Builder builder = SessionConfig.builder()
-                .withDefaultAccessMode(this.sessionConfig.defaultAccessMode())
-                .withBookmarks(this.sessionConfig.bookmarks());
-        this.sessionConfig.fetchSize().ifPresent(builder::withFetchSize);
-        this.sessionConfig.impersonatedUser().ifPresent(builder::withImpersonatedUser);
-        this.sessionConfig.bookmarkManager().ifPresent(builder::withBookmarkManager);
-        if (this.sessionConfig.notificationConfig() != null) {
-            builder.withNotificationConfig(this.sessionConfig.notificationConfig());
+                .withDefaultAccessMode(config.defaultAccessMode())
+                .withBookmarks(bookmarks);
+        if (fetchSize != null) {
+            builder.withFetchSize(fetchSize);
+        }
+        config.impersonatedUser().ifPresent(builder::withImpersonatedUser);
+        if (bookmarkManager != null) {
+            builder.withBookmarkManager(bookmarkManager);
+        }
+        if (config.notificationConfig() != null) {
+            builder.withNotificationConfig(config.notificationConfig());
         }
-        if (this.sessionConfig.autoCommitRetriesMode() != null) {
-            builder.withAutoCommitRetriesMode(this.sessionConfig.autoCommitRetriesMode());
+        if (config.autoCommitRetriesMode() != null) {
+            builder.withAutoCommitRetriesMode(config.autoCommitRetriesMode());
         }
         if (catalog != null) {
             builder.withDatabase(catalog);
@@ -0,0 +1,19 @@
+package liquibase.ext.neo4j.database.jdbc;
+
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Runs auto-commit queries in short-lived sessions of their own, independently of the connection's session and
+ * current transaction.
+ * Contrary to the connection itself, this is safe to use from other threads.
+ */
+public interface Neo4jIndependentSessions {
+
+    /**
+     * @param cypher     the query to run, returning a single integer column
+     * @param parameters the query parameters
+     * @return the value of the first column of the first row, 0 if there is no such row or the value is null
+     */
+    long queryForLongInIndependentSession(String cypher, Map<String, Object> parameters) throws SQLException;
+}
@@ -17,10 +17,6 @@ import org.neo4j.driver.types.TypeSystem;
 
 import java.io.InputStream;
 import java.io.Reader;
-import java.lang.invoke.MethodHandle;
-import java.lang.invoke.MethodHandles;
-import java.lang.invoke.MethodHandles.Lookup;
-import java.lang.invoke.MethodType;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.Array;
@@ -46,10 +42,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 
-import static java.util.stream.Collectors.toList;
-
 class Neo4jResultSet implements ResultSet, ResultSetMetaData {
 
+    private static final TypeSystem TYPES = TypeSystem.getDefault();
+
     private final Neo4jStatement statement;
     private final TypeSystem typeSystem;
     private final Result result;
@@ -57,11 +53,17 @@ class Neo4jResultSet implements ResultSet, ResultSetMetaData {
     private boolean wasNull;
     private boolean closed;
     private ResultSummary summary;
+    private final StatementProbe probe;
 
     public Neo4jResultSet(Neo4jStatement neo4jStatement, TypeSystem typeSystem, Result result) {
+        this(neo4jStatement, typeSystem, result, null);
+    }
+
+    Neo4jResultSet(Neo4jStatement neo4jStatement, TypeSystem typeSystem, Result result, StatementProbe probe) {
         this.statement = neo4jStatement;
         this.typeSystem = typeSystem;
         this.result = result;
+        this.probe = probe;
     }
 
     @Override
@@ -88,7 +90,7 @@ class Neo4jResultSet implements ResultSet, ResultSetMetaData {
             return;
         }
         try {
-            summary = result.consume();
+            consumeSummary();
         } catch (Exception e) {
             throw new SQLException("cannot close result set", e);
         }
@@ -1062,14 +1064,11 @@ class Neo4jResultSet implements ResultSet, ResultSetMetaData {
     }
 
     int getUpdateCount() {
-        if (summary == null) {
-            summary = result.consume();
-        }
-        SummaryCounters counters = summary.counters();
+        SummaryCounters counters = consumeSummary().counters();
         return sumAll(counters);
     }
 
-    private static int sumAll(SummaryCounters counters) {
+    static int sumAll(SummaryCounters counters) {
         if (!counters.containsUpdates() && !counters.containsSystemUpdates()) {
             return 0;
         }
@@ -1082,12 +1081,29 @@ class Neo4jResultSet implements ResultSet, ResultSetMetaData {
                 + counters.nodesCreated()
                 + counters.nodesDeleted()
                 + counters.propertiesSet()
-                + counters.propertiesSet()
                 + counters.relationshipsCreated()
                 + counters.relationshipsDeleted()
                 + counters.systemUpdates();
     }
 
+    private ResultSummary consumeSummary() {
+        if (summary != null) {
+            return summary;
+        }
+        try {
+            summary = result.consume();
+        } catch (RuntimeException e) {
+            if (probe != null) {
+                probe.failed();
+            }
+            throw e;
+        }
+        if (probe != null) {
+            probe.succeeded(summary);
+        }
+        return summary;
+    }
+
     private <T> T tryConvert(int columnIndex, SqlConversionFunction<Value, T> converter, Supplier<T> valueForNull) throws SQLException {
         ensureOpen();
         try {
@@ -1124,30 +1140,29 @@ class Neo4jResultSet implements ResultSet, ResultSetMetaData {
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private static Object convertObject(Object value) {
-        if (value instanceof Value) {
-            return convertObject(((Value) value).asObject());
+    // containers are wrapped rather than copied, their content is only converted when read
+    private static Object convertObject(Value value) {
+        if (value.hasType(TYPES.LIST())) {
+            return new LazyValueList(value, Neo4jResultSet::convertObject);
         }
-        if (value instanceof Point) {
-            return pointToMap((Point) value);
+        // the map type also covers nodes and relationships
+        if (value.hasType(TYPES.NODE()) || value.hasType(TYPES.RELATIONSHIP())) {
+            return graphEntityToMap(value.asEntity());
         }
-        if (value instanceof List<?>) {
-            return ((List<?>) value).stream().map(Neo4jResultSet::convertObject).collect(toList());
+        if (value.hasType(TYPES.MAP())) {
+            return new LazyValueMap(value, Neo4jResultSet::convertObject);
         }
-        if (value instanceof Map<?, ?>) {
-            return Maps.mapValues((Map<String, ?>) value, Neo4jResultSet::convertObject);
+        if (value.hasType(TYPES.PATH())) {
+            return pathToList(value.asPath());
         }
-        if (value instanceof Entity) {
-            return graphEntityToMap((Entity) value);
+        if (value.hasType(TYPES.POINT())) {
+            return pointToMap(value.asPoint());
         }
-        if (value instanceof Path) {
-            return pathToList((Path) value);
+        Object object = value.asObject();
+        if (object instanceof ZonedDateTime) {
+            return Timestamp.from(((ZonedDateTime) object).toInstant());
         }
-        if (value instanceof ZonedDateTime) {
-            return Timestamp.from(((ZonedDateTime) value).toInstant());
-        }
-        return value;
+        return object;
     }
 
     private static Map<String, Object> pointToMap(Point point) {
@@ -1194,8 +1209,8 @@ class Neo4jResultSet implements ResultSet, ResultSetMetaData {
     private static Map<String, Object> graphEntityToMap(Entity value) {
         Map<String, Object> result = new HashMap<>(5);
         result.put("_id", value.id());
-        handleElementId(result, value);
-        result.put("_properties", Maps.mapValues(value.asMap(), Neo4jResultSet::convertObject));
+        result.put("_elementId", value.elementId());
+        result.put("_properties", new LazyValueMap(value, Neo4jResultSet::convertObject));
         if (value instanceof Node) {
             Node node = (Node) value;
             result.put("_labels", node.labels());
@@ -1444,19 +1459,6 @@ class Neo4jResultSet implements ResultSet, ResultSetMetaData {
     public String getColumnClassName(int column) {
         return null;
     }
-
-    private static void handleElementId(Map<String, Object> result, Entity value) {
-        try {
-            Lookup lookup = MethodHandles.publicLookup();
-            MethodHandle getElementId = lookup.findVirtual(value.getClass(), "elementId", MethodType.methodType(String.class));
-            String elementId = (String) getElementId.invoke(value);
-            result.put("_elementId", elementId);
-        } catch (NoSuchMethodException ignored) {
-            // happens with Java driver < 5
-        } catch (Throwable e) {
-            throw new RuntimeException(e);
-        }
-    }
 }
 
 @FunctionalInterface
@@ -0,0 +1,60 @@
+package liquibase.ext.neo4j.database.jdbc;
+
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.SessionConfig;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+
+/**
+ * Single native Neo4j driver, and therefore single connection pool, backing several JDBC connections.
+ * This is meant for applying migrations to many Neo4j databases of the same server concurrently: each connection
+ * gets its own session, bound to its own database, while the driver and its pool are shared.
+ * Closing a connection only closes its session, the driver is closed with {@link #close()}.
+ */
+public class Neo4jSharedDriver implements AutoCloseable {
+
+    private final String url;
+
+    private final Driver driver;
+
+    private final SessionConfig sessionConfig;
+
+    /**
+     * @param url  the JDBC URL, as accepted by {@link Neo4jDriver}
+     * @param info the connection properties, as accepted by {@link Neo4jDriver}
+     */
+    public Neo4jSharedDriver(String url, Properties info) {
+        DriverConfigSupplier configSupplier = new DriverConfigSupplier(QueryStringParser.parseQueryString(url.replaceFirst("jdbc:neo4j:", "")), info);
+        this.url = url;
+        this.driver = Neo4jConnection.createDriver(url, configSupplier, info);
+        this.sessionConfig = configSupplier.getSessionConfig();
+    }
+
+    /**
+     * Opens a connection to the given database.
+     *
+     * @param catalog the Neo4j database to connect to, the configured (or default) one when null
+     * @return the connection
+     * @throws SQLException if the connection cannot target the given database
+     */
+    public Connection connect(String catalog) throws SQLException {
+        // the driver outlives its connections, it is only closed along with this instance
+        Neo4jConnection connection = new Neo4jConnection(url, driver, sessionConfig, () -> {});
+        if (catalog != null) {
+            try {
+                connection.setCatalog(catalog);
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+        }
+        return connection;
+    }
+
+    @Override
+    public void close() {
+        driver.close();
+    }
+}
@@ -1,12 +1,16 @@
 package liquibase.ext.neo4j.database.jdbc;
 
 import org.neo4j.driver.QueryRunner;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Transaction;
+import org.neo4j.driver.summary.ResultSummary;
 
 import java.io.InputStream;
 import java.io.Reader;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.Array;
+import java.sql.BatchUpdateException;
 import java.sql.Blob;
 import java.sql.Clob;
 import java.sql.Date;
@@ -24,10 +28,15 @@ import java.sql.SQLXML;
 import java.sql.Statement;
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 
 import static java.sql.ResultSet.CLOSE_CURSORS_AT_COMMIT;
 import static java.sql.ResultSet.CONCUR_READ_ONLY;
@@ -42,8 +51,10 @@ class Neo4jStatement implements Statement, PreparedStatement {
     private final Neo4jConnection connection;
     private String cypher;
     private final Map<String, Object> parameters;
+    private final List<BatchEntry> batch = new ArrayList<>();
     private Neo4jResultSet resultSet;
     private boolean closed;
+    private int fetchSize;
 
     public Neo4jStatement(Neo4jConnection connection) {
         this(connection, null);
@@ -74,7 +85,7 @@ class Neo4jStatement implements Statement, PreparedStatement {
     }
 
     @Override
-    public ResultSet executeQuery() {
+    public ResultSet executeQuery() throws SQLException {
         return doExecute();
     }
 
@@ -201,14 +212,17 @@ class Neo4jStatement implements Statement, PreparedStatement {
     }
 
     @Override
-    public boolean execute() {
+    public boolean execute() throws SQLException {
+        if (runPipelined()) {
+            return false;
+        }
         resultSet = doExecute();
         return false;
     }
 
     @Override
     public void addBatch() throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        batch.add(new BatchEntry(cypher, new HashMap<>(parameters)));
     }
 
     @Override
@@ -367,7 +381,7 @@ class Neo4jStatement implements Statement, PreparedStatement {
     }
 
     @Override
-    public ResultSet executeQuery(String sql) {
+    public ResultSet executeQuery(String sql) throws SQLException {
         cypher = sql;
         return doExecute();
     }
@@ -449,6 +463,9 @@ class Neo4jStatement implements Statement, PreparedStatement {
     @Override
     public boolean execute(String sql) throws SQLException {
         cypher = sql;
+        if (runPipelined()) {
+            return false;
+        }
         resultSet = doExecute();
         return hasResults();
     }
@@ -460,7 +477,7 @@ class Neo4jStatement implements Statement, PreparedStatement {
 
     @Override
     public int getUpdateCount() {
-        if (resultSet.isClosed()) {
+        if (resultSet == null || resultSet.isClosed()) {
             return -1;
         }
         return resultSet.getUpdateCount();
@@ -468,6 +485,9 @@ class Neo4jStatement implements Statement, PreparedStatement {
 
     @Override
     public boolean getMoreResults() throws SQLException {
+        if (resultSet == null) {
+            return false;
+        }
         boolean resultSetIsOpen = !resultSet.isClosed();
         if (resultSetIsOpen) {
             resultSet.close();
@@ -485,14 +505,23 @@ class Neo4jStatement implements Statement, PreparedStatement {
         return ResultSet.FETCH_FORWARD;
     }
 
+    /**
+     * Sets the number of records pulled per batch by this statement, 0 for the connection default.
+     * The fetch size is honoured when the statement begins a new transaction, as it cannot change once a transaction
+     * has begun.
+     * Statements running in autocommit mode always use the connection default.
+     */
     @Override
-    public void setFetchSize(int rows) {
-
+    public void setFetchSize(int rows) throws SQLException {
+        if (rows < 0) {
+            throw new SQLException(String.format("fetch size must be positive, got: %d", rows));
+        }
+        fetchSize = rows;
     }
 
     @Override
     public int getFetchSize() {
-        return 0;
+        return fetchSize;
     }
 
     @Override
@@ -507,17 +536,43 @@ class Neo4jStatement implements Statement, PreparedStatement {
 
     @Override
     public void addBatch(String sql) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        batch.add(new BatchEntry(sql, Collections.emptyMap()));
     }
 
     @Override
-    public void clearBatch() throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+    public void clearBatch() {
+        batch.clear();
     }
 
+    /**
+     * Runs all the batched statements in a single transaction and returns their respective update counts.
+     * The statements are pipelined, whatever the pipelining setting of the connection, since their update counts are
+     * only read once all of them have been sent.
+     * In autocommit mode, the transaction is committed once all statements succeed and rolled back otherwise.
+     * Otherwise, the statements join the current transaction. If that transaction already began without pipelining,
+     * the statements run one after the other.
+     */
     @Override
     public int[] executeBatch() throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        List<BatchEntry> entries = new ArrayList<>(batch);
+        batch.clear();
+        if (entries.isEmpty()) {
+            return new int[0];
+        }
+        if (!isAutocommit()) {
+            Transaction transaction = connection.getOrBeginPipelinedTransaction(fetchSize);
+            if (transaction instanceof PipelinedTransaction) {
+                return runPipelinedBatch((PipelinedTransaction) transaction, entries);
+            }
+            return runBatch(transaction, entries);
+        }
+        try (PipelinedTransaction transaction = connection.beginPipelinedTransaction()) {
+            int[] updateCounts = runPipelinedBatch(transaction, entries);
+            transaction.commit();
+            return updateCounts;
+        } catch (RuntimeException e) {
+            throw new BatchUpdateException("Could not execute batch", new int[0], e);
+        }
     }
 
     @Override
@@ -608,11 +663,11 @@ class Neo4jStatement implements Statement, PreparedStatement {
         throw new SQLFeatureNotSupportedException();
     }
 
-    private QueryRunner queryRunner() {
+    private QueryRunner queryRunner() throws SQLException {
         if (isAutocommit()) {
             return connection.getSession();
         }
-        return connection.getOrBeginTransaction();
+        return connection.getOrBeginTransaction(fetchSize);
     }
 
     boolean isAutocommit() {
@@ -628,11 +683,84 @@ class Neo4jStatement implements Statement, PreparedStatement {
         return resultSet.hasNext();
     }
 
-    private Neo4jResultSet doExecute() {
+    private int[] runBatch(QueryRunner runner, List<BatchEntry> entries) throws BatchUpdateException {
+        int[] updateCounts = new int[entries.size()];
+        for (int i = 0; i < updateCounts.length; i++) {
+            BatchEntry entry = entries.get(i);
+            StatementProbe probe = StatementProbe.start(entry.cypher, connection);
+            try {
+                ResultSummary summary = runner.run(entry.cypher, entry.parameters).consume();
+                probe.succeeded(summary);
+                updateCounts[i] = Neo4jResultSet.sumAll(summary.counters());
+            } catch (RuntimeException e) {
+                probe.failed();
+                throw new BatchUpdateException(String.format("Could not run batched statement %d: %s", i + 1, entry.cypher), Arrays.copyOf(updateCounts, i), e);
+            }
+        }
+        return updateCounts;
+    }
+
+    private int[] runPipelinedBatch(PipelinedTransaction transaction, List<BatchEntry> entries) throws SQLException {
+        transaction.awaitPending();
+        List<CompletionStage<ResultSummary>> summaries = new ArrayList<>(entries.size());
+        for (BatchEntry entry : entries) {
+            summaries.add(transaction.runPipelined(entry.cypher, entry.parameters, StatementProbe.start(entry.cypher, connection)));
+        }
+        int[] updateCounts = new int[entries.size()];
+        for (int i = 0; i < updateCounts.length; i++) {
+            try {
+                updateCounts[i] = Neo4jResultSet.sumAll(summaries.get(i).toCompletableFuture().join().counters());
+            } catch (CompletionException e) {
+                throw new BatchUpdateException(String.format("Could not run batched statement %d: %s", i + 1, entries.get(i).cypher), Arrays.copyOf(updateCounts, i), e.getCause());
+            }
+        }
+        return updateCounts;
+    }
+
+    /**
+     * Sends the current statement without waiting for its outcome, when the connection pipelines statements.
+     * Its results are then not exposed and any failure is reported by the next statement or by the commit.
+     *
+     * @return whether the statement has been pipelined
+     */
+    private boolean runPipelined() throws SQLException {
+        if (isAutocommit() || !connection.isPipeliningEnabled()) {
+            return false;
+        }
+        Transaction transaction = connection.getOrBeginTransaction(fetchSize);
+        if (!(transaction instanceof PipelinedTransaction)) {
+            return false;
+        }
+        closeResultSet();
+        ((PipelinedTransaction) transaction).runPipelined(cypher, new HashMap<>(parameters), StatementProbe.start(cypher, connection));
+        return true;
+    }
+
+    private void closeResultSet() throws SQLException {
+        if (resultSet != null && !resultSet.isClosed()) {
+            resultSet.close();
+        }
+        resultSet = null;
+    }
+
+    private Neo4jResultSet doExecute() throws SQLException {
+        QueryRunner runner = queryRunner();
+        if (runner instanceof PipelinedTransaction) {
+            ((PipelinedTransaction) runner).awaitPending();
+        }
+        StatementProbe probe = StatementProbe.start(cypher, connection);
+        Result result;
+        try {
+            result = runner.run(cypher, parameters);
+        } catch (RuntimeException e) {
+            probe.failed();
+            throw e;
+        }
         return new Neo4jResultSet(
                 this,
                 this.connection.getTypeSystem(),
-                queryRunner().run(cypher, parameters)
+                result,
+                probe
         );
     }
 
@@ -654,4 +782,16 @@ class Neo4jStatement implements Statement, PreparedStatement {
             throw new SQLException(String.format("only strictly positive parameter indices are allowed, got: %d", parameterIndex));
         }
     }
+
+    private static class BatchEntry {
+
+        private final String cypher;
+
+        private final Map<String, Object> parameters;
+
+        BatchEntry(String cypher, Map<String, Object> parameters) {
+            this.cypher = cypher;
+            this.parameters = parameters;
+        }
+    }
 }
@@ -0,0 +1,32 @@
+package liquibase.ext.neo4j.database.jdbc;
+
+import org.neo4j.driver.summary.ResultSummary;
+
+/**
+ * Observes the Cypher statements run via a connection.
+ *
+ * @see Neo4jStatementListenerSupport
+ */
+public interface Neo4jStatementListener {
+
+    /**
+     * Called on the thread running the statement, right before the statement is sent.
+     *
+     * @param kind   the inferred kind of the statement
+     * @param cypher the statement
+     * @return the callback notified once the statement completes, possibly from another thread, or <code>null</code>
+     * if the statement does not need to be observed
+     */
+    Completion statementStarted(StatementKind kind, String cypher);
+
+    interface Completion {
+
+        /**
+         * @param clientTimeNanos   the time from sending the statement until its summary was available
+         * @param summary           the statement summary, <code>null</code> if the statement failed
+         * @param innerTransactions the number of transactions committed by <code>CALL {} IN TRANSACTIONS</code>, 0 if
+         *                          the statement does not run inner transactions and -1 if the number is unknown
+         */
+        void statementCompleted(long clientTimeNanos, ResultSummary summary, long innerTransactions);
+    }
+}
@@ -0,0 +1,12 @@
+package liquibase.ext.neo4j.database.jdbc;
+
+/**
+ * Registers a listener notified of every Cypher statement run via the connection.
+ */
+public interface Neo4jStatementListenerSupport {
+
+    /**
+     * @param listener the listener replacing the current one, <code>null</code> to remove the current one
+     */
+    void setStatementListener(Neo4jStatementListener listener);
+}
@@ -0,0 +1,270 @@
+package liquibase.ext.neo4j.database.jdbc;
+
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Query;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.SessionConfig;
+import org.neo4j.driver.Transaction;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.async.AsyncSession;
+import org.neo4j.driver.async.AsyncTransaction;
+import org.neo4j.driver.async.ResultCursor;
+import org.neo4j.driver.exceptions.NoSuchRecordException;
+import org.neo4j.driver.summary.ResultSummary;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Blocking transaction built on top of the asynchronous driver API, running in a session of its own.
+ * Statements submitted via {@link #runPipelined(String, Map)} are sent back-to-back without waiting for the server
+ * responses, their summaries are only collected by {@link #awaitPending()}.
+ * Every other operation first awaits the pending statements, so that failures are reported against the statement that
+ * caused them rather than against whatever runs next.
+ */
+class PipelinedTransaction implements Transaction {
+
+    private final AsyncSession session;
+
+    private final AsyncTransaction transaction;
+
+    private final List<PendingStatement> pendingStatements = new ArrayList<>();
+
+    private int submittedCount;
+
+    PipelinedTransaction(AsyncSession session, AsyncTransaction transaction) {
+        this.session = session;
+        this.transaction = transaction;
+    }
+
+    static PipelinedTransaction begin(Driver driver, SessionConfig sessionConfig) {
+        AsyncSession session = driver.session(AsyncSession.class, sessionConfig);
+        try {
+            return new PipelinedTransaction(session, await(session.beginTransactionAsync()));
+        } catch (RuntimeException e) {
+            session.closeAsync();
+            throw e;
+        }
+    }
+
+    /**
+     * Sends the given statement without waiting for its outcome.
+     *
+     * @return the summary of the statement, completed once the server has fully processed it
+     */
+    CompletionStage<ResultSummary> runPipelined(String cypher, Map<String, Object> parameters) {
+        return runPipelined(cypher, parameters, StatementProbe.start(cypher));
+    }
+
+    CompletionStage<ResultSummary> runPipelined(String cypher, Map<String, Object> parameters, StatementProbe probe) {
+        CompletionStage<ResultSummary> summary = transaction.runAsync(cypher, parameters)
+                .thenCompose(ResultCursor::consumeAsync)
+                .whenComplete((result, error) -> {
+                    if (error == null) {
+                        probe.succeeded(result);
+                    } else {
+                        probe.failed();
+                    }
+                });
+        pendingStatements.add(new PendingStatement(++submittedCount, cypher, summary));
+        return summary;
+    }
+
+    /**
+     * Waits for all the pending statements to complete.
+     *
+     * @throws SQLException describing the first pending statement that failed
+     */
+    void awaitPending() throws SQLException {
+        List<PendingStatement> statements = new ArrayList<>(pendingStatements);
+        pendingStatements.clear();
+        for (PendingStatement statement : statements) {
+            try {
+                await(statement.summary);
+            } catch (RuntimeException e) {
+                throw new SQLException(String.format("Could not run pipelined statement %d: %s", statement.number, statement.cypher), e);
+            }
+        }
+    }
+
+    // visible for testing
+    int pendingCount() {
+        return pendingStatements.size();
+    }
+
+    @Override
+    public Result run(String query, Value parameters) {
+        return run(new Query(query, parameters));
+    }
+
+    @Override
+    public Result run(String query, Map<String, Object> parameters) {
+        return run(new Query(query, parameters));
+    }
+
+    @Override
+    public Result run(String query, Record parameters) {
+        return run(new Query(query, parameters.asMap()));
+    }
+
+    @Override
+    public Result run(String query) {
+        return run(new Query(query));
+    }
+
+    @Override
+    public Result run(Query query) {
+        awaitPendingUnchecked();
+        return new CursorResult(await(transaction.runAsync(query)));
+    }
+
+    @Override
+    public void commit() {
+        try {
+            awaitPendingUnchecked();
+            await(transaction.commitAsync());
+        } finally {
+            session.closeAsync();
+        }
+    }
+
+    @Override
+    public void rollback() {
+        // the outcome of pending statements does not matter anymore
+        pendingStatements.clear();
+        try {
+            await(transaction.rollbackAsync());
+        } finally {
+            session.closeAsync();
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return await(transaction.isOpenAsync());
+    }
+
+    @Override
+    public void close() {
+        pendingStatements.clear();
+        try {
+            await(transaction.closeAsync());
+        } finally {
+            session.closeAsync();
+        }
+    }
+
+    private void awaitPendingUnchecked() {
+        try {
+            awaitPending();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e.getCause());
+        }
+    }
+
+    private static <T> T await(CompletionStage<T> stage) {
+        try {
+            return stage.toCompletableFuture().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static class PendingStatement {
+
+        private final int number;
+
+        private final String cypher;
+
+        private final CompletionStage<ResultSummary> summary;
+
+        PendingStatement(int number, String cypher, CompletionStage<ResultSummary> summary) {
+            this.number = number;
+            this.cypher = cypher;
+            this.summary = summary;
+        }
+    }
+
+    /**
+     * Blocking view over an asynchronous result cursor.
+     */
+    private static class CursorResult implements Result {
+
+        private final ResultCursor cursor;
+
+        CursorResult(ResultCursor cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public List<String> keys() {
+            return cursor.keys();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return await(cursor.peekAsync()) != null;
+        }
+
+        @Override
+        public Record next() {
+            Record record = await(cursor.nextAsync());
+            if (record == null) {
+                throw new NoSuchRecordException("No more records");
+            }
+            return record;
+        }
+
+        @Override
+        public Record single() throws NoSuchRecordException {
+            return await(cursor.singleAsync());
+        }
+
+        @Override
+        public Record peek() {
+            Record record = await(cursor.peekAsync());
+            if (record == null) {
+                throw new NoSuchRecordException("Cannot peek past the last record");
+            }
+            return record;
+        }
+
+        @Override
+        public Stream<Record> stream() {
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.IMMUTABLE), false);
+        }
+
+        @Override
+        public List<Record> list() {
+            return await(cursor.listAsync());
+        }
+
+        @Override
+        public <T> List<T> list(Function<Record, T> mapFunction) {
+            return await(cursor.listAsync(mapFunction));
+        }
+
+        @Override
+        public ResultSummary consume() {
+            return await(cursor.consumeAsync());
+        }
+
+        @Override
+        public boolean isOpen() {
+            return await(cursor.isOpenAsync());
+        }
+    }
+}
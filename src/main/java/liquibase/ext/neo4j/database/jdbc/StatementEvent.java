@@ -0,0 +1,75 @@
+package liquibase.ext.neo4j.database.jdbc;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("liquibase.neo4j.Statement")
+@Label("Cypher Statement")
+@Description("Cypher statement run by Liquibase via the Neo4j JDBC bridge, until its results are consumed")
+@Category({"Liquibase", "Neo4j"})
+@StackTrace(false)
+class StatementEvent extends jdk.jfr.Event {
+
+    @Label("Kind")
+    @Description("Either history, lock, snapshot or change")
+    String kind;
+
+    @Label("Cypher")
+    String cypher;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    @Label("Update Count")
+    int updateCount;
+
+    @Label("Nodes Created")
+    int nodesCreated;
+
+    @Label("Nodes Deleted")
+    int nodesDeleted;
+
+    @Label("Relationships Created")
+    int relationshipsCreated;
+
+    @Label("Relationships Deleted")
+    int relationshipsDeleted;
+
+    @Label("Properties Set")
+    int propertiesSet;
+
+    @Label("Labels Added")
+    int labelsAdded;
+
+    @Label("Labels Removed")
+    int labelsRemoved;
+
+    @Label("Indexes Added")
+    int indexesAdded;
+
+    @Label("Indexes Removed")
+    int indexesRemoved;
+
+    @Label("Constraints Added")
+    int constraintsAdded;
+
+    @Label("Constraints Removed")
+    int constraintsRemoved;
+
+    @Label("System Updates")
+    int systemUpdates;
+
+    @Label("Result Available After")
+    @Description("Server-reported time until the first record was available, -1 if unknown")
+    @Timespan(Timespan.MILLISECONDS)
+    long resultAvailableAfter = -1;
+
+    @Label("Result Consumed After")
+    @Description("Server-reported time until all records were consumed, -1 if unknown")
+    @Timespan(Timespan.MILLISECONDS)
+    long resultConsumedAfter = -1;
+}
@@ -0,0 +1,44 @@
+package liquibase.ext.neo4j.database.jdbc;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Coarse classification of the Cypher statements run by the extension, used to break down instrumentation events.
+ * The kind is inferred from the statement text, since the JDBC bridge does not know which Liquibase component issued
+ * the statement.
+ */
+public enum StatementKind {
+    HISTORY,
+    LOCK,
+    SNAPSHOT,
+    CHANGE;
+
+    private static final Pattern SNAPSHOT_STATEMENT = Pattern.compile("^\\s*(CYPHER\\s+\\S+\\s+)?(SHOW\\s|CALL\\s+(db|dbms)\\.)", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern INNER_TRANSACTIONS = Pattern.compile("\\bIN\\s+(\\S+\\s+)?(CONCURRENT\\s+)?TRANSACTIONS\\b", Pattern.CASE_INSENSITIVE);
+
+    static StatementKind of(String cypher) {
+        if (cypher == null) {
+            return CHANGE;
+        }
+        if (cypher.contains("__LiquibaseLock")) {
+            return LOCK;
+        }
+        if (cypher.contains("__Liquibase")) {
+            return HISTORY;
+        }
+        if (SNAPSHOT_STATEMENT.matcher(cypher).find()) {
+            return SNAPSHOT;
+        }
+        return CHANGE;
+    }
+
+    static boolean runsInnerTransactions(String cypher) {
+        return cypher != null && INNER_TRANSACTIONS.matcher(cypher).find();
+    }
+
+    String tagValue() {
+        return name().toLowerCase(Locale.ENGLISH);
+    }
+}
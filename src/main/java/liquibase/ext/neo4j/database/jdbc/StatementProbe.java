@@ -0,0 +1,142 @@
+package liquibase.ext.neo4j.database.jdbc;
+
+import org.neo4j.driver.summary.ResultSummary;
+import org.neo4j.driver.summary.SummaryCounters;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single Cypher statement, from the moment it is sent until its summary is available, and reports it as a
+ * {@link StatementEvent} JFR event, to {@link JdbcMetrics} and to the connection's {@link Neo4jStatementListener}.
+ * Nothing is measured when neither the JFR event, the metrics nor a listener are enabled.
+ */
+final class StatementProbe {
+
+    private static final StatementProbe DISABLED = new StatementProbe(null, null, null, false, null, null, -1);
+
+    private final String cypher;
+
+    private final StatementKind kind;
+
+    private final StatementEvent event;
+
+    private final boolean metricsEnabled;
+
+    private final Neo4jStatementListener.Completion completion;
+
+    private final Neo4jConnection connection;
+
+    private final long transactionIdBefore;
+
+    private final long startNanos;
+
+    private boolean done;
+
+    private StatementProbe(String cypher,
+                           StatementKind kind,
+                           StatementEvent event,
+                           boolean metricsEnabled,
+                           Neo4jStatementListener.Completion completion,
+                           Neo4jConnection connection,
+                           long transactionIdBefore) {
+        this.cypher = cypher;
+        this.kind = kind;
+        this.event = event;
+        this.metricsEnabled = metricsEnabled;
+        this.completion = completion;
+        this.connection = connection;
+        this.transactionIdBefore = transactionIdBefore;
+        this.startNanos = System.nanoTime();
+    }
+
+    static StatementProbe start(String cypher) {
+        return start(cypher, null);
+    }
+
+    /**
+     * @param connection the connection running the statement, <code>null</code> if the statement is not run on behalf
+     *                   of a connection
+     */
+    static StatementProbe start(String cypher, Neo4jConnection connection) {
+        StatementEvent event = new StatementEvent();
+        boolean eventEnabled = event.isEnabled();
+        boolean metricsEnabled = JdbcMetrics.INSTANCE.isEnabled();
+        Neo4jStatementListener listener = connection == null ? null : connection.getStatementListener();
+        if (!eventEnabled && !metricsEnabled && listener == null) {
+            return DISABLED;
+        }
+        StatementKind kind = StatementKind.of(cypher);
+        Neo4jStatementListener.Completion completion = listener == null ? null : listener.statementStarted(kind, cypher);
+        // inner transactions are counted via the database's last committed transaction ID, which costs a query
+        long transactionIdBefore = completion != null && StatementKind.runsInnerTransactions(cypher) ? connection.lastCommittedTransactionId() : -1;
+        if (eventEnabled) {
+            event.begin();
+        }
+        return new StatementProbe(cypher, kind, eventEnabled ? event : null, metricsEnabled, completion, connection, transactionIdBefore);
+    }
+
+    void succeeded(ResultSummary summary) {
+        finish(summary);
+    }
+
+    void failed() {
+        finish(null);
+    }
+
+    private void finish(ResultSummary summary) {
+        if (this == DISABLED || done) {
+            return;
+        }
+        done = true;
+        long durationNanos = System.nanoTime() - startNanos;
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                populate(event, summary);
+                event.commit();
+            }
+        }
+        if (metricsEnabled) {
+            JdbcMetrics.INSTANCE.recordStatement(kind, durationNanos, summary);
+        }
+        if (completion != null) {
+            completion.statementCompleted(durationNanos, summary, innerTransactions(summary));
+        }
+    }
+
+    private long innerTransactions(ResultSummary summary) {
+        if (!StatementKind.runsInnerTransactions(cypher)) {
+            return 0;
+        }
+        if (summary == null || transactionIdBefore < 0) {
+            return -1;
+        }
+        long transactionIdAfter = connection.lastCommittedTransactionId();
+        return transactionIdAfter < 0 ? -1 : transactionIdAfter - transactionIdBefore;
+    }
+
+    private void populate(StatementEvent event, ResultSummary summary) {
+        event.kind = kind.tagValue();
+        event.cypher = cypher;
+        event.succeeded = summary != null;
+        if (summary == null) {
+            return;
+        }
+        SummaryCounters counters = summary.counters();
+        event.updateCount = Neo4jResultSet.sumAll(counters);
+        event.nodesCreated = counters.nodesCreated();
+        event.nodesDeleted = counters.nodesDeleted();
+        event.relationshipsCreated = counters.relationshipsCreated();
+        event.relationshipsDeleted = counters.relationshipsDeleted();
+        event.propertiesSet = counters.propertiesSet();
+        event.labelsAdded = counters.labelsAdded();
+        event.labelsRemoved = counters.labelsRemoved();
+        event.indexesAdded = counters.indexesAdded();
+        event.indexesRemoved = counters.indexesRemoved();
+        event.constraintsAdded = counters.constraintsAdded();
+        event.constraintsRemoved = counters.constraintsRemoved();
+        event.systemUpdates = counters.systemUpdates();
+        event.resultAvailableAfter = summary.resultAvailableAfter(TimeUnit.MILLISECONDS);
+        event.resultConsumedAfter = summary.resultConsumedAfter(TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,22 @@
+package liquibase.ext.neo4j.database.jdbc;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("liquibase.neo4j.Transaction")
+@Label("Transaction Completion")
+@Description("Commit or rollback of an explicit transaction of the Neo4j JDBC bridge")
+@Category({"Liquibase", "Neo4j"})
+@StackTrace(false)
+class TransactionEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    @Description("Either commit or rollback")
+    String operation;
+
+    @Label("Succeeded")
+    boolean succeeded;
+}
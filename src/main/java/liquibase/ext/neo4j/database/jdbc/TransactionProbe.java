@@ -0,0 +1,38 @@
+package liquibase.ext.neo4j.database.jdbc;
+
+/**
+ * Measures the commit or rollback of an explicit transaction and reports it as a {@link TransactionEvent} JFR event
+ * and to {@link JdbcMetrics}.
+ */
+final class TransactionProbe {
+
+    private final String operation;
+
+    private final TransactionEvent event;
+
+    private final long startNanos;
+
+    private TransactionProbe(String operation, TransactionEvent event) {
+        this.operation = operation;
+        this.event = event;
+        this.startNanos = System.nanoTime();
+    }
+
+    static TransactionProbe start(String operation) {
+        TransactionEvent event = new TransactionEvent();
+        event.begin();
+        return new TransactionProbe(operation, event);
+    }
+
+    void finish(boolean succeeded) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+        if (JdbcMetrics.INSTANCE.isEnabled()) {
+            JdbcMetrics.INSTANCE.recordTransaction(operation, succeeded, System.nanoTime() - startNanos);
+        }
+    }
+}
@@ -5,55 +5,139 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntToLongFunction;
 import java.util.function.Predicate;
 
+/**
+ * Checks a condition until it is met or the configured timeout is over.
+ * Checks run on a JVM-wide pool of daemon threads, created lazily and shared by all schedulers, so that waiting does
+ * not create and tear down threads every time.
+ */
 public class ConditionCheckScheduler implements Closeable {
 
-    private final ScheduledExecutorService scheduledExecutorService;
-
     private final Duration timeout;
 
     private Exception lastException;
 
     public ConditionCheckScheduler(Duration timeout) {
-        this.scheduledExecutorService = Executors.newScheduledThreadPool(1);
         this.timeout = timeout;
     }
 
+    /**
+     * Checks the supplied value every <code>delay</code> until the condition is met or the timeout is over.
+     * A check still running when the timeout is over is cancelled.
+     * If the calling thread is interrupted, the pending check is cancelled, the default value is returned and the
+     * thread interrupt status is preserved.
+     */
     public <T> T scheduleCheckWithFixedDelay(Callable<T> valueSupplier, Predicate<T> check, T defaultValue, Duration delay) {
         if (delay.compareTo(timeout) >= 0) {
             throw new IllegalArgumentException(String.format("delay %s should be strictly less than the configured timeout %s", delay, timeout));
         }
+        long delayInNanos = delay.toNanos();
+        return scheduleCheck(valueSupplier, check, defaultValue, attempt -> delayInNanos);
+    }
+
+    /**
+     * Checks the supplied value until the condition is met or the timeout is over, like
+     * {@link #scheduleCheckWithFixedDelay(Callable, Predicate, Object, Duration)}.
+     * The delay between checks starts at <code>initialDelay</code> and doubles after every unsuccessful check, up to
+     * <code>maxDelay</code>, so <code>initialDelay</code> must be strictly positive. Each delay is randomized between half and all of its value, so that concurrent callers
+     * spread their checks out instead of retrying in lockstep.
+     */
+    public <T> T scheduleCheckWithBackoff(Callable<T> valueSupplier, Predicate<T> check, T defaultValue, Duration initialDelay, Duration maxDelay) {
+        if (maxDelay.compareTo(timeout) >= 0) {
+            throw new IllegalArgumentException(String.format("delay %s should be strictly less than the configured timeout %s", maxDelay, timeout));
+        }
+        if (initialDelay.isNegative() || initialDelay.isZero() || initialDelay.compareTo(maxDelay) > 0) {
+            throw new IllegalArgumentException(String.format("initial delay %s should be strictly positive and less than or equal to the maximum delay %s", initialDelay, maxDelay));
+        }
+        long initialDelayInNanos = initialDelay.toNanos();
+        long maxDelayInNanos = maxDelay.toNanos();
+        return scheduleCheck(valueSupplier, check, defaultValue,
+                attempt -> backoffDelay(attempt, initialDelayInNanos, maxDelayInNanos, ThreadLocalRandom.current().nextDouble()));
+    }
+
+    // "equal jitter": half of the exponential delay is kept, the other half is random
+    static long backoffDelay(int attempt, long initialDelayInNanos, long maxDelayInNanos, double random) {
+        long delay = initialDelayInNanos;
+        for (int i = 0; i < attempt && delay < maxDelayInNanos; i++) {
+            delay = delay * 2;
+        }
+        delay = Math.min(delay, maxDelayInNanos);
+        return delay / 2 + (long) (random * (delay - delay / 2));
+    }
+
+    /**
+     * @return the scheduler shared by all condition checks and lock heartbeats of this JVM
+     */
+    static ScheduledExecutorService sharedExecutor() {
+        return SharedExecutor.INSTANCE;
+    }
+
+    /**
+     * Checks do not own any thread, there is nothing to release.
+     * Kept so that callers can keep scoping schedulers with try-with-resources.
+     */
+    @Override
+    public void close() {
+    }
 
+    public Exception getLastException() {
+        return lastException;
+    }
+
+    private <T> T scheduleCheck(Callable<T> valueSupplier, Predicate<T> check, T defaultValue, IntToLongFunction delays) {
         Instant waitingStarted = Instant.now();
         Duration waitedFor;
         long delayInNanos = 0L;
+        int attempt = 0;
         while ((waitedFor = Duration.between(waitingStarted, Instant.now())).compareTo(timeout) < 0) {
+            ScheduledFuture<T> pendingCheck = sharedExecutor().schedule(valueSupplier, delayInNanos, TimeUnit.NANOSECONDS);
             try {
-                T currentResult = scheduledExecutorService.schedule(valueSupplier, delayInNanos, TimeUnit.NANOSECONDS)
-                        .get(timeout.minus(waitedFor).toNanos(), TimeUnit.NANOSECONDS);
+                T currentResult = pendingCheck.get(timeout.minus(waitedFor).toNanos(), TimeUnit.NANOSECONDS);
                 if (check.test(currentResult)) {
                     return currentResult;
                 }
-            } catch (InterruptedException | TimeoutException ignored) {
+            } catch (TimeoutException e) {
+                pendingCheck.cancel(true);
+                return defaultValue;
+            } catch (InterruptedException e) {
+                pendingCheck.cancel(true);
+                Thread.currentThread().interrupt();
+                return defaultValue;
             } catch (ExecutionException executionException) {
                 lastException = executionException;
             }
-            delayInNanos = delay.toNanos();
+            delayInNanos = delays.applyAsLong(attempt++);
         }
         return defaultValue;
     }
 
-    @Override
-    public void close() {
-        scheduledExecutorService.shutdown();
-    }
+    private static final class SharedExecutor {
 
-    public Exception getLastException() {
-        return lastException;
+        private static final ScheduledExecutorService INSTANCE = create();
+
+        // threads are only started when checks are scheduled and stop once idle, so an idle JVM keeps no thread around
+        private static ScheduledExecutorService create() {
+            AtomicInteger threadCount = new AtomicInteger();
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(
+                    Math.max(2, Runtime.getRuntime().availableProcessors()),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "liquibase-neo4j-scheduler-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            executor.setKeepAliveTime(30, TimeUnit.SECONDS);
+            executor.allowCoreThreadTimeOut(true);
+            executor.setRemoveOnCancelPolicy(true);
+            return executor;
+        }
     }
-}
\ No newline at end of file
+}
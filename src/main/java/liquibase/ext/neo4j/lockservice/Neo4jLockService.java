@@ -2,12 +2,16 @@ package liquibase.ext.neo4j.lockservice;
 
 import liquibase.GlobalConfiguration;
 import liquibase.Scope;
+import liquibase.changelog.ChangeLogHistoryService;
+import liquibase.changelog.ChangeLogHistoryServiceFactory;
 import liquibase.database.Database;
 import liquibase.exception.DatabaseException;
 import liquibase.exception.LiquibaseException;
 import liquibase.exception.LockException;
 import liquibase.executor.Executor;
 import liquibase.executor.ExecutorService;
+import liquibase.ext.neo4j.changelog.Neo4jChangelogHistoryService;
+import liquibase.ext.neo4j.configuration.Neo4jConfiguration;
 import liquibase.ext.neo4j.database.Neo4jDatabase;
 import liquibase.lockservice.DatabaseChangeLogLock;
 import liquibase.lockservice.LockService;
@@ -16,9 +20,12 @@ import liquibase.statement.core.RawSqlStatement;
 
 import java.sql.Timestamp;
 import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import static java.util.function.Predicate.isEqual;
 
@@ -26,6 +33,21 @@ public class Neo4jLockService implements LockService {
 
     static final String LOCK_CONSTRAINT_NAME = "unique_liquibase_lock";
 
+    // retrying without any delay would flood the server with lock queries
+    private static final Duration MIN_RETRY_DELAY = Duration.ofMillis(1);
+
+    // the uniqueness constraint on lockedBy only guarantees a single lock node, it does not serialize takeovers:
+    // writing _lock first takes the node write lock, so expiresAt is only read once concurrent takeovers have committed
+    private static final String ACQUIRE_LEASE_QUERY = "MERGE (lock:__LiquibaseLock {lockedBy: $2}) " +
+            "ON CREATE SET lock.id = $1, lock.grantDate = datetime(), lock.expiresAt = datetime() + duration({seconds: $3}) " +
+            "ON MATCH SET lock._lock = true " +
+            "WITH lock " +
+            "SET lock += CASE WHEN lock.expiresAt < datetime() " +
+            "   THEN {id: $1, grantDate: datetime(), expiresAt: datetime() + duration({seconds: $3})} " +
+            "   ELSE {} END " +
+            "REMOVE lock._lock " +
+            "RETURN lock.id = $1 AS acquired";
+
     private Neo4jDatabase database;
 
     private UUID lockId;
@@ -34,6 +56,13 @@ public class Neo4jLockService implements LockService {
 
     private Long changeLogLockRecheckTime;
 
+    private boolean initialized;
+
+    private ScheduledFuture<?> heartbeat;
+
+    // set by the heartbeat, which runs on the shared scheduler thread
+    private volatile UUID lostLeaseId;
+
     @Override
     public int getPriority() {
         return PRIORITY_DATABASE;
@@ -54,14 +83,20 @@ public class Neo4jLockService implements LockService {
         Exception lastException;
         boolean lockAcquired;
         try (ConditionCheckScheduler checkScheduler = new ConditionCheckScheduler(Duration.ofMinutes(getChangeLogLockWaitTime()))) {
-            lockAcquired = checkScheduler.scheduleCheckWithFixedDelay(
+            Duration maxDelay = atLeastMinRetryDelay(Duration.ofSeconds(getChangeLogLockRecheckTime()));
+            Duration initialDelay = atLeastMinRetryDelay(Duration.ofMillis(Neo4jConfiguration.LOCK_RETRY_INITIAL_DELAY.getCurrentValue()));
+            lockAcquired = checkScheduler.scheduleCheckWithBackoff(
                     this::acquireLock,
                     isEqual(true),
                     false,
-                    Duration.ofSeconds(getChangeLogLockRecheckTime())
+                    initialDelay.compareTo(maxDelay) < 0 ? initialDelay : maxDelay,
+                    maxDelay
             );
             lastException = checkScheduler.getLastException();
         }
+        if (!lockAcquired && Thread.currentThread().isInterrupted()) {
+            throw new LockException("Interrupted while waiting for change log lock", lastException);
+        }
 
         if (!lockAcquired) {
             DatabaseChangeLogLock[] currentLocks = listLocks();
@@ -106,8 +141,30 @@ public class Neo4jLockService implements LockService {
 
         UUID formerLockId = lockId;
         try {
-            init();
+            if (!initialized) {
+                init();
+            }
+            Long leaseDuration = getLeaseDuration();
+            if (Neo4jConfiguration.LOCK_READ_PROBE.getCurrentValue() && isLockTaken(leaseDuration != null)) {
+                return false;
+            }
             UUID newLockId = UUID.randomUUID();
+            Executor executor = Scope.getCurrentScope().getSingleton(ExecutorService.class).getExecutor("jdbc", database);
+            if (leaseDuration != null && executor.updatesDatabase()) {
+                Boolean acquired = executor.queryForObject(new RawParameterizedSqlStatement(
+                        ACQUIRE_LEASE_QUERY,
+                        newLockId.toString(),
+                        Neo4jLockService.class.getSimpleName(),
+                        leaseDuration
+                ), Boolean.class);
+                database.commit();
+                if (!Boolean.TRUE.equals(acquired)) {
+                    return false;
+                }
+                lockId = newLockId;
+                startHeartbeat(newLockId, leaseDuration);
+                return true;
+            }
             database.execute(new RawParameterizedSqlStatement(
                     "CREATE (lock:__LiquibaseLock {id: $1, grantDate: datetime(), lockedBy: $2})",
                     newLockId.toString(),
@@ -133,10 +190,13 @@ public class Neo4jLockService implements LockService {
     @Override
     public void init() throws DatabaseException {
         database.createUniqueConstraint(LOCK_CONSTRAINT_NAME, "__LiquibaseLock", "lockedBy");
+        initialized = true;
     }
 
     @Override
     public void destroy() throws DatabaseException {
+        initialized = false;
+        stopHeartbeat();
         database.dropUniqueConstraint(LOCK_CONSTRAINT_NAME, "__LiquibaseLock", "lockedBy");
         try {
             forceReleaseLock();
@@ -153,9 +213,27 @@ public class Neo4jLockService implements LockService {
 
     @Override
     public void releaseLock() throws LockException {
-        if (!hasChangeLogLock()) {
+        if (lockId == null) {
             return;
         }
+        LockException historyException = null;
+        try {
+            flushChangeLogHistory();
+        } catch (DatabaseException e) {
+            // the lock must be released regardless
+            historyException = new LockException("Could not persist pending change log history before releasing lock", e);
+        }
+        database.writeChangeSetProfileReport();
+        if (isLeaseLost()) {
+            UUID formerLockId = lockId;
+            reset();
+            LockException lockException = new LockException(String.format(
+                    "Change log lock lease %s was lost before the lock was released, another instance may have run concurrent migrations", formerLockId));
+            if (historyException != null) {
+                lockException.addSuppressed(historyException);
+            }
+            throw lockException;
+        }
         try {
             database.execute(new RawParameterizedSqlStatement(
                     "MATCH (lock:__LiquibaseLock {id: $1}) DELETE lock",
@@ -169,7 +247,14 @@ public class Neo4jLockService implements LockService {
             } catch (DatabaseException databaseException) {
                 e.addSuppressed(databaseException);
             }
-            throw new LockException("Could not release lock", e);
+            LockException lockException = new LockException("Could not release lock", e);
+            if (historyException != null) {
+                lockException.addSuppressed(historyException);
+            }
+            throw lockException;
+        }
+        if (historyException != null) {
+            throw historyException;
         }
     }
 
@@ -199,12 +284,84 @@ public class Neo4jLockService implements LockService {
 
     @Override
     public void reset() {
+        stopHeartbeat();
         lockId = null;
+        lostLeaseId = null;
     }
 
     @Override
     public boolean hasChangeLogLock() {
-        return lockId != null;
+        return lockId != null && !isLeaseLost();
+    }
+
+    private boolean isLeaseLost() {
+        return lockId != null && lockId.equals(lostLeaseId);
+    }
+
+    // a read is much cheaper than a write failing on the lock uniqueness constraint, especially with many waiters
+    private boolean isLockTaken(boolean leaseMode) throws DatabaseException {
+        String query = leaseMode ?
+                "MATCH (lock:__LiquibaseLock) WHERE lock.expiresAt IS NULL OR lock.expiresAt >= datetime() RETURN true AS taken LIMIT 1" :
+                "MATCH (lock:__LiquibaseLock) RETURN true AS taken LIMIT 1";
+        List<Boolean> results = database.query(query, (resultSet, rowNumber) -> resultSet.getBoolean("taken"));
+        database.rollback();
+        return !results.isEmpty();
+    }
+
+    private static Long getLeaseDuration() {
+        Long leaseDuration = Neo4jConfiguration.LOCK_LEASE_DURATION.getCurrentValue();
+        if (leaseDuration == null || leaseDuration <= 0) {
+            return null;
+        }
+        return leaseDuration;
+    }
+
+    // the heartbeat runs in its own session and connection, since the connection's session is busy running migrations
+    private void startHeartbeat(UUID id, long leaseDuration) {
+        stopHeartbeat();
+        long period = Math.max(1L, TimeUnit.SECONDS.toMillis(leaseDuration) / 3);
+        Map<String, Object> parameters = new HashMap<>(2);
+        parameters.put("id", id.toString());
+        parameters.put("leaseDuration", leaseDuration);
+        heartbeat = ConditionCheckScheduler.sharedExecutor()
+                .scheduleAtFixedRate(() -> extendLease(id, parameters), period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private void extendLease(UUID id, Map<String, Object> parameters) {
+        long extended;
+        try {
+            extended = database.queryForLongInIndependentSession(
+                    "MATCH (lock:__LiquibaseLock {id: $id}) SET lock.expiresAt = datetime() + duration({seconds: $leaseDuration}) RETURN count(lock) AS count",
+                    parameters
+            );
+        } catch (DatabaseException e) {
+            // the next heartbeat may succeed before the lease expires
+            Scope.getCurrentScope().getLog(getClass()).warning(String.format("Could not extend change log lock lease %s", parameters.get("id")), e);
+            return;
+        }
+        if (extended == 0) {
+            // the migration thread finds out through hasChangeLogLock and releaseLock
+            lostLeaseId = id;
+            Scope.getCurrentScope().getLog(getClass()).severe(String.format(
+                    "Change log lock lease %s was lost, another instance may run concurrent migrations", parameters.get("id")));
+            // cancels subsequent heartbeats
+            throw new IllegalStateException(String.format("Change log lock lease %s was lost", parameters.get("id")));
+        }
+    }
+
+    private void stopHeartbeat() {
+        if (heartbeat != null) {
+            heartbeat.cancel(true);
+            heartbeat = null;
+        }
+    }
+
+    // releasing the lock marks the end of the update, the history must be complete by then
+    private void flushChangeLogHistory() throws DatabaseException {
+        ChangeLogHistoryService historyService = Scope.getCurrentScope().getSingleton(ChangeLogHistoryServiceFactory.class).getChangeLogService(database);
+        if (historyService instanceof Neo4jChangelogHistoryService) {
+            ((Neo4jChangelogHistoryService) historyService).flush();
+        }
     }
 
     private DatabaseChangeLogLock mapRow(Map<String, Object> row) {
@@ -215,4 +372,8 @@ public class Neo4jLockService implements LockService {
         String lockedBy = properties.get("lockedBy").toString();
         return new DatabaseChangeLogLock(id, grantDate, lockedBy);
     }
+
+    private static Duration atLeastMinRetryDelay(Duration delay) {
+        return delay.compareTo(MIN_RETRY_DELAY) < 0 ? MIN_RETRY_DELAY : delay;
+    }
 }
@@ -0,0 +1,30 @@
+package liquibase.ext.neo4j.runner;
+
+import liquibase.exception.LiquibaseException;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reports the databases {@link Neo4jTenantMigrationRunner} could not migrate, along with the reason why.
+ * Each failure is also attached as a suppressed exception.
+ */
+@SuppressWarnings("serial")
+public class Neo4jTenantMigrationException extends LiquibaseException {
+
+    private final Map<String, Throwable> failures;
+
+    public Neo4jTenantMigrationException(int databaseCount, Map<String, Throwable> failures) {
+        super(String.format("Could not migrate %d out of %d database(s): %s", failures.size(), databaseCount, String.join(", ", failures.keySet())));
+        this.failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+        failures.values().forEach(this::addSuppressed);
+    }
+
+    /**
+     * @return the failure of each database that could not be migrated, in the order the databases were given
+     */
+    public Map<String, Throwable> getFailures() {
+        return failures;
+    }
+}
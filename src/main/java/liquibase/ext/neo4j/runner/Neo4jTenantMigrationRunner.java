@@ -0,0 +1,159 @@
+package liquibase.ext.neo4j.runner;
+
+import liquibase.Scope;
+import liquibase.changelog.ChangeLogHistoryServiceFactory;
+import liquibase.command.CommandScope;
+import liquibase.command.core.UpdateCommandStep;
+import liquibase.command.core.helpers.DatabaseChangelogCommandStep;
+import liquibase.command.core.helpers.DbUrlConnectionArgumentsCommandStep;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.LiquibaseException;
+import liquibase.ext.neo4j.database.jdbc.Neo4jSharedDriver;
+import liquibase.lockservice.LockServiceFactory;
+
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Applies the same change log to many databases of a single Neo4j server, typically one database per tenant.
+ * All databases are migrated through a single native driver and connection pool, with at most
+ * <code>parallelism</code> databases migrated at a time.
+ * Each database gets its own connection, and therefore its own session, lock service and history service, exactly
+ * like separate Liquibase runs would.
+ * A failing database does not prevent the others from being migrated, failures are reported together at the end.
+ * Liquibase keeps the lock and history services of every database it served in JVM-wide factories: the runner resets
+ * the in-memory state of the services of each migrated database, but leaves the factories alone since other Liquibase
+ * runs of the same JVM rely on them.
+ */
+public class Neo4jTenantMigrationRunner implements AutoCloseable {
+
+    // the connection pool default (1) is tailored for a single connection
+    private static final String POOL_SIZE_PROPERTY = "max.connection.poolsize";
+
+    private final Neo4jSharedDriver driver;
+
+    private final int parallelism;
+
+    /**
+     * @param url         the JDBC URL of the Neo4j server
+     * @param info        the connection properties (user, password, driver settings)
+     * @param parallelism the maximum number of databases migrated concurrently
+     */
+    public Neo4jTenantMigrationRunner(String url, Properties info, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException(String.format("parallelism must be strictly positive, found %d", parallelism));
+        }
+        Properties properties = new Properties();
+        properties.putAll(info);
+        // each database needs a connection for its migrations and another one for lock lease heartbeats
+        properties.putIfAbsent(POOL_SIZE_PROPERTY, String.valueOf(2 * parallelism));
+        this.driver = new Neo4jSharedDriver(url, properties);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Runs the update command against each of the given databases.
+     * Migrations run in child scopes of the Liquibase scope of the calling thread, so that settings and resource
+     * accessors set up by the caller apply to every database.
+     *
+     * @param changeLogFile the change log to apply
+     * @param databaseNames the Neo4j databases to migrate
+     * @param output        where the command output is written
+     * @throws Neo4jTenantMigrationException if at least one database could not be migrated
+     */
+    public void update(String changeLogFile, Collection<String> databaseNames, OutputStream output) throws Neo4jTenantMigrationException {
+        if (databaseNames.isEmpty()) {
+            return;
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, databaseNames.size()), runnable ->
+                new Thread(runnable, "liquibase-neo4j-tenant-" + threadCount.incrementAndGet()));
+        Map<String, Future<?>> migrations = new LinkedHashMap<>(databaseNames.size());
+        Map<String, Throwable> failures = new LinkedHashMap<>();
+        try {
+            for (String databaseName : databaseNames) {
+                // threads get their own scope manager, starting from the current scope of the thread creating them
+                migrations.put(databaseName, executor.submit(() -> {
+                    Scope.child(Collections.emptyMap(), () -> migrate(changeLogFile, databaseName, output));
+                    return null;
+                }));
+            }
+            awaitAll(migrations, failures);
+        } finally {
+            executor.shutdownNow();
+        }
+        if (!failures.isEmpty()) {
+            throw new Neo4jTenantMigrationException(databaseNames.size(), failures);
+        }
+    }
+
+    @Override
+    public void close() {
+        driver.close();
+    }
+
+    private void migrate(String changeLogFile, String databaseName, OutputStream output) throws Exception {
+        Connection connection = driver.connect(databaseName);
+        Database database;
+        try {
+            database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
+        } catch (DatabaseException e) {
+            connection.close();
+            throw e;
+        }
+        try {
+            new CommandScope(UpdateCommandStep.COMMAND_NAME)
+                    .addArgumentValue(DbUrlConnectionArgumentsCommandStep.DATABASE_ARG, database)
+                    .addArgumentValue(DatabaseChangelogCommandStep.CHANGELOG_FILE_ARG, changeLogFile)
+                    .setOutput(output)
+                    .execute();
+        } finally {
+            try {
+                // services outlive the run, their in-memory state should not
+                Scope.getCurrentScope().getSingleton(ChangeLogHistoryServiceFactory.class).getChangeLogService(database).reset();
+                LockServiceFactory.getInstance().getLockService(database).reset();
+            } finally {
+                database.close();
+            }
+        }
+    }
+
+    private static void awaitAll(Map<String, Future<?>> migrations, Map<String, Throwable> failures) {
+        List<String> interrupted = new ArrayList<>(0);
+        for (Map.Entry<String, Future<?>> migration : migrations.entrySet()) {
+            String databaseName = migration.getKey();
+            if (!interrupted.isEmpty()) {
+                migration.getValue().cancel(true);
+                interrupted.add(databaseName);
+                continue;
+            }
+            try {
+                migration.getValue().get();
+            } catch (ExecutionException e) {
+                failures.put(databaseName, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                migration.getValue().cancel(true);
+                interrupted.add(databaseName);
+            }
+        }
+        for (String databaseName : interrupted) {
+            failures.put(databaseName, new LiquibaseException(String.format("Migration of database %s was interrupted", databaseName)));
+        }
+    }
+}
@@ -24,13 +24,13 @@ class CypherRunner implements AutoCloseable {
         this.driver = driver
     }
 
-    void createIndex(String name, String label, String property) {
+    void createIndex(String name, String label, String... properties) {
         ignoring(exceptionMessageContaining("index already exists"), {
             def neo4jVersion = neo4jVersion()
             def query = neo4jVersion >= V5_0_0 ?
-                    "CREATE INDEX $name IF NOT EXISTS FOR (n:$label) ON (n.$property)" : neo4jVersion >= V4_0_0 ?
-                    "CREATE INDEX $name FOR (n:$label) ON (n.$property)" :
-                    "CREATE INDEX ON :$label($property)"
+                    "CREATE INDEX $name IF NOT EXISTS FOR (n:$label) ON (${properties.collect { "n.`$it`" }.join(", ")})" : neo4jVersion >= V4_0_0 ?
+                    "CREATE INDEX $name FOR (n:$label) ON (${properties.collect { "n.`$it`" }.join(", ")})" :
+                    "CREATE INDEX ON :$label(${properties.collect { "`$it`" }.join(", ")})"
             this.run(query)
         })
     }
@@ -93,13 +93,13 @@ class CypherRunner implements AutoCloseable {
         return Arrays.asList(descriptions)
     }
 
-    void dropIndex(String name, String label, String property) {
+    void dropIndex(String name, String label, String... properties) {
         ignoring(exceptionMessageContaining("no such index"), {
             def neo4jVersion = neo4jVersion()
             def query = neo4jVersion >= V5_0_0 ?
                     "DROP INDEX $name IF EXISTS" : neo4jVersion >= V4_0_0 ?
                     "DROP INDEX $name" :
-                    "DROP INDEX ON :$label(`$property`)"
+                    "DROP INDEX ON :$label(${properties.collect { "`$it`" }.join(", ")})"
             this.run(query)
         })
     }
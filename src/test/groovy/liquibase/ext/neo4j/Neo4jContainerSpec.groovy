@@ -15,6 +15,7 @@ import java.util.logging.LogManager
 import static liquibase.ext.neo4j.DockerNeo4j.dockerTag
 import static liquibase.ext.neo4j.DockerNeo4j.enterpriseEdition
 import static liquibase.ext.neo4j.changelog.Neo4jChangelogHistoryService.CHANGE_SET_CONSTRAINT_NAME
+import static liquibase.ext.neo4j.changelog.Neo4jChangelogHistoryService.CHANGE_SET_KEY_INDEX_NAME
 import static liquibase.ext.neo4j.changelog.Neo4jChangelogHistoryService.CONTEXT_CONSTRAINT_NAME
 import static liquibase.ext.neo4j.changelog.Neo4jChangelogHistoryService.LABEL_CONSTRAINT_NAME
 import static liquibase.ext.neo4j.changelog.Neo4jChangelogHistoryService.TAG_CONSTRAINT_NAME
@@ -69,6 +70,8 @@ abstract class Neo4jContainerSpec extends Specification {
         queryRunner.dropUniqueConstraint(CONTEXT_CONSTRAINT_NAME, "__LiquibaseContext", "context")
         if (enterpriseEdition()) {
             queryRunner.dropNodeKeyConstraint(CHANGE_SET_CONSTRAINT_NAME, "__LiquibaseChangeSet", "id", "author", "changeLog")
+        } else {
+            queryRunner.dropIndex(CHANGE_SET_KEY_INDEX_NAME, "__LiquibaseChangeSet", "id", "author", "changeLog")
         }
         System.out = stdout
         System.err = stderr
@@ -0,0 +1,115 @@
+package liquibase.ext.neo4j.changelog
+
+import liquibase.Scope
+import liquibase.changelog.ChangeSet
+import liquibase.ext.neo4j.database.jdbc.Neo4jStatementListener
+import liquibase.ext.neo4j.database.jdbc.StatementKind
+import org.neo4j.driver.summary.ResultSummary
+import org.neo4j.driver.summary.SummaryCounters
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.Clock
+import java.time.Instant
+import java.time.ZoneOffset
+import java.util.concurrent.TimeUnit
+
+class ChangeSetProfilerTest extends Specification {
+
+    @TempDir
+    Path directory
+
+    def profiler = new ChangeSetProfiler(Clock.fixed(Instant.parse("2026-10-17T09:15:30.123Z"), ZoneOffset.UTC))
+
+    def "writes the profile of each change set as CSV"() {
+        given:
+        def first = changeSet("first")
+        def second = changeSet("second")
+        complete(inChangeSet(first, { profiler.statementStarted(StatementKind.CHANGE, "CREATE (:Movie)") }), 2_000_000L, summary(nodesCreated: 1, propertiesSet: 2, availableAfter: 1L, consumedAfter: 2L), 0L)
+        complete(inChangeSet(first, { profiler.statementStarted(StatementKind.CHANGE, "CREATE (:Movie)") }), 3_000_000L, summary(nodesCreated: 1, availableAfter: 1L, consumedAfter: -1L), 0L)
+        complete(inChangeSet(second, { profiler.statementStarted(StatementKind.CHANGE, "MATCH (n) CALL { WITH n DETACH DELETE n } IN TRANSACTIONS") }), 5_000_000L, summary(nodesDeleted: 2, relationshipsDeleted: 1), 4L)
+        complete(inChangeSet(second, { profiler.statementStarted(StatementKind.CHANGE, "MATCH (n) RETURN n") }), 1_000_000L, null, 0L)
+        def report = directory.resolve("profile.csv")
+
+        when:
+        def written = profiler.writeReport(report, "movies")
+
+        then:
+        written == directory.resolve("profile-movies-20261017T091530123Z.csv")
+        Files.readAllLines(written) == [
+                "changeLog,id,author,statements,failedStatements,serverTimeMs,clientTimeMs,nodesCreated,nodesDeleted,relationshipsCreated,relationshipsDeleted,propertiesSet,innerTransactions",
+                "changeLog.xml,first,some-author,2,0,4,5,2,0,0,0,2,0",
+                "changeLog.xml,second,some-author,2,1,0,6,0,2,0,1,0,4",
+        ]
+    }
+
+    def "writes the profile of each change set as JSON"() {
+        given:
+        def changeSet = changeSet("a \"quoted\" id")
+        complete(inChangeSet(changeSet, { profiler.statementStarted(StatementKind.CHANGE, "MATCH (n) CALL { WITH n SET n:Film } IN TRANSACTIONS") }), 1_000_000L, summary(), -1L)
+        def report = directory.resolve("profile.json")
+
+        when:
+        def written = profiler.writeReport(report, null)
+
+        then:
+        written == directory.resolve("profile-20261017T091530123Z.json")
+        Files.readString(written) == """[
+  {"changeLog": "changeLog.xml", "id": "a \\"quoted\\" id", "author": "some-author", "statements": 1, "failedStatements": 0, "serverTimeMs": 0, "clientTimeMs": 1, "nodesCreated": 0, "nodesDeleted": 0, "relationshipsCreated": 0, "relationshipsDeleted": 0, "propertiesSet": 0, "innerTransactions": null}
+]
+"""
+    }
+
+    def "ignores statements run outside change sets or on behalf of the history and lock"() {
+        expect:
+        profiler.statementStarted(StatementKind.SNAPSHOT, "SHOW INDEXES") == null
+        inChangeSet(changeSet("some-id"), { profiler.statementStarted(StatementKind.HISTORY, "MATCH (changeSet:__LiquibaseChangeSet) RETURN changeSet") }) == null
+        inChangeSet(changeSet("some-id"), { profiler.statementStarted(StatementKind.LOCK, "MATCH (lock:__LiquibaseLock) RETURN lock") }) == null
+        profiler.writeReport(directory.resolve("profile.json"), "movies") == null
+        Files.list(directory).count() == 0
+    }
+
+    def "starts over after each report, without overwriting previous reports"() {
+        given:
+        complete(inChangeSet(changeSet("first"), { profiler.statementStarted(StatementKind.CHANGE, "CREATE (:Movie)") }), 1L, summary(), 0L)
+        def firstReport = profiler.writeReport(directory.resolve("profile.csv"), "movies")
+        complete(inChangeSet(changeSet("second"), { profiler.statementStarted(StatementKind.CHANGE, "CREATE (:Movie)") }), 1L, summary(), 0L)
+
+        when:
+        def secondReport = profiler.writeReport(directory.resolve("profile.csv"), "movies")
+
+        then:
+        firstReport == directory.resolve("profile-movies-20261017T091530123Z.csv")
+        secondReport == directory.resolve("profile-movies-20261017T091530123Z-1.csv")
+        Files.readAllLines(firstReport).drop(1).collect { it.split(",")[1] } == ["first"]
+        Files.readAllLines(secondReport).drop(1).collect { it.split(",")[1] } == ["second"]
+    }
+
+    private static Neo4jStatementListener.Completion inChangeSet(ChangeSet changeSet, Closure<Neo4jStatementListener.Completion> closure) {
+        return Scope.child([(Scope.Attr.changeSet.name()): changeSet], closure as Scope.ScopedRunnerWithReturn<Neo4jStatementListener.Completion>)
+    }
+
+    private static void complete(Neo4jStatementListener.Completion completion, long clientTimeNanos, ResultSummary summary, long innerTransactions) {
+        completion.statementCompleted(clientTimeNanos, summary, innerTransactions)
+    }
+
+    private static ChangeSet changeSet(String id) {
+        return new ChangeSet(id, "some-author", false, false, "changeLog.xml", null, null, null)
+    }
+
+    private ResultSummary summary(Map<String, Object> values = [:]) {
+        def counters = Stub(SummaryCounters) {
+            nodesCreated() >> values.getOrDefault("nodesCreated", 0)
+            nodesDeleted() >> values.getOrDefault("nodesDeleted", 0)
+            relationshipsDeleted() >> values.getOrDefault("relationshipsDeleted", 0)
+            propertiesSet() >> values.getOrDefault("propertiesSet", 0)
+        }
+        return Stub(ResultSummary) {
+            it.counters() >> counters
+            resultAvailableAfter(TimeUnit.MILLISECONDS) >> values.getOrDefault("availableAfter", -1L)
+            resultConsumedAfter(TimeUnit.MILLISECONDS) >> values.getOrDefault("consumedAfter", -1L)
+        }
+    }
+}
@@ -17,7 +17,10 @@ import liquibase.ext.neo4j.Neo4jContainerSpec
 import org.neo4j.driver.exceptions.ClientException
 import spock.lang.Requires
 
+import java.nio.file.Files
+import java.nio.file.Path
 import java.time.ZonedDateTime
+import java.util.concurrent.TimeUnit
 
 import static java.time.temporal.ChronoUnit.MINUTES
 import static java.util.Collections.singletonList
@@ -39,9 +42,14 @@ import static liquibase.ext.neo4j.ReflectionUtils.getField
 import static liquibase.ext.neo4j.ReflectionUtils.setField
 import static liquibase.ext.neo4j.changelog.Neo4jChangelogHistoryService.CHANGE_SET_CHECK_SUM_INDEX_NAME
 import static liquibase.ext.neo4j.changelog.Neo4jChangelogHistoryService.CHANGE_SET_CONSTRAINT_NAME
+import static liquibase.ext.neo4j.changelog.Neo4jChangelogHistoryService.CHANGE_SET_KEY_INDEX_NAME
 import static liquibase.ext.neo4j.changelog.Neo4jChangelogHistoryService.CONTEXT_CONSTRAINT_NAME
 import static liquibase.ext.neo4j.changelog.Neo4jChangelogHistoryService.LABEL_CONSTRAINT_NAME
 import static liquibase.ext.neo4j.changelog.Neo4jChangelogHistoryService.TAG_CONSTRAINT_NAME
+import static liquibase.ext.neo4j.configuration.Neo4jConfiguration.HISTORY_BATCH_SIZE
+import static liquibase.ext.neo4j.configuration.Neo4jConfiguration.HISTORY_CACHE_DIRECTORY
+import static liquibase.ext.neo4j.configuration.Neo4jConfiguration.HISTORY_GROUP_COMMIT
+import static liquibase.ext.neo4j.configuration.Neo4jConfiguration.HISTORY_GROUP_COMMIT_SIZE
 
 class Neo4jChangelogHistoryServiceIT extends Neo4jContainerSpec {
 
@@ -58,6 +66,8 @@ class Neo4jChangelogHistoryServiceIT extends Neo4jContainerSpec {
         queryRunner.dropUniqueConstraint(CONTEXT_CONSTRAINT_NAME, "__LiquibaseContext", "context")
         if (enterpriseEdition()) {
             queryRunner.dropNodeKeyConstraint(CHANGE_SET_CONSTRAINT_NAME, "__LiquibaseChangeSet", "id", "author", "changeLog")
+        } else {
+            queryRunner.dropIndex(CHANGE_SET_KEY_INDEX_NAME, "__LiquibaseChangeSet", "id", "author", "changeLog")
         }
         queryRunner.listExistingConstraints().isEmpty()
         queryRunner.listExistingIndices().isEmpty()
@@ -85,6 +95,54 @@ class Neo4jChangelogHistoryServiceIT extends Neo4jContainerSpec {
         row["dateUpdated"] == null
     }
 
+    def "persists change sets in constant time, whatever the history size"() {
+        given:
+        historyService.init()
+        queryRunner.run("CALL db.awaitIndexes(300)")
+        def elapsedMillis = [:]
+
+        when:
+        [100, 100_000].each { size ->
+            queryRunner.run("""
+                MATCH (changeLog:__LiquibaseChangeLog)
+                SET changeLog.lastOrderExecuted = \$size
+                WITH changeLog
+                UNWIND range(0, \$size - 1) AS index
+                CREATE (:__LiquibaseChangeSet {id: "id-" + index, author: "some-author", changeLog: "some/path"})-[:IN_CHANGELOG {orderExecuted: index}]->(changeLog)
+            """, [size: size])
+            def restartedHistoryService = new Neo4jChangelogHistoryService()
+            restartedHistoryService.setDatabase(database)
+            elapsedMillis[size] = fastestOf(3) { round ->
+                (0..<20).each { i ->
+                    restartedHistoryService.setExecType(changeSet("new-id-${round}-${i}".toString(), "some-author", "some/path"), EXECUTED)
+                    restartedHistoryService.setExecType(changeSet("id-${i * size.intdiv(20)}".toString(), "some-author", "some/path"), RERAN)
+                }
+            }
+            queryRunner.run("MATCH (changeSet:__LiquibaseChangeSet) DETACH DELETE changeSet")
+        }
+
+        then:
+        elapsedMillis[100_000] <= elapsedMillis[100] * 4 + 250
+    }
+
+    def "only creates missing indices and constraints upon subsequent initializations"() {
+        given:
+        historyService.init()
+        def constraintCount = queryRunner.listExistingConstraints().size()
+        def indexCount = queryRunner.listExistingIndices().size()
+        queryRunner.dropUniqueConstraint(TAG_CONSTRAINT_NAME, "__LiquibaseTag", "tag")
+        queryRunner.dropIndex(CHANGE_SET_CHECK_SUM_INDEX_NAME, "__LiquibaseChangeSet", "checkSum")
+
+        when:
+        historyService.init()
+        historyService.init()
+
+        then:
+        queryRunner.listExistingConstraints().size() == constraintCount
+        queryRunner.listExistingIndices().size() == indexCount
+        queryRunner.listExistingConstraints().findIndexOf { it.contains(":__LiquibaseTag") } >= 0
+    }
+
     def "determines empty database is checksum-compatible"() {
         when:
         historyService.init()
@@ -105,6 +163,33 @@ class Neo4jChangelogHistoryServiceIT extends Neo4jContainerSpec {
         !historyService.isDatabaseChecksumsCompatible()
     }
 
+    def "checks checksum compatibility in constant time, whatever the history size"() {
+        given:
+        historyService.init()
+        queryRunner.run("CALL db.awaitIndexes(300)")
+        def latestPrefix = "${ChecksumVersion.latest().version}:".toString()
+        def elapsedMillis = [:]
+
+        when:
+        [100, 100_000].each { size ->
+            queryRunner.run("""
+                MATCH (changeLog:__LiquibaseChangeLog)
+                UNWIND range(0, \$size - 1) AS index
+                CREATE (:__LiquibaseChangeSet {id: "id-" + index, author: "some-author", changeLog: "some/path", checkSum: \$prefix + index})-[:IN_CHANGELOG {orderExecuted: index}]->(changeLog)
+            """, [size: size, prefix: latestPrefix])
+            queryRunner.run("""
+                MATCH (changeLog:__LiquibaseChangeLog)
+                CREATE (:__LiquibaseChangeSet {id: "old-id", author: "some-author", changeLog: "some/path", checkSum: "1:2cdf9876e74347162401315d34b83746"})-[:IN_CHANGELOG {orderExecuted: -1}]->(changeLog)
+            """)
+            elapsedMillis[size] = fastestOf(3) { historyService.init() }
+            assert !historyService.isDatabaseChecksumsCompatible()
+            queryRunner.run("MATCH (changeSet:__LiquibaseChangeSet) DETACH DELETE changeSet")
+        }
+
+        then:
+        elapsedMillis[100_000] <= elapsedMillis[100] * 4 + 250
+    }
+
     def "determines change set with latest checksum database is checksum-compatible"() {
         when:
         def latestCheckSum = CheckSum.parse(String.format("%d:2cdf9876e74347162401315d34b83746", ChecksumVersion.latest().version))
@@ -145,6 +230,26 @@ class Neo4jChangelogHistoryServiceIT extends Neo4jContainerSpec {
         row["context"] == "context-one"
     }
 
+    def "cleans up disconnected labels and contexts in batches upon initialization"() {
+        given:
+        manuallyCreateOrderedChangesets(ranChangeSet("some-change-set", "me", date(2000, 1, 1)))
+        manuallyAssignLabel("label-one", "some-change-set")
+        manuallyAssignContext("context-one", "some-change-set")
+        queryRunner.run("""
+            UNWIND range(1, 25) AS index
+            CREATE (:__LiquibaseLabel {label: "lone-label-" + index}), (:__LiquibaseContext {context: "lone-context-" + index})
+        """)
+
+        when:
+        withHistoryBatchSize(10) {
+            historyService.init()
+        }
+
+        then:
+        queryRunner.getSingleRow("MATCH (label:__LiquibaseLabel) RETURN collect(label.label) AS labels")["labels"] == ["label-one"]
+        queryRunner.getSingleRow("MATCH (context:__LiquibaseContext) RETURN collect(context.context) AS contexts")["contexts"] == ["context-one"]
+    }
+
     def "ensures tag node uniqueness after initialization"() {
         given:
         historyService.init()
@@ -232,6 +337,9 @@ class Neo4jChangelogHistoryServiceIT extends Neo4jContainerSpec {
     def "destroys state, indices, constraints, and data"() {
         given:
         queryRunner.createIndex(CHANGE_SET_CHECK_SUM_INDEX_NAME, "__LiquibaseChangeSet", "checkSum")
+        if (!enterpriseEdition()) {
+            queryRunner.createIndex(CHANGE_SET_KEY_INDEX_NAME, "__LiquibaseChangeSet", "id", "author", "changeLog")
+        }
         queryRunner.createUniqueConstraint(TAG_CONSTRAINT_NAME, "__LiquibaseTag", "tag")
         queryRunner.createUniqueConstraint(CONTEXT_CONSTRAINT_NAME, "__LiquibaseContext", "context")
         queryRunner.createUniqueConstraint(LABEL_CONSTRAINT_NAME, "__LiquibaseLabel", "label")
@@ -258,6 +366,41 @@ class Neo4jChangelogHistoryServiceIT extends Neo4jContainerSpec {
         queryRunner.getSingleRow("MATCH (n) RETURN count(n) AS count")["count"] == 0L
     }
 
+    def "destroys history data in batches"() {
+        given:
+        historyService.init()
+        queryRunner.run("""
+            MATCH (changeLog:__LiquibaseChangeLog)
+            UNWIND range(0, 24) AS index
+            CREATE (changeSet:__LiquibaseChangeSet {id: "id-" + index, author: "some-author", changeLog: "some/path"})-[:IN_CHANGELOG {orderExecuted: index}]->(changeLog)
+            CREATE (changeSet)<-[:LABELS]-(:__LiquibaseLabel {label: "label-" + index})
+            CREATE (changeSet)<-[:CONTEXTUALIZES]-(:__LiquibaseContext {context: "context-" + index})
+            CREATE (changeSet)<-[:TAGS]-(:__LiquibaseTag {tag: "tag-" + index})
+        """)
+
+        when:
+        withHistoryBatchSize(10) {
+            historyService.destroy()
+        }
+
+        then:
+        queryRunner.getSingleRow("MATCH (n) RETURN count(n) AS count")["count"] == 0L
+    }
+
+    def "rejects non-positive history batch sizes"() {
+        given:
+        historyService.init()
+
+        when:
+        withHistoryBatchSize(0) {
+            historyService.destroy()
+        }
+
+        then:
+        def e = thrown(DatabaseException)
+        e.cause.message.contains("liquibase.neo4j.historyBatchSize must be strictly positive")
+    }
+
     def "does not fail upon destroy call before database and service are initialized"() {
         when:
         historyService.destroy()
@@ -750,6 +893,29 @@ class Neo4jChangelogHistoryServiceIT extends Neo4jContainerSpec {
         stateIsReset()
     }
 
+    def "replaces check sums of matching change sets at once"() {
+        given:
+        def ranChangeSet = ranChangeSet("change-set-1", "some author", computeCheckSum("CREATE (n:SomeNode)"), date(2019, 12, 25), "some/changeSet/path")
+        someInitialState(ranChangeSet)
+        manuallyCreateOrderedChangesets(ranChangeSet,
+                ranChangeSet("change-set-2", "some author", computeCheckSum("CREATE (n:SomeOtherNode)"), date(2019, 12, 25), "some/changeSet/path"),
+                ranChangeSet("change-set-3", "some author", computeCheckSum("CREATE (n:YetAnotherNode)"), date(2019, 12, 25), "some/changeSet/path"))
+        def updatedChangeSets = [
+                changeSet("change-set-1", "some author", "some/changeSet/path", change("MATCH (n) DETACH DELETE n")),
+                changeSet("change-set-3", "some author", "some/changeSet/path", change("MATCH (n) SET n:SomeLabel"))
+        ]
+
+        when:
+        historyService.replaceChecksums(updatedChangeSets)
+
+        then:
+        stateIsReset()
+        def checkSums = listCheckSums()
+        CheckSum.parse(checkSums[0]) == updatedChangeSets[0].generateCheckSum()
+        CheckSum.parse(checkSums[1]) == computeCheckSum("CREATE (n:SomeOtherNode)")
+        CheckSum.parse(checkSums[2]) == updatedChangeSets[1].generateCheckSum()
+    }
+
     def "computes run statuses of change sets"() {
         given:
         def storedChangeSet = ranChangeSet("some ID", "some author", computeCheckSum("MATCH (n) RETURN n"), date(1986, 3, 4), "some/changeLog/path")
@@ -788,6 +954,44 @@ class Neo4jChangelogHistoryServiceIT extends Neo4jContainerSpec {
         value == changeSets.size()
     }
 
+    def "computes next sequence value from the change log node, without scanning the history"() {
+        given:
+        manuallyCreateOrderedChangesets(ranChangeSet("some ID", "some author", computeCheckSum("MATCH (n) RETURN n"), date(1986, 3, 4)))
+        queryRunner.run("MATCH (changeLog:__LiquibaseChangeLog) SET changeLog.lastOrderExecuted = 41")
+
+        when:
+        def value = historyService.getNextSequenceValue()
+
+        then:
+        value == 42
+    }
+
+    def "tracks last execution order on the change log node when persisting change sets"() {
+        given:
+        queryRunner.run("CREATE (:__LiquibaseChangeLog)")
+
+        when:
+        historyService.setExecType(changeSet("some-id-1", "some-author", "some/path"), EXECUTED)
+        historyService.setExecType(changeSet("some-id-2", "some-author", "some/path"), EXECUTED)
+        historyService.setExecType(changeSet("some-id-1", "some-author", "some/path"), RERAN)
+
+        then:
+        queryRunner.getSingleRow("MATCH (changeLog:__LiquibaseChangeLog) RETURN changeLog.lastOrderExecuted AS value")["value"] == 3L
+    }
+
+    def "migrates last execution order of history graphs written by older versions upon initialization"() {
+        given:
+        manuallyCreateOrderedChangesets(ranChangeSet("some ID", "some author", computeCheckSum("MATCH (n) RETURN n"), date(1986, 3, 4)),
+                ranChangeSet("other ID", "some author", computeCheckSum("MATCH (n) RETURN n"), date(1986, 3, 4)))
+
+        when:
+        historyService.init()
+
+        then:
+        queryRunner.getSingleRow("MATCH (changeLog:__LiquibaseChangeLog) RETURN changeLog.lastOrderExecuted AS value")["value"] == 1L
+        historyService.getNextSequenceValue() == 2
+    }
+
     def "computes next sequence value from field, if set"() {
         given:
         setField("lastChangeSetSequenceValue", historyService, 41)
@@ -876,6 +1080,48 @@ class Neo4jChangelogHistoryServiceIT extends Neo4jContainerSpec {
         changeSets == [ranChangeSets[1]]
     }
 
+    def "updates in-memory change sets when change sets are executed or re-ran"() {
+        given:
+        manuallyCreateOrderedChangesets(ranChangeSet("some-id-1", "some-author", CheckSum.compute("MATCH (n) SET n.foo = true"), date(2020, 1, 4), "some/path"),
+                ranChangeSet("some-id-2", "some-author", CheckSum.compute("MATCH (n) SET n.foo = false"), date(2020, 1, 5), "some/path"))
+        def loadedChangeSets = historyService.getRanChangeSets()
+        def reRanChangeSet = changeSet("some-id-1", "some-author", "some/path", true, null, new RawSQLChange("MATCH (n) DETACH DELETE n"))
+
+        when:
+        historyService.setExecType(changeSet("some-id-3", "some-author", "some/path", false, "context1"), EXECUTED)
+        historyService.setExecType(reRanChangeSet, RERAN)
+
+        then:
+        def ranChangeSets = historyService.getRanChangeSets()
+        ranChangeSets.is(loadedChangeSets)
+        ranChangeSets.collect { it.id } == ["some-id-2", "some-id-3", "some-id-1"]
+        ranChangeSets.collect { it.execType } == [EXECUTED, EXECUTED, RERAN]
+        ranChangeSets[1].contextExpression.contexts == ["context1"] as Set
+        ranChangeSets[2].lastCheckSum == reRanChangeSet.generateCheckSum()
+        historyService.getRanChangeSet(changeSet("SOME-ID-3", "some-author", "./some/path")).is(ranChangeSets[1])
+
+        when:
+        def reloadingHistoryService = new Neo4jChangelogHistoryService()
+        reloadingHistoryService.setDatabase(database)
+
+        then:
+        reloadingHistoryService.getRanChangeSets().collect { [it.id, it.execType, it.orderExecuted] } ==
+                ranChangeSets.collect { [it.id, it.execType, it.orderExecuted] }
+    }
+
+    def "moves in-memory tag when a change set declaring it is executed"() {
+        given:
+        manuallyCreateOrderedChangesets(ranChangeSet("some-id-1", "some-author", CheckSum.compute("MATCH (n) SET n.foo = true"), date(2020, 1, 4), "some/path"))
+        manuallyAssignTag("some-tag", "some-id-1")
+        def loadedChangeSets = historyService.getRanChangeSets()
+
+        when:
+        historyService.setExecType(changeSet("some-id-2", "some-author", "some/path", false, null, tagChange("some-tag")), EXECUTED)
+
+        then:
+        loadedChangeSets.collect { [it.id, it.tag] } == [["some-id-1", null], ["some-id-2", "some-tag"]]
+    }
+
     def "does not save change set when execution failed or skipped"() {
         when:
         historyService.setExecType(changeSet("some-id", "some-author", "some/path"), FAILED)
@@ -1143,6 +1389,149 @@ class Neo4jChangelogHistoryServiceIT extends Neo4jContainerSpec {
         date(tag["dateUpdated"] as ZonedDateTime) > nowMinus(1, MINUTES)
     }
 
+    def "queues change sets in group-commit mode until the configured number of change sets is reached"() {
+        given:
+        queryRunner.run("CREATE (:__LiquibaseChangeLog)")
+        def counts = []
+
+        when:
+        withGroupCommit(2) {
+            historyService.setExecType(changeSet("some-id-1", "some-author", "some/path"), EXECUTED)
+            counts << countChangeSets()
+            historyService.setExecType(changeSet("some-id-2", "some-author", "some/path"), EXECUTED)
+            counts << countChangeSets()
+            historyService.setExecType(changeSet("some-id-3", "some-author", "some/path"), EXECUTED)
+            counts << countChangeSets()
+            historyService.flush()
+            counts << countChangeSets()
+        }
+
+        then:
+        counts == [0L, 2L, 2L, 3L]
+        queryRunner.getRows("""
+            MATCH (changeSet:__LiquibaseChangeSet)-[execution:IN_CHANGELOG]->(:__LiquibaseChangeLog)
+            RETURN changeSet.id AS id, execution.orderExecuted AS orderExecuted
+            ORDER BY execution.dateExecuted ASC, execution.orderExecuted ASC
+        """) == [[id: "some-id-1", orderExecuted: 1L], [id: "some-id-2", orderExecuted: 2L], [id: "some-id-3", orderExecuted: 3L]]
+    }
+
+    def "persists queued change sets with their contexts, labels and tag in group-commit mode"() {
+        given:
+        queryRunner.run("CREATE (:__LiquibaseChangeLog)")
+        def taggedChangeSet = changeSet("some-id-2", "some-author", "some/path", false, null, tagChange("some-tag"))
+        taggedChangeSet.setLabels(new Labels("label1", "label2"))
+
+        when:
+        withGroupCommit(0) {
+            historyService.setExecType(changeSet("some-id-1", "some-author", "some/path", false, "context1,context2"), EXECUTED)
+            historyService.setExecType(taggedChangeSet, MARK_RAN)
+            historyService.flush()
+        }
+
+        then:
+        def ranChangeSets = historyService.getRanChangeSets()
+        ranChangeSets.collect { it.id } == ["some-id-1", "some-id-2"]
+        ranChangeSets.collect { it.execType } == [EXECUTED, MARK_RAN]
+        ranChangeSets[0].contextExpression.contexts == ["context1", "context2"] as Set
+        ranChangeSets[1].labels.labels == ["label1", "label2"] as Set
+        ranChangeSets[1].tag == "some-tag"
+    }
+
+    def "flushes queued change sets before and after a non-transactional change set in group-commit mode"() {
+        given:
+        queryRunner.run("CREATE (:__LiquibaseChangeLog)")
+        def nonTransactionalChangeSet = new ChangeSet("some-id-2", "some-author", false, false, "some/path", null, null, false, new DatabaseChangeLog("some/path"))
+        def counts = []
+
+        when:
+        withGroupCommit(0) {
+            historyService.setExecType(changeSet("some-id-1", "some-author", "some/path"), EXECUTED)
+            counts << countChangeSets()
+            historyService.getRunStatus(nonTransactionalChangeSet)
+            counts << countChangeSets()
+            historyService.setExecType(nonTransactionalChangeSet, EXECUTED)
+            counts << countChangeSets()
+        }
+
+        then:
+        counts == [0L, 1L, 2L]
+    }
+
+    def "leaves a consistent history when a group-commit run is killed before its last flush"() {
+        given:
+        queryRunner.run("CREATE (:__LiquibaseChangeLog)")
+        withGroupCommit(2) {
+            historyService.setExecType(changeSet("some-id-1", "some-author", "some/path", false, "context1"), EXECUTED)
+            historyService.setExecType(changeSet("some-id-2", "some-author", "some/path", false, "context2"), EXECUTED)
+            historyService.setExecType(changeSet("some-id-3", "some-author", "some/path", false, "context3"), EXECUTED)
+        }
+
+        when: "the queued change set is never flushed, as if the process was killed"
+        def restartedHistoryService = new Neo4jChangelogHistoryService()
+        restartedHistoryService.setDatabase(database)
+
+        then:
+        def ranChangeSets = restartedHistoryService.getRanChangeSets()
+        ranChangeSets.collect { it.id } == ["some-id-1", "some-id-2"]
+        ranChangeSets.collect { it.orderExecuted } == [1, 2]
+        ranChangeSets.collect { it.contextExpression.contexts } == [["context1"] as Set, ["context2"] as Set]
+        queryRunner.getSingleRow("MATCH (context:__LiquibaseContext {context: 'context3'}) RETURN count(context) AS count")["count"] == 0L
+        restartedHistoryService.getRunStatus(changeSet("some-id-3", "some-author", "some/path", false, "context3")) == NOT_RAN
+        restartedHistoryService.getNextSequenceValue() == 3
+    }
+
+    def "reuses the local history cache until the history graph changes"() {
+        given:
+        queryRunner.run("CREATE (:__LiquibaseChangeLog {dateCreated: datetime()})")
+        def cacheDirectory = Files.createTempDirectory("liquibase-neo4j-history")
+        withHistoryCache(cacheDirectory) {
+            historyService.setExecType(changeSet("some-id-1", "some-author", "some/path"), EXECUTED)
+            historyService.getRanChangeSets()
+        }
+
+        when: "the cached history is tampered with on the server without bumping its revision"
+        queryRunner.run("MATCH (changeSet:__LiquibaseChangeSet) SET changeSet.comments = 'changed behind our back'")
+        def cachedChangeSets = withHistoryCache(cacheDirectory) {
+            def restartedHistoryService = new Neo4jChangelogHistoryService()
+            restartedHistoryService.setDatabase(database)
+            restartedHistoryService.getRanChangeSets()
+        }
+
+        then:
+        cachedChangeSets.collect { it.id } == ["some-id-1"]
+        cachedChangeSets[0].comments != "changed behind our back"
+
+        when: "the history graph is changed by the history service"
+        def updatedChangeSets = withHistoryCache(cacheDirectory) {
+            def restartedHistoryService = new Neo4jChangelogHistoryService()
+            restartedHistoryService.setDatabase(database)
+            restartedHistoryService.setExecType(changeSet("some-id-2", "some-author", "some/path"), EXECUTED)
+            def otherHistoryService = new Neo4jChangelogHistoryService()
+            otherHistoryService.setDatabase(database)
+            otherHistoryService.getRanChangeSets()
+        }
+
+        then:
+        updatedChangeSets.collect { it.id } == ["some-id-1", "some-id-2"]
+        updatedChangeSets[0].comments == "changed behind our back"
+
+        when: "the history graph is changed by a writer that does not bump the revision, like earlier extension versions"
+        queryRunner.run("MATCH (changeLog:__LiquibaseChangeLog)<-[:IN_CHANGELOG]-(changeSet:__LiquibaseChangeSet {id: 'some-id-2'}) " +
+                "SET changeLog.dateUpdated = datetime(), changeSet.comments = 'changed by an earlier version'")
+        def externallyUpdatedChangeSets = withHistoryCache(cacheDirectory) {
+            def restartedHistoryService = new Neo4jChangelogHistoryService()
+            restartedHistoryService.setDatabase(database)
+            restartedHistoryService.getRanChangeSets()
+        }
+
+        then:
+        externallyUpdatedChangeSets.collect { it.id } == ["some-id-1", "some-id-2"]
+        externallyUpdatedChangeSets[1].comments == "changed by an earlier version"
+
+        cleanup:
+        cacheDirectory.toFile().deleteDir()
+    }
+
     private void someInitialState(RanChangeSet persistedChangeSet = ranChangeSet("some ID", "some author", computeCheckSum("MATCH (n) RETURN n"), date(1986, 3, 4))) {
         setField("ranChangeSets", historyService, singletonList(persistedChangeSet))
         historyService.generateDeploymentId()
@@ -1297,6 +1686,31 @@ class Neo4jChangelogHistoryServiceIT extends Neo4jContainerSpec {
         checkSums
     }
 
+    // the fastest of several rounds is the least affected by unrelated pauses, such as garbage collections
+    private static long fastestOf(int rounds, Closure<?> round) {
+        return (0..<rounds).collect { index ->
+            long start = System.nanoTime()
+            round(index)
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+        }.min()
+    }
+
+    private static void withGroupCommit(int groupCommitSize, Closure<?> closure) {
+        Scope.child([(HISTORY_GROUP_COMMIT.key): true, (HISTORY_GROUP_COMMIT_SIZE.key): groupCommitSize], closure as Scope.ScopedRunner)
+    }
+
+    private static void withHistoryBatchSize(int batchSize, Closure<?> closure) {
+        Scope.child([(HISTORY_BATCH_SIZE.key): batchSize], closure as Scope.ScopedRunner)
+    }
+
+    private static <T> T withHistoryCache(Path directory, Closure<T> closure) {
+        return Scope.child([(HISTORY_CACHE_DIRECTORY.key): directory.toString()], closure as Scope.ScopedRunnerWithReturn<T>)
+    }
+
+    private long countChangeSets() {
+        return (long) queryRunner.getSingleRow("MATCH (changeSet:__LiquibaseChangeSet) RETURN count(changeSet) AS count")["count"]
+    }
+
     private static TagDatabaseChange tagChange(String tag) {
         def result = new TagDatabaseChange()
         result.setTag(tag)
@@ -0,0 +1,109 @@
+package liquibase.ext.neo4j.changelog
+
+import liquibase.Scope
+import liquibase.change.CheckSum
+import liquibase.changelog.ChangeSet
+import liquibase.changelog.RanChangeSet
+import liquibase.executor.Executor
+import liquibase.executor.ExecutorService
+import liquibase.ext.neo4j.database.KernelVersion
+import liquibase.ext.neo4j.database.Neo4jDatabase
+import liquibase.statement.core.RawParameterizedSqlStatement
+import spock.lang.Specification
+
+import static liquibase.changelog.ChangeSet.ExecType.EXECUTED
+
+class Neo4jChangelogHistoryServiceTest extends Specification {
+
+    def database = Mock(Neo4jDatabase)
+
+    def executor = Mock(Executor)
+
+    def historyService = new Neo4jChangelogHistoryService()
+
+    def setup() {
+        historyService.setDatabase(database)
+        Scope.currentScope.getSingleton(ExecutorService.class).setExecutor("jdbc", database, executor)
+    }
+
+    def cleanup() {
+        Scope.currentScope.getSingleton(ExecutorService.class).reset()
+    }
+
+    def "removes the history in client-side batches on servers older than 4.4"() {
+        given:
+        def queries = []
+
+        when:
+        historyService.destroy()
+
+        then:
+        database.getKernelVersion() >> new KernelVersion(4, 3, 0)
+        executor.updatesDatabase() >> true
+        executor.queryForLong(_ as RawParameterizedSqlStatement) >> { RawParameterizedSqlStatement statement ->
+            queries << statement.sql
+            assert statement.parameters == [10000]
+            return queries.size() == 1 ? 10000L : 0L
+        }
+        queries == [
+                "MATCH (changeSet:__LiquibaseChangeSet) WITH changeSet LIMIT \$1 DETACH DELETE changeSet RETURN count(changeSet) AS count",
+                "MATCH (changeSet:__LiquibaseChangeSet) WITH changeSet LIMIT \$1 DETACH DELETE changeSet RETURN count(changeSet) AS count",
+                "MATCH (label:__LiquibaseLabel) WITH label LIMIT \$1 DETACH DELETE label RETURN count(label) AS count",
+                "MATCH (context:__LiquibaseContext) WITH context LIMIT \$1 DETACH DELETE context RETURN count(context) AS count",
+                "MATCH (tag:__LiquibaseTag) WITH tag LIMIT \$1 DETACH DELETE tag RETURN count(tag) AS count",
+                "MATCH (changeLog:__LiquibaseChangeLog) WITH changeLog LIMIT \$1 DETACH DELETE changeLog RETURN count(changeLog) AS count",
+        ]
+        (6.._) * database.commit()
+    }
+
+    def "keeps every history row, including change sets that only differ by case or change log path"() {
+        given:
+        def history = [
+                ranChangeSet("some-id", "some-author", "changeLog.xml"),
+                ranChangeSet("SOME-ID", "some-author", "changeLog.xml"),
+                ranChangeSet("some-id", "Some-Author", "changeLog.xml"),
+                ranChangeSet("some-id", "some-author", "classpath:changeLog.xml"),
+        ]
+        database.query(_ as String, _) >> history
+
+        when:
+        def ranChangeSets = historyService.getRanChangeSets()
+
+        then:
+        ranChangeSets.size() == 4
+        (0..3).every { ranChangeSets[it].is(history[it]) }
+        historyService.getRanChangeSet(changeSet("some-id", "some-author", "changeLog.xml")).is(history[0])
+        historyService.getRanChangeSet(changeSet("SOME-ID", "some-author", "changeLog.xml")).is(history[1])
+        historyService.getRanChangeSet(changeSet("some-id", "Some-Author", "changeLog.xml")).is(history[2])
+        historyService.getRanChangeSet(changeSet("some-id", "some-author", "classpath:changeLog.xml")).is(history[3])
+        // other variants match like RanChangeSet#isSameAs does
+        historyService.getRanChangeSet(changeSet("Some-Id", "SOME-AUTHOR", "./changeLog.xml")).is(history[0])
+        historyService.getRanChangeSet(changeSet("other-id", "some-author", "changeLog.xml")) == null
+    }
+
+    def "returns the in-memory history as a mutable list"() {
+        given:
+        def history = [
+                ranChangeSet("first", "some-author", "changeLog.xml"),
+                ranChangeSet("second", "some-author", "changeLog.xml"),
+        ]
+        database.query(_ as String, _) >> history
+
+        when:
+        def ranChangeSets = historyService.getRanChangeSets()
+        ranChangeSets.sort { -history.indexOf(it) }
+
+        then:
+        ranChangeSets instanceof ArrayList
+        ranChangeSets.collect { it.id } == ["second", "first"]
+        historyService.getRanChangeSets().is(ranChangeSets)
+    }
+
+    private static RanChangeSet ranChangeSet(String id, String author, String changeLog) {
+        return new RanChangeSet(changeLog, id, author, CheckSum.compute("MATCH (n) RETURN n"), new Date(), null, EXECUTED, null, null, null, null, null)
+    }
+
+    private static ChangeSet changeSet(String id, String author, String changeLog) {
+        return new ChangeSet(id, author, false, false, changeLog, null, null, null)
+    }
+}
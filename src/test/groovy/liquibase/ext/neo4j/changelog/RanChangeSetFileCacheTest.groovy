@@ -0,0 +1,113 @@
+package liquibase.ext.neo4j.changelog
+
+import liquibase.ContextExpression
+import liquibase.Labels
+import liquibase.change.CheckSum
+import liquibase.changelog.RanChangeSet
+import liquibase.ext.neo4j.changelog.RanChangeSetFileCache.HistoryVersion
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+import static liquibase.changelog.ChangeSet.ExecType.EXECUTED
+import static liquibase.changelog.ChangeSet.ExecType.MARK_RAN
+
+class RanChangeSetFileCacheTest extends Specification {
+
+    @TempDir
+    Path directory
+
+    def "reads back written change sets"() {
+        given:
+        def cache = RanChangeSetFileCache.forTarget(directory, "jdbc:neo4j:neo4j://localhost", "neo4j", "neo4j")
+        def version = new HistoryVersion(42L, 7L, 3L, 2L)
+        def changeSet = ranChangeSet("id-1", "a comment with non-ASCII characters: àéï", ["ctx1", "ctx2"], ["label1"], "some-tag", 1)
+
+        when:
+        cache.write(version, [changeSet, ranChangeSet("id-2", null, null, null, null, null)])
+        def result = cache.read(version)
+
+        then:
+        result.size() == 2
+        with(result[0]) {
+            changeLog == "some/path"
+            id == "id-1"
+            author == "some-author"
+            lastCheckSum == CheckSum.compute("MATCH (n) RETURN n")
+            dateExecuted == new Date(123456789L)
+            tag == "some-tag"
+            execType == EXECUTED
+            comments == "a comment with non-ASCII characters: àéï"
+            contextExpression.contexts == ["ctx1", "ctx2"] as Set
+            labels.labels == ["label1"] as Set
+            orderExecuted == 1
+            liquibaseVersion == "5.0.3"
+        }
+        with(result[1]) {
+            id == "id-2"
+            comments == null
+            tag == null
+            orderExecuted == null
+        }
+    }
+
+    def "ignores stale cache"() {
+        given:
+        def cache = new RanChangeSetFileCache(directory.resolve("history.bin"))
+        cache.write(new HistoryVersion(42L, 7L, 3L, 1L), [ranChangeSet("id-1", null, null, null, null, 1)])
+
+        expect:
+        cache.read(new HistoryVersion(42L, 7L, 4L, 1L)) == null
+        cache.read(new HistoryVersion(42L, 8L, 3L, 1L)) == null
+        cache.read(new HistoryVersion(43L, 7L, 3L, 1L)) == null
+        cache.read(new HistoryVersion(42L, 7L, 3L, 2L)) == null
+    }
+
+    def "ignores missing or corrupted cache"() {
+        given:
+        def file = directory.resolve("history.bin")
+        def cache = new RanChangeSetFileCache(file)
+        def version = new HistoryVersion(42L, 7L, 3L, 1L)
+
+        expect:
+        cache.read(version) == null
+
+        when:
+        cache.write(version, [ranChangeSet("id-1", null, null, null, null, 1)])
+        def bytes = Files.readAllBytes(file)
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 5))
+
+        then:
+        cache.read(version) == null
+    }
+
+    def "derives distinct cache files from connection coordinates"() {
+        expect:
+        RanChangeSetFileCache.forTarget(directory, "jdbc:neo4j:neo4j://localhost", "neo4j", "neo4j").file !=
+                RanChangeSetFileCache.forTarget(directory, "jdbc:neo4j:neo4j://localhost", "movies", "neo4j").file
+        RanChangeSetFileCache.forTarget(directory, "jdbc:neo4j:neo4j://localhost", "neo4j", "neo4j").file ==
+                RanChangeSetFileCache.forTarget(directory, "jdbc:neo4j:neo4j://localhost", "neo4j", "neo4j").file
+    }
+
+    private static RanChangeSet ranChangeSet(String id, String comments, List<String> contexts, List<String> labels, String tag, Integer orderExecuted) {
+        def result = new RanChangeSet(
+                "some/path",
+                id,
+                "some-author",
+                CheckSum.compute("MATCH (n) RETURN n"),
+                new Date(123456789L),
+                tag,
+                orderExecuted == null ? MARK_RAN : EXECUTED,
+                "some description",
+                comments,
+                contexts == null ? null : new ContextExpression(contexts),
+                labels == null ? null : new Labels(labels),
+                "some-deployment-id"
+        )
+        result.setOrderExecuted(orderExecuted)
+        result.setLiquibaseVersion("5.0.3")
+        return result
+    }
+}
@@ -3,6 +3,7 @@ package liquibase.ext.neo4j.database
 import liquibase.database.DatabaseConnection
 import liquibase.database.DatabaseFactory
 import liquibase.exception.DatabaseException
+import liquibase.executor.jvm.RowMapper
 import liquibase.ext.neo4j.Neo4jContainerSpec
 import liquibase.ext.neo4j.database.jdbc.Neo4jTransactionState
 import liquibase.statement.core.RawParameterizedSqlStatement
@@ -208,6 +209,64 @@ class Neo4jDatabaseIT extends Neo4jContainerSpec {
         queryRunner?.dropDatabase("audittx")
     }
 
+    def "maps streamed query rows"() {
+        given:
+        def database = new Neo4jDatabase()
+        database.setConnection(connection)
+
+        when:
+        List<String> rows = database.query(
+                "UNWIND range(1, 2500) AS i RETURN i AS value, 'row-' + toString(i) AS name ORDER BY i ASC",
+                { resultSet, rowNumber -> "${rowNumber}:${resultSet.getLong("value")}:${resultSet.getString("name")}".toString() } as RowMapper)
+
+        then:
+        rows.size() == 2500
+        rows.first() == "0:1:row-1"
+        rows.last() == "2499:2500:row-2500"
+    }
+
+    def "fails to stream invalid query"() {
+        given:
+        def database = new Neo4jDatabase()
+        database.setConnection(connection)
+
+        when:
+        database.query("THIS IS NOT CYPHER", { resultSet, rowNumber -> null } as RowMapper)
+
+        then:
+        def failure = thrown(DatabaseException)
+        failure.message == "Could not run query THIS IS NOT CYPHER"
+    }
+
+    @Requires({ neo4jVersion() >= KernelVersion.V4_3_0 })
+    def "lists index names, including the ones backing constraints"() {
+        given:
+        def database = new Neo4jDatabase()
+        database.setConnection(connection)
+        queryRunner.createIndex("some_index", "SomeLabel", "someProperty")
+        queryRunner.createUniqueConstraint("some_constraint", "SomeOtherLabel", "someProperty")
+
+        when:
+        def names = database.listIndexNames()
+
+        then:
+        names.containsAll(["some_index", "some_constraint"])
+
+        cleanup:
+        queryRunner.dropIndex("some_index", "SomeLabel", "someProperty")
+        queryRunner.dropUniqueConstraint("some_constraint", "SomeOtherLabel", "someProperty")
+    }
+
+    @Requires({ neo4jVersion() < KernelVersion.V4_3_0 })
+    def "does not list index names of older servers"() {
+        given:
+        def database = new Neo4jDatabase()
+        database.setConnection(connection)
+
+        expect:
+        database.listIndexNames() == null
+    }
+
     private DatabaseConnection openConnection() {
         return DatabaseFactory.instance.openConnection(
                 "jdbc:neo4j:" + neo4jContainer.getBoltUrl(),
@@ -207,6 +207,45 @@ class DriverConfigSupplierTest extends Specification {
         config.userAgent().startsWith("liquibase-neo4j/")
     }
 
+    def "keeps the driver default connection pool size when driver sharing is enabled"() {
+        expect:
+        def actualConfig = new DriverConfigSupplier(new QueryString(queryString), propertiesOf(properties)).get()
+        actualConfig.maxConnectionPoolSize() == expectedPoolSize
+
+        where:
+        queryString                  | properties                                                  | expectedPoolSize
+        [:]                          | [:]                                                         | 1
+        ["driver.sharing": ["true"]] | [:]                                                         | Config.defaultConfig().maxConnectionPoolSize()
+        [:]                          | ["driver.sharing": "true"]                                  | Config.defaultConfig().maxConnectionPoolSize()
+        [:]                          | ["driver.sharing": "true", "max.connection.poolsize": "42"] | 42
+    }
+
+    def "reads driver sharing settings"() {
+        expect:
+        def supplier = new DriverConfigSupplier(new QueryString(queryString), propertiesOf(properties))
+        supplier.isDriverSharingEnabled() == sharing
+        supplier.getDriverSharingIdleTimeout() == idleTimeout
+
+        where:
+        queryString                                | properties                                  | sharing | idleTimeout
+        [:]                                        | [:]                                         | false   | 60_000L
+        ["driver.sharing": ["true"]]               | [:]                                         | true    | 60_000L
+        [:]                                        | ["driver.sharing": "true"]                  | true    | 60_000L
+        ["driver.sharing.idle.timeout": ["1000"]]  | ["driver.sharing.idle.timeout": "2000"]     | false   | 1000L
+    }
+
+    def "reads the pipelining setting"() {
+        expect:
+        new DriverConfigSupplier(new QueryString(queryString), propertiesOf(properties)).isPipeliningEnabled() == pipelining
+
+        where:
+        queryString               | properties             | pipelining
+        [:]                       | [:]                    | false
+        ["pipelining": ["true"]]  | [:]                    | true
+        [:]                       | ["pipelining": "true"] | true
+        ["pipelining": ["false"]] | ["pipelining": "true"] | false
+    }
+
     Properties propertiesOf(Map<String, String> dictionary) {
         def props = new Properties()
         props.putAll(dictionary)
@@ -0,0 +1,244 @@
+package liquibase.ext.neo4j.database.jdbc
+
+import org.neo4j.driver.Driver
+import spock.lang.Specification
+
+class DriverRegistryTest extends Specification {
+
+    long now = 0L
+
+    List<List<Object>> scheduledEvictions = []
+
+    List<Runnable> shutdownHooks = []
+
+    DriverRegistry registry = new DriverRegistry({ -> now }, { eviction, delay -> scheduledEvictions << [eviction, delay] }, { hook -> shutdownHooks << hook })
+
+    def "shares drivers between connections with the same URL and properties"() {
+        given:
+        def driver = Mock(Driver)
+        def key1 = driverKey("jdbc:neo4j:neo4j://example.com", properties([user: "neo4j", password: "s3cr3t"]))
+        def key2 = driverKey("jdbc:neo4j:neo4j://example.com", properties([USER: "neo4j", password: "s3cr3t"]))
+        def factoryCalls = 0
+
+        when:
+        def driver1 = registry.acquire(key1, { -> factoryCalls++; driver })
+        def driver2 = registry.acquire(key2, { -> factoryCalls++; Mock(Driver) })
+
+        then:
+        driver1.is(driver)
+        driver2.is(driver)
+        factoryCalls == 1
+        registry.size() == 1
+    }
+
+    def "does not share drivers when URL or properties differ"() {
+        given:
+        def key = driverKey("jdbc:neo4j:neo4j://example.com", properties([user: "neo4j", password: "s3cr3t"]))
+
+        when:
+        def driver1 = registry.acquire(key, { -> Mock(Driver) })
+        def driver2 = registry.acquire(otherKey, { -> Mock(Driver) })
+
+        then:
+        !driver1.is(driver2)
+        registry.size() == 2
+
+        where:
+        otherKey << [
+                driverKey("jdbc:neo4j:neo4j://example.org", properties([user: "neo4j", password: "s3cr3t"])),
+                driverKey("jdbc:neo4j:neo4j://example.com?encryption=true", properties([user: "neo4j", password: "s3cr3t"])),
+                driverKey("jdbc:neo4j:neo4j://example.com", properties([user: "neo4j", password: "sup3rs3cr3t"])),
+        ]
+    }
+
+    def "does not keep credentials in driver keys"() {
+        when:
+        def key = driverKey("jdbc:neo4j:neo4j://example.com?encryption=false", properties([user: "neo4j", password: "s3cr3t"]))
+
+        then:
+        key.settings == [encryption: "false"]
+        !key.credentialsDigest.contains("s3cr3t")
+        key == driverKey("jdbc:neo4j:neo4j://example.com?encryption=false", properties([user: "neo4j", password: "s3cr3t"]))
+        key != driverKey("jdbc:neo4j:neo4j://example.com?encryption=false", properties([user: "neo4js3", password: "cr3t"]))
+        key != driverKey("jdbc:neo4j:neo4j://example.com?encryption=false", properties([user: "neo4j"]))
+    }
+
+    def "keeps unreferenced drivers open until their idle timeout"() {
+        given:
+        def driver = Mock(Driver)
+        def key = driverKey("jdbc:neo4j:neo4j://example.com", properties([:]))
+        registry.acquire(key, { -> driver })
+        registry.acquire(key, { -> driver })
+
+        when:
+        registry.release(key, 100L)
+        registry.release(key, 100L)
+        now = 99L
+        registry.acquire(driverKey("jdbc:neo4j:neo4j://example.org", properties([:])), { -> Mock(Driver) })
+
+        then:
+        0 * driver.close()
+        registry.size() == 2
+
+        when:
+        def reused = registry.acquire(key, { -> Mock(Driver) })
+        registry.release(key, 100L)
+
+        then:
+        reused.is(driver)
+        0 * driver.close()
+
+        when:
+        now = 199L
+
+        and:
+        registry.release(driverKey("jdbc:neo4j:neo4j://example.org", properties([:])), 1000L)
+
+        then:
+        1 * driver.close()
+        registry.size() == 1
+    }
+
+    def "closes unreferenced drivers right away without idle timeout"() {
+        given:
+        def driver = Mock(Driver)
+        def key = driverKey("jdbc:neo4j:neo4j://example.com", properties([:]))
+        registry.acquire(key, { -> driver })
+
+        when:
+        registry.release(key, 0L)
+
+        then:
+        1 * driver.close()
+        registry.size() == 0
+    }
+
+    def "closes all drivers, referenced or not"() {
+        given:
+        def driver1 = Mock(Driver)
+        def driver2 = Mock(Driver)
+        registry.acquire(driverKey("jdbc:neo4j:neo4j://example.com", properties([:])), { -> driver1 })
+        registry.acquire(driverKey("jdbc:neo4j:neo4j://example.org", properties([:])), { -> driver2 })
+
+        when:
+        registry.closeAll()
+
+        then:
+        1 * driver1.close()
+        1 * driver2.close()
+        registry.size() == 0
+    }
+
+    def "shares drivers between equivalent URLs and settings"() {
+        given:
+        def driver = Mock(Driver)
+
+        when:
+        registry.acquire(driverKey("jdbc:neo4j:neo4j://example.com", properties([user: "neo4j", password: "s3cr3t", "connection.timeout": "1000"])), { -> driver })
+        def shared = registry.acquire(otherKey, { -> Mock(Driver) })
+
+        then:
+        shared.is(driver)
+        registry.size() == 1
+
+        where:
+        otherKey << [
+                driverKey("jdbc:neo4j:neo4j://example.com:7687/", properties([user: "neo4j", password: "s3cr3t", "connection.timeout": "1000"])),
+                driverKey("jdbc:neo4j:neo4j://EXAMPLE.com", properties([user: "neo4j", password: "s3cr3t", "Connection.Timeout": "1000"])),
+                driverKey("jdbc:neo4j:neo4j://example.com?connection.timeout=1000", properties([user: "neo4j", password: "s3cr3t"])),
+                driverKey("jdbc:neo4j:neo4j://example.com?database=tenant", properties([user: "neo4j", password: "s3cr3t", "connection.timeout": "1000", "fetch.size": "500"])),
+        ]
+    }
+
+    def "does not share drivers between different ports or schemes"() {
+        when:
+        def driver1 = registry.acquire(driverKey("jdbc:neo4j:neo4j://example.com", properties([:])), { -> Mock(Driver) })
+        def driver2 = registry.acquire(otherKey, { -> Mock(Driver) })
+
+        then:
+        !driver1.is(driver2)
+
+        where:
+        otherKey << [
+                driverKey("jdbc:neo4j:neo4j://example.com:7688", properties([:])),
+                driverKey("jdbc:neo4j:bolt://example.com", properties([:])),
+        ]
+    }
+
+    def "schedules the eviction of drivers once they are not referenced anymore"() {
+        given:
+        def driver = Mock(Driver)
+        def key = driverKey("jdbc:neo4j:neo4j://example.com", properties([:]))
+        registry.acquire(key, { -> driver })
+        registry.acquire(key, { -> driver })
+
+        when:
+        registry.release(key, 100L)
+
+        then:
+        scheduledEvictions.empty
+
+        when:
+        registry.release(key, 100L)
+
+        then:
+        scheduledEvictions.size() == 1
+        scheduledEvictions[0][1] == 100L
+        0 * driver.close()
+
+        when:
+        now = 100L
+        scheduledEvictions[0][0].run()
+
+        then:
+        1 * driver.close()
+        registry.size() == 0
+    }
+
+    def "does not evict drivers acquired again before their scheduled eviction"() {
+        given:
+        def driver = Mock(Driver)
+        def key = driverKey("jdbc:neo4j:neo4j://example.com", properties([:]))
+        registry.acquire(key, { -> driver })
+        registry.release(key, 100L)
+        registry.acquire(key, { -> Mock(Driver) })
+
+        when:
+        now = 100L
+        scheduledEvictions[0][0].run()
+
+        then:
+        0 * driver.close()
+        registry.size() == 1
+    }
+
+    def "registers its shutdown hook once, upon the first acquisition"() {
+        expect:
+        shutdownHooks.empty
+
+        when:
+        def driver = Mock(Driver)
+        registry.acquire(driverKey("jdbc:neo4j:neo4j://example.com", properties([:])), { -> driver })
+        registry.acquire(driverKey("jdbc:neo4j:neo4j://example.org", properties([:])), { -> Mock(Driver) })
+
+        then:
+        shutdownHooks.size() == 1
+
+        when:
+        shutdownHooks[0].run()
+
+        then:
+        1 * driver.close()
+        registry.size() == 0
+    }
+
+    private static DriverRegistry.Key driverKey(String url, Properties info) {
+        return new DriverRegistry.Key(url, new DriverConfigSupplier(QueryStringParser.parseQueryString(url.replaceFirst("jdbc:neo4j:", "")), info))
+    }
+
+    private static Properties properties(Map<String, String> values) {
+        def result = new Properties()
+        result.putAll(values)
+        return result
+    }
+}
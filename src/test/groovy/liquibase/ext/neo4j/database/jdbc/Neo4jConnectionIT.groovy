@@ -48,6 +48,24 @@ class Neo4jConnectionIT extends Neo4jContainerSpec {
     }
 
     @Requires({ (neo4jVersion() >= V4_0_0) && enterpriseEdition() })
+    def "runs queries in an independent session, outside of the current transaction"() {
+        given:
+        def connection = (Neo4jConnection) new Neo4jDriver().connect(jdbcUrl(), authenticationProperties())
+        connection.setAutoCommit(false)
+        connection.prepareStatement("CREATE (:IndependentSessionTest)").executeUpdate()
+
+        when:
+        def count = connection.queryForLongInIndependentSession("CREATE (n:IndependentSessionTest {value: \$value}) RETURN n.value", [value: 42L])
+        connection.rollback()
+
+        then:
+        count == 42L
+        queryRunner.getSingleRow("MATCH (n:IndependentSessionTest) RETURN collect(n.value) AS values")["values"] == [42L]
+
+        cleanup:
+        connection.close()
+    }
+
     def "retrieves the default database name as catalog"() {
         given:
         def connection = (Neo4jConnection) new Neo4jDriver().connect(jdbcUrl(), authenticationProperties())
@@ -1,6 +1,15 @@
 package liquibase.ext.neo4j.database.jdbc
 
+import liquibase.ext.neo4j.ReflectionUtils
+import org.neo4j.driver.Driver
+import org.neo4j.driver.Record
+import org.neo4j.driver.Result
+import org.neo4j.driver.Session
+import org.neo4j.driver.SessionConfig
 import org.neo4j.driver.Transaction
+import org.neo4j.driver.Values
+import org.neo4j.driver.exceptions.ClientException
+import org.neo4j.driver.exceptions.ServiceUnavailableException
 import spock.lang.Specification
 
 import java.sql.Connection
@@ -33,6 +42,136 @@ class Neo4jConnectionTest extends Specification {
         connection.getAutoCommit()
     }
 
+    def "reuses the driver of closed connections when driver sharing is enabled"() {
+        given:
+        def registry = new DriverRegistry(System::nanoTime, { eviction, delay -> }, { hook -> })
+        def url = "jdbc:neo4j:neo4j://example.com?driver.sharing=true"
+        def supplier = new DriverConfigSupplier(QueryStringParser.parseQueryString(url.replaceFirst("jdbc:neo4j:", "")), new Properties())
+
+        when:
+        def connection1 = new Neo4jConnection(url, new Properties(), supplier, registry)
+        connection1.close()
+        def connection2 = new Neo4jConnection(url, new Properties(), supplier, registry)
+
+        then:
+        registry.size() == 1
+        connection1.getSession() != connection2.getSession()
+
+        cleanup:
+        connection2?.close()
+        registry.closeAll()
+    }
+
+    def "runs independent sessions on a dedicated driver only when the pool holds a single connection"() {
+        given:
+        def supplier = new DriverConfigSupplier(QueryStringParser.parseQueryString(url.replaceFirst("jdbc:neo4j:", "")), new Properties())
+        def registry = new DriverRegistry(System::nanoTime, { eviction, delay -> }, { hook -> })
+
+        when:
+        def connection = new Neo4jConnection(url, new Properties(), supplier, registry)
+
+        then:
+        (ReflectionUtils.getField("independentDriverFactory", connection) != null) == dedicatedDriver
+
+        cleanup:
+        connection?.close()
+        registry.closeAll()
+
+        where:
+        url                                                          | dedicatedDriver
+        "jdbc:neo4j:neo4j://example.com"                             | true
+        "jdbc:neo4j:neo4j://example.com?max.connection.poolsize=1"   | true
+        "jdbc:neo4j:neo4j://example.com?max.connection.poolsize=2"   | false
+        "jdbc:neo4j:neo4j://example.com?driver.sharing=true"         | false
+    }
+
+    def "releases the driver even when the session cannot be closed"() {
+        given:
+        def failingSession = Mock(Session)
+        def driver = Stub(Driver) {
+            session(*_) >> failingSession
+        }
+        def releases = 0
+        def connection = new Neo4jConnection("jdbc:neo4j:neo4j://example.com", driver, SessionConfig.defaultConfig(), { -> releases++ })
+
+        when:
+        connection.close()
+
+        then:
+        1 * failingSession.close() >> { throw new ServiceUnavailableException("oops") }
+        thrown(ServiceUnavailableException)
+        releases == 1
+        connection.isClosed()
+
+        when:
+        connection.close()
+
+        then:
+        0 * failingSession.close()
+        releases == 1
+    }
+
+    def "reads the last committed transaction ID again after transient failures"() {
+        given:
+        def systemSession = Mock(Session)
+        def connection = connectionWithSystemSession("5.26.0", systemSession)
+
+        when:
+        def first = connection.lastCommittedTransactionId()
+        def second = connection.lastCommittedTransactionId()
+
+        then:
+        2 * systemSession.run(_ as String, [name: "neo4j"]) >> { throw new ServiceUnavailableException("oops") } >> transactionIdResult(42L)
+        first == -1L
+        second == 42L
+    }
+
+    def "stops reading the last committed transaction ID when the server does not support it"() {
+        given:
+        def systemSession = Mock(Session)
+        def connection = connectionWithSystemSession(version, systemSession)
+
+        when:
+        def first = connection.lastCommittedTransactionId()
+        def second = connection.lastCommittedTransactionId()
+
+        then:
+        runs * systemSession.run(_ as String, [name: "neo4j"]) >> { throw new ClientException("Neo.ClientError.Statement.SyntaxError", "Variable `lastCommittedTxn` not defined") }
+        first == -1L
+        second == -1L
+
+        where:
+        version  | runs
+        "4.4.30" | 0
+        "5.26.0" | 1
+    }
+
+    def "switches to a session with the requested fetch size and back to the default one"() {
+        given:
+        def initialSession = connection.getSession()
+
+        when:
+        connection.useFetchSize(500)
+
+        then:
+        connection.getEffectiveFetchSize() == 500L
+        connection.getSession() != initialSession
+
+        when:
+        def fetchSizeSession = connection.getSession()
+        connection.useFetchSize(500)
+
+        then:
+        connection.getSession() == fetchSizeSession
+
+        when:
+        connection.useFetchSize(0)
+
+        then:
+        connection.getEffectiveFetchSize() == null
+        connection.getSession() != fetchSizeSession
+    }
+
     def "creates a simple statement"() {
         when:
         def statement = connection.createStatement()
@@ -189,6 +328,8 @@ but got:
         connection.unwrap(Connection.class).is(connection)
         connection.isWrapperFor(Neo4jTransactionState.class)
         connection.unwrap(Neo4jTransactionState.class).is(connection)
+        connection.isWrapperFor(Neo4jIndependentSessions.class)
+        connection.unwrap(Neo4jIndependentSessions.class).is(connection)
     }
 
     def "rejects unsupported unwrap types"() {
@@ -202,4 +343,22 @@ but got:
         def exception = thrown(SQLException.class)
         exception.message == "Cannot unwrap Neo4j connection to java.lang.String"
     }
+
+    private Neo4jConnection connectionWithSystemSession(String version, Session systemSession) {
+        def driver = Stub(Driver) {
+            session(*_) >> { args -> args[0].database().orElse(null) == "system" ? systemSession : Stub(Session) }
+        }
+        def connection = new Neo4jConnection("jdbc:neo4j:neo4j://example.com", driver, SessionConfig.forDatabase("neo4j"), { -> })
+        ReflectionUtils.setField("neo4jVersion", connection, version)
+        return connection
+    }
+
+    private Result transactionIdResult(long id) {
+        def record = Stub(Record) {
+            get("id") >> Values.value(id)
+        }
+        return Stub(Result) {
+            single() >> record
+        }
+    }
 }
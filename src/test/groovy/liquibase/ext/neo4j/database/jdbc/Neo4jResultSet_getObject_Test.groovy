@@ -8,6 +8,7 @@ import org.neo4j.driver.internal.types.InternalTypeSystem
 import org.neo4j.driver.internal.value.NodeValue
 import org.neo4j.driver.internal.value.PathValue
 import org.neo4j.driver.internal.value.RelationshipValue
+import org.neo4j.driver.types.Entity
 import org.neo4j.driver.types.Node
 import org.neo4j.driver.types.Path
 import org.neo4j.driver.types.Relationship
@@ -129,6 +130,26 @@ class Neo4jResultSet_getObject_Test extends Specification {
         exception.cause == driverException
     }
 
+    def "converts nested values once and only when read"() {
+        given:
+        def row = Mock(Record.class)
+        row.get("foo") >> Values.value([list: [[k: "v"]], point: Values.point(7203, 42, 43)])
+        result.next() >> row
+
+        and:
+        resultSet.next()
+
+        when:
+        def map = resultSet.getObject("foo") as Map
+
+        then:
+        map.get("list").is(map.get("list"))
+        (map.get("list") as List).get(0).is((map.get("list") as List).get(0))
+        map.get("point") == [srid: 7203, crs: "cartesian", x: 42, y: 43]
+        map.get("missing") == null
+        map.size() == 2
+    }
+
     def "fails getting indexed object value if access error occurred"() {
         given:
         def driverException = new RuntimeException("oopsie")
@@ -177,7 +198,7 @@ class Neo4jResultSet_getObject_Test extends Specification {
         node.id() >> id
         node.elementId() >> elementId
         node.labels() >> labels
-        node.asMap() >> properties
+        stubProperties(node, properties)
         return new NodeValue(node)
     }
 
@@ -186,12 +207,19 @@ class Neo4jResultSet_getObject_Test extends Specification {
         relationship.id() >> id
         relationship.elementId() >> elementId
         relationship.type() >> type
-        relationship.asMap() >> properties
+        stubProperties(relationship, properties)
         relationship.startNodeId() >> startNodeId
         relationship.endNodeId() >> endNodeId
         return new RelationshipValue(relationship)
     }
 
+    void stubProperties(Entity entity, Map<String, Object> properties) {
+        entity.keys() >> properties.keySet()
+        entity.size() >> properties.size()
+        entity.containsKey(_ as String) >> { String key -> properties.containsKey(key) }
+        entity.get(_ as String) >> { String key -> Values.value(properties[key]) }
+    }
+
     PathValue pathValue(NodeValue start, Object... rest) {
         if (rest.length % 2 != 0) {
             throw new RuntimeException("extra arguments should be an alternating list of rels and nodes")
@@ -0,0 +1,45 @@
+package liquibase.ext.neo4j.database.jdbc
+
+import org.neo4j.driver.Result
+import org.neo4j.driver.summary.ResultSummary
+import org.neo4j.driver.summary.SummaryCounters
+import org.neo4j.driver.types.TypeSystem
+import spock.lang.Specification
+
+class Neo4jResultSet_getUpdateCount_Test extends Specification {
+
+    Result result
+    Neo4jResultSet resultSet
+
+    def setup() {
+        result = Mock(Result.class)
+        resultSet = new Neo4jResultSet(Mock(Neo4jStatement.class), Mock(TypeSystem.class), result)
+    }
+
+    def "counts set properties once"() {
+        given:
+        def counters = Stub(SummaryCounters.class)
+        counters.containsUpdates() >> true
+        counters.nodesCreated() >> 1
+        counters.labelsAdded() >> 1
+        counters.propertiesSet() >> 2
+        def summary = Stub(ResultSummary.class)
+        summary.counters() >> counters
+        result.consume() >> summary
+
+        expect:
+        resultSet.getUpdateCount() == 4
+    }
+
+    def "is zero without updates"() {
+        given:
+        def counters = Stub(SummaryCounters.class)
+        counters.propertiesSet() >> 2
+        def summary = Stub(ResultSummary.class)
+        summary.counters() >> counters
+        result.consume() >> summary
+
+        expect:
+        resultSet.getUpdateCount() == 0
+    }
+}
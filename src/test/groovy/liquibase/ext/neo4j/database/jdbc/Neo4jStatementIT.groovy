@@ -3,6 +3,8 @@ package liquibase.ext.neo4j.database.jdbc
 import liquibase.ext.neo4j.Neo4jContainerSpec
 import spock.lang.Requires
 
+import java.sql.SQLException
+
 import static liquibase.ext.neo4j.DockerNeo4j.neo4jVersion
 import static liquibase.ext.neo4j.database.KernelVersion.V4_4_0
 
@@ -51,6 +53,139 @@ class Neo4jStatementIT extends Neo4jContainerSpec {
         connection.close()
     }
 
+    def "executes batched parameterized statements"() {
+        given:
+        def connection = new Neo4jDriver().connect(jdbcUrl(), authenticationProperties())
+        def statement = connection.prepareStatement("CREATE (:BatchedPerson {name: \$1})")
+
+        when:
+        ["Ada", "Grace", "Margaret"].each { name ->
+            statement.setString(1, name)
+            statement.addBatch()
+        }
+        def updateCounts = statement.executeBatch()
+
+        then:
+        updateCounts == [3, 3, 3] as int[]
+        def count = connection.createStatement().executeQuery("MATCH (p:BatchedPerson) RETURN count(p) AS count")
+        count.next()
+        count.getLong("count") == 3
+
+        cleanup:
+        statement.close()
+        connection.close()
+    }
+
+    def "executes batched statements within explicit transactions without pipelining other statements"() {
+        given:
+        def connection = new Neo4jDriver().connect(jdbcUrl(), authenticationProperties())
+        connection.setAutoCommit(false)
+        def statement = connection.prepareStatement("CREATE (:BatchedEmployee {name: \$1})")
+
+        when:
+        ["Ada", "Grace", "Margaret"].each { name ->
+            statement.setString(1, name)
+            statement.addBatch()
+        }
+        def updateCounts = statement.executeBatch()
+        def countStatement = connection.createStatement()
+        def hasResults = countStatement.execute("MATCH (e:BatchedEmployee) RETURN count(e) AS count")
+
+        then:
+        updateCounts == [3, 3, 3] as int[]
+        hasResults
+        def results = countStatement.getResultSet()
+        results.next()
+        results.getLong("count") == 3
+        results.close()
+
+        when:
+        connection.commit()
+        connection.setAutoCommit(true)
+        results = connection.createStatement().executeQuery("MATCH (e:BatchedEmployee) RETURN count(e) AS count")
+
+        then:
+        results.next()
+        results.getLong("count") == 3
+        results.close()
+
+        cleanup:
+        statement.close()
+        connection.close()
+    }
+
+    def "pipelines statements within explicit transactions"() {
+        given:
+        def properties = authenticationProperties()
+        properties.setProperty("pipelining", "true")
+        def connection = new Neo4jDriver().connect(jdbcUrl(), properties)
+        connection.setAutoCommit(false)
+        def statement = connection.prepareStatement("CREATE (:PipelinedPerson {name: \$1})")
+
+        when:
+        ["Ada", "Grace", "Margaret"].each { name ->
+            statement.setString(1, name)
+            statement.execute()
+        }
+        def results = connection.createStatement().executeQuery("MATCH (p:PipelinedPerson) RETURN count(p) AS count")
+
+        then:
+        results.next()
+        results.getLong("count") == 3
+        results.close()
+        connection.commit()
+
+        cleanup:
+        statement.close()
+        connection.close()
+    }
+
+    def "reports the failing pipelined statement at commit"() {
+        given:
+        def properties = authenticationProperties()
+        properties.setProperty("pipelining", "true")
+        def connection = new Neo4jDriver().connect(jdbcUrl(), properties)
+        connection.setAutoCommit(false)
+        def statement = connection.createStatement()
+
+        when:
+        statement.execute("CREATE (:PipelinedFailure)")
+        statement.execute("RETURN 1/0")
+        connection.commit()
+
+        then:
+        def e = thrown(SQLException)
+        e.message == "Could not run pipelined statement 2: RETURN 1/0"
+
+        cleanup:
+        statement.close()
+        connection.close()
+    }
+
+    def "reads all results of statements with a small fetch size"() {
+        given:
+        def connection = new Neo4jDriver().connect(jdbcUrl(), authenticationProperties())
+        connection.setAutoCommit(false)
+        def statement = connection.createStatement()
+        statement.setFetchSize(3)
+
+        when:
+        def results = statement.executeQuery("UNWIND range(1, 10) AS i RETURN i")
+        def values = []
+        while (results.next()) {
+            values.add(results.getLong("i"))
+        }
+
+        then:
+        values == (1L..10L).toList()
+
+        cleanup:
+        results.close()
+        connection.commit()
+        statement.close()
+        connection.close()
+    }
+
     @Requires({ neo4jVersion() >= V4_4_0 })
     def "executes auto-commit statements"() {
         given:
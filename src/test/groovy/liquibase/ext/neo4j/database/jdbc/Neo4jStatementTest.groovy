@@ -1,14 +1,23 @@
 package liquibase.ext.neo4j.database.jdbc
 
+import org.neo4j.driver.Result
+import org.neo4j.driver.Transaction
 import org.neo4j.driver.Values
+import org.neo4j.driver.exceptions.ClientException
+import org.neo4j.driver.summary.ResultSummary
+import org.neo4j.driver.summary.SummaryCounters
 import spock.lang.Specification
 
+import java.sql.BatchUpdateException
 import java.sql.Date
+import java.sql.SQLException
 import java.sql.Time
 import java.sql.Timestamp
 import java.time.LocalDate
 import java.time.LocalDateTime
 import java.time.LocalTime
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionStage
 
 class Neo4jStatementTest extends Specification {
 
@@ -155,4 +164,188 @@ class Neo4jStatementTest extends Specification {
         then:
         statement.getParameters() == ["1": timestamp.toLocalDateTime()]
     }
+
+    def "stores the fetch size"() {
+        given:
+        def statement = new Neo4jStatement(Mock(Neo4jConnection.class))
+
+        when:
+        statement.setFetchSize(42)
+
+        then:
+        statement.getFetchSize() == 42
+    }
+
+    def "rejects negative fetch sizes"() {
+        given:
+        def statement = new Neo4jStatement(Mock(Neo4jConnection.class))
+
+        when:
+        statement.setFetchSize(-1)
+
+        then:
+        def e = thrown(SQLException)
+        e.message == "fetch size must be positive, got: -1"
+    }
+
+    def "runs batched statements one after the other in a transaction that began without pipelining"() {
+        given:
+        def transaction = Mock(Transaction)
+        def connection = Mock(Neo4jConnection)
+        connection.isAutocommit() >> false
+        connection.getOrBeginPipelinedTransaction(_) >> transaction
+        def statement = new Neo4jStatement(connection, "CREATE (:Person {name: \$1})")
+
+        when:
+        statement.setString(1, "Ada")
+        statement.addBatch()
+        statement.setString(1, "Grace")
+        statement.addBatch()
+        def updateCounts = statement.executeBatch()
+
+        then:
+        1 * transaction.run("CREATE (:Person {name: \$1})", ["1": "Ada"]) >> resultWithNodesCreated(1)
+        1 * transaction.run("CREATE (:Person {name: \$1})", ["1": "Grace"]) >> resultWithNodesCreated(1)
+        updateCounts == [1, 1] as int[]
+        0 * transaction.commit()
+
+        when:
+        updateCounts = statement.executeBatch()
+
+        then:
+        updateCounts.length == 0
+    }
+
+    def "reports the update counts of the batched statements preceding a failure"() {
+        given:
+        def transaction = Mock(Transaction)
+        def connection = Mock(Neo4jConnection)
+        connection.isAutocommit() >> false
+        connection.getOrBeginPipelinedTransaction(_) >> transaction
+        def statement = new Neo4jStatement(connection)
+        transaction.run("CREATE (:Person)", [:]) >> resultWithNodesCreated(1)
+        transaction.run("CREATE (:Person", [:]) >> { throw new ClientException("syntax error") }
+
+        when:
+        statement.addBatch("CREATE (:Person)")
+        statement.addBatch("CREATE (:Person")
+        statement.addBatch("CREATE (:Person)")
+        statement.executeBatch()
+
+        then:
+        def e = thrown(BatchUpdateException)
+        e.message == "Could not run batched statement 2: CREATE (:Person"
+        e.updateCounts == [1] as int[]
+    }
+
+    def "pipelines batched statements in the current transaction"() {
+        given:
+        def transaction = Mock(PipelinedTransaction)
+        def connection = Mock(Neo4jConnection)
+        connection.isAutocommit() >> false
+        connection.getOrBeginPipelinedTransaction(_) >> transaction
+        def statement = new Neo4jStatement(connection, "CREATE (:Person {name: \$1})")
+
+        when:
+        statement.setString(1, "Ada")
+        statement.addBatch()
+        statement.setString(1, "Grace")
+        statement.addBatch()
+        def updateCounts = statement.executeBatch()
+
+        then:
+        1 * transaction.runPipelined("CREATE (:Person {name: \$1})", ["1": "Ada"], _ as StatementProbe) >> summaryWithNodesCreated(1)
+        1 * transaction.runPipelined("CREATE (:Person {name: \$1})", ["1": "Grace"], _ as StatementProbe) >> summaryWithNodesCreated(1)
+        0 * transaction.run(*_)
+        0 * transaction.commit()
+        updateCounts == [1, 1] as int[]
+    }
+
+    def "reports the update counts of the pipelined batched statements preceding a failure"() {
+        given:
+        def transaction = Mock(PipelinedTransaction)
+        def connection = Mock(Neo4jConnection)
+        connection.isAutocommit() >> false
+        connection.getOrBeginPipelinedTransaction(_) >> transaction
+        def statement = new Neo4jStatement(connection)
+        def failure = new ClientException("syntax error")
+        transaction.runPipelined("CREATE (:Person)", [:], _) >> summaryWithNodesCreated(1)
+        transaction.runPipelined("CREATE (:Person", [:], _) >> CompletableFuture.failedFuture(failure)
+
+        when:
+        statement.addBatch("CREATE (:Person)")
+        statement.addBatch("CREATE (:Person")
+        statement.addBatch("CREATE (:Person)")
+        statement.executeBatch()
+
+        then:
+        def e = thrown(BatchUpdateException)
+        e.message == "Could not run batched statement 2: CREATE (:Person"
+        e.updateCounts == [1] as int[]
+        e.cause.is(failure)
+    }
+
+    def "commits pipelined batched statements in autocommit mode"() {
+        given:
+        def transaction = Mock(PipelinedTransaction)
+        def connection = Mock(Neo4jConnection)
+        connection.isAutocommit() >> true
+        connection.beginPipelinedTransaction() >> transaction
+        def statement = new Neo4jStatement(connection)
+
+        when:
+        statement.addBatch("CREATE (:Person)")
+        statement.clearBatch()
+        statement.addBatch("CREATE (:Company)")
+        def updateCounts = statement.executeBatch()
+
+        then:
+        1 * transaction.runPipelined("CREATE (:Company)", [:], _ as StatementProbe) >> summaryWithNodesCreated(1)
+        0 * transaction.runPipelined("CREATE (:Person)", *_)
+        1 * transaction.commit()
+        1 * transaction.close()
+        updateCounts == [1] as int[]
+    }
+
+    def "pipelines executed statements when the connection supports it"() {
+        given:
+        def transaction = Mock(PipelinedTransaction)
+        def connection = Mock(Neo4jConnection)
+        connection.isAutocommit() >> false
+        connection.isPipeliningEnabled() >> true
+        connection.getOrBeginTransaction(_) >> transaction
+        def statement = new Neo4jStatement(connection, "CREATE (:Person {name: \$1})")
+
+        when:
+        statement.setString(1, "Ada")
+        def hasResults = statement.execute()
+
+        then:
+        1 * transaction.runPipelined("CREATE (:Person {name: \$1})", ["1": "Ada"], _ as StatementProbe)
+        0 * transaction.run(*_)
+        !hasResults
+        statement.getResultSet() == null
+        statement.getUpdateCount() == -1
+        !statement.getMoreResults()
+    }
+
+    private Result resultWithNodesCreated(int count) {
+        def summary = summaryOfNodesCreated(count)
+        def result = Stub(Result)
+        result.consume() >> summary
+        return result
+    }
+
+    private CompletionStage<ResultSummary> summaryWithNodesCreated(int count) {
+        return CompletableFuture.completedFuture(summaryOfNodesCreated(count))
+    }
+
+    private ResultSummary summaryOfNodesCreated(int count) {
+        def counters = Stub(SummaryCounters)
+        counters.containsUpdates() >> true
+        counters.nodesCreated() >> count
+        def summary = Stub(ResultSummary)
+        summary.counters() >> counters
+        return summary
+    }
 }
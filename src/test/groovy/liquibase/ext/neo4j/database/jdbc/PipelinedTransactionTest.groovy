@@ -0,0 +1,86 @@
+package liquibase.ext.neo4j.database.jdbc
+
+import org.neo4j.driver.async.AsyncSession
+import org.neo4j.driver.async.AsyncTransaction
+import org.neo4j.driver.async.ResultCursor
+import org.neo4j.driver.exceptions.ClientException
+import org.neo4j.driver.summary.ResultSummary
+import spock.lang.Specification
+
+import java.sql.SQLException
+import java.util.concurrent.CompletableFuture
+
+class PipelinedTransactionTest extends Specification {
+
+    AsyncSession session = Mock(AsyncSession)
+
+    AsyncTransaction asyncTransaction = Mock(AsyncTransaction)
+
+    PipelinedTransaction transaction = new PipelinedTransaction(session, asyncTransaction)
+
+    def "sends pipelined statements without waiting for their outcome"() {
+        given:
+        def pendingCursor = new CompletableFuture<ResultCursor>()
+
+        when:
+        transaction.runPipelined("CREATE (:First)", [:])
+        transaction.runPipelined("CREATE (:Second)", [:])
+
+        then:
+        1 * asyncTransaction.runAsync("CREATE (:First)", [:]) >> pendingCursor
+        1 * asyncTransaction.runAsync("CREATE (:Second)", [:]) >> pendingCursor
+        transaction.pendingCount() == 2
+    }
+
+    def "reports the pipelined statement that failed"() {
+        given:
+        asyncTransaction.runAsync("CREATE (:First)", [:]) >> CompletableFuture.completedFuture(successfulCursor())
+        asyncTransaction.runAsync("CREATE (:Second", [:]) >> CompletableFuture.failedFuture(new ClientException("syntax error"))
+        transaction.runPipelined("CREATE (:First)", [:])
+        transaction.runPipelined("CREATE (:Second", [:])
+
+        when:
+        transaction.awaitPending()
+
+        then:
+        def e = thrown(SQLException)
+        e.message == "Could not run pipelined statement 2: CREATE (:Second"
+        e.cause instanceof ClientException
+        transaction.pendingCount() == 0
+    }
+
+    def "does not commit when a pipelined statement failed"() {
+        given:
+        asyncTransaction.runAsync("CREATE (:Second", [:]) >> CompletableFuture.failedFuture(new ClientException("syntax error"))
+        transaction.runPipelined("CREATE (:Second", [:])
+
+        when:
+        transaction.commit()
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message == "Could not run pipelined statement 1: CREATE (:Second"
+        0 * asyncTransaction.commitAsync()
+        1 * session.closeAsync()
+    }
+
+    def "discards pending statements on rollback"() {
+        given:
+        asyncTransaction.runAsync("CREATE (:First)", [:]) >> new CompletableFuture<ResultCursor>()
+        transaction.runPipelined("CREATE (:First)", [:])
+
+        when:
+        transaction.rollback()
+
+        then:
+        1 * asyncTransaction.rollbackAsync() >> CompletableFuture.completedFuture(null)
+        1 * session.closeAsync()
+        transaction.pendingCount() == 0
+    }
+
+    private ResultCursor successfulCursor() {
+        def cursor = Stub(ResultCursor)
+        cursor.consumeAsync() >> CompletableFuture.completedFuture(Stub(ResultSummary))
+        return cursor
+    }
+}
@@ -0,0 +1,37 @@
+package liquibase.ext.neo4j.database.jdbc
+
+import spock.lang.Specification
+
+class StatementKindTest extends Specification {
+
+    def "classifies statements"() {
+        expect:
+        StatementKind.of(cypher) == kind
+
+        where:
+        cypher                                                                      | kind
+        "MERGE (lock:__LiquibaseLock {id: 1}) RETURN lock"                          | StatementKind.LOCK
+        "MATCH (changeSet:__LiquibaseChangeSet) RETURN changeSet"                   | StatementKind.HISTORY
+        "CREATE CONSTRAINT FOR (tag:__LiquibaseTag) REQUIRE tag.tag IS UNIQUE"      | StatementKind.HISTORY
+        "SHOW INDEXES YIELD name RETURN name"                                       | StatementKind.SNAPSHOT
+        "CYPHER 25 SHOW CURRENT GRAPH TYPE YIELD specification RETURN specification" | StatementKind.SNAPSHOT
+        "call dbms.components() YIELD name RETURN name"                             | StatementKind.SNAPSHOT
+        "CREATE (:Movie {title: 'My Life'})"                                        | StatementKind.CHANGE
+        "MATCH (n) WHERE n.title = 'SHOW ME' RETURN n"                              | StatementKind.CHANGE
+        null                                                                        | StatementKind.CHANGE
+    }
+
+    def "detects statements running inner transactions"() {
+        expect:
+        StatementKind.runsInnerTransactions(cypher) == expected
+
+        where:
+        cypher                                                                           | expected
+        "MATCH (n) CALL { WITH n SET n:Film } IN TRANSACTIONS OF 1000 ROWS"              | true
+        "MATCH (n) CALL { WITH n SET n:Film } IN CONCURRENT TRANSACTIONS"                | true
+        "MATCH (n) CALL { WITH n SET n:Film } in 4 concurrent transactions of 10 rows"   | true
+        "MATCH (n) CALL { WITH n SET n:Film }"                                           | false
+        "CREATE (:Movie {title: 'IN TRANSACTIONSLAND'})"                                 | false
+        null                                                                             | false
+    }
+}
@@ -0,0 +1,186 @@
+package liquibase.ext.neo4j.database.jdbc
+
+import io.micrometer.core.instrument.Metrics
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import jdk.jfr.Recording
+import jdk.jfr.consumer.RecordedEvent
+import jdk.jfr.consumer.RecordingFile
+import org.neo4j.driver.summary.ResultSummary
+import org.neo4j.driver.summary.SummaryCounters
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.util.concurrent.TimeUnit
+
+class StatementProbeTest extends Specification {
+
+    def "emits statement events"() {
+        given:
+        def summary = summary()
+        def recording = new Recording()
+        recording.enable("liquibase.neo4j.Statement")
+        recording.start()
+
+        when:
+        StatementProbe.start("CREATE (:Movie)").succeeded(summary)
+        StatementProbe.start("MATCH (lock:__LiquibaseLock) RETURN lock").failed()
+        def events = stopAndRead(recording)
+
+        then:
+        events.size() == 2
+        with(events[0]) {
+            getString("kind") == "change"
+            getString("cypher") == "CREATE (:Movie)"
+            getBoolean("succeeded")
+            getInt("updateCount") == 4
+            getInt("nodesCreated") == 1
+            getInt("labelsAdded") == 1
+            getInt("propertiesSet") == 2
+            getLong("resultAvailableAfter") == 3L
+            getLong("resultConsumedAfter") == 5L
+        }
+        with(events[1]) {
+            getString("kind") == "lock"
+            !getBoolean("succeeded")
+            getInt("updateCount") == 0
+            getLong("resultAvailableAfter") == -1L
+        }
+    }
+
+    def "reports statements only once"() {
+        given:
+        def summary = summary()
+        def recording = new Recording()
+        recording.enable("liquibase.neo4j.Statement")
+        recording.start()
+
+        when:
+        def probe = StatementProbe.start("CREATE (:Movie)")
+        probe.succeeded(summary)
+        probe.failed()
+        def events = stopAndRead(recording)
+
+        then:
+        events.size() == 1
+        events[0].getBoolean("succeeded")
+    }
+
+    def "emits transaction events"() {
+        given:
+        def recording = new Recording()
+        recording.enable("liquibase.neo4j.Transaction")
+        recording.start()
+
+        when:
+        TransactionProbe.start("commit").finish(true)
+        TransactionProbe.start("rollback").finish(false)
+        def events = stopAndRead(recording)
+
+        then:
+        events.collect { [it.getString("operation"), it.getBoolean("succeeded")] } == [["commit", true], ["rollback", false]]
+    }
+
+    def "records metrics to the global Micrometer registry"() {
+        given:
+        def registry = new SimpleMeterRegistry()
+        Metrics.addRegistry(registry)
+
+        when:
+        StatementProbe.start("CREATE (:Movie)").succeeded(summary())
+        StatementProbe.start("SHOW INDEXES").failed()
+        TransactionProbe.start("commit").finish(true)
+
+        then:
+        registry.get(MicrometerJdbcMetrics.STATEMENT_TIMER).tags("kind", "change", "outcome", "success").timer().count() == 1
+        registry.get(MicrometerJdbcMetrics.STATEMENT_TIMER).tags("kind", "snapshot", "outcome", "failure").timer().count() == 1
+        registry.get(MicrometerJdbcMetrics.STATEMENT_UPDATES).tags("kind", "change").summary().totalAmount() == 4.0d
+        registry.get(MicrometerJdbcMetrics.STATEMENT_SERVER_TIMER).tags("kind", "change", "phase", "available").timer().totalTime(TimeUnit.MILLISECONDS) == 3.0d
+        registry.get(MicrometerJdbcMetrics.STATEMENT_SERVER_TIMER).tags("kind", "change", "phase", "consumed").timer().totalTime(TimeUnit.MILLISECONDS) == 5.0d
+        registry.get(MicrometerJdbcMetrics.TRANSACTION_TIMER).tags("operation", "commit", "outcome", "success").timer().count() == 1
+
+        cleanup:
+        Metrics.removeRegistry(registry)
+    }
+
+    def "notifies the connection's statement listener"() {
+        given:
+        def completion = Mock(Neo4jStatementListener.Completion)
+        def listener = Mock(Neo4jStatementListener)
+        def connection = Mock(Neo4jConnection)
+        connection.getStatementListener() >> listener
+        def summary = summary()
+
+        when:
+        def probe = StatementProbe.start("MATCH (n) CALL { WITH n SET n:Film } IN TRANSACTIONS", connection)
+        probe.succeeded(summary)
+
+        then:
+        1 * listener.statementStarted(StatementKind.CHANGE, "MATCH (n) CALL { WITH n SET n:Film } IN TRANSACTIONS") >> completion
+        2 * connection.lastCommittedTransactionId() >>> [40L, 43L]
+        1 * completion.statementCompleted({ it >= 0L }, summary, 3L)
+    }
+
+    def "does not count inner transactions of statements without any"() {
+        given:
+        def completion = Mock(Neo4jStatementListener.Completion)
+        def connection = Mock(Neo4jConnection)
+        connection.getStatementListener() >> Stub(Neo4jStatementListener) {
+            statementStarted(_, _) >> completion
+        }
+
+        when:
+        StatementProbe.start("CREATE (:Movie)", connection).failed()
+
+        then:
+        0 * connection.lastCommittedTransactionId()
+        1 * completion.statementCompleted(_, null, 0L)
+    }
+
+    def "reports unknown inner transaction counts"() {
+        given:
+        def completion = Mock(Neo4jStatementListener.Completion)
+        def connection = Mock(Neo4jConnection)
+        connection.getStatementListener() >> Stub(Neo4jStatementListener) {
+            statementStarted(_, _) >> completion
+        }
+        connection.lastCommittedTransactionId() >> -1L
+
+        when:
+        StatementProbe.start("MATCH (n) CALL { WITH n SET n:Film } IN TRANSACTIONS", connection).succeeded(summary())
+
+        then:
+        1 * completion.statementCompleted(_, _, -1L)
+    }
+
+    def "does not record metrics without any Micrometer registry"() {
+        expect:
+        !JdbcMetrics.INSTANCE.isEnabled()
+    }
+
+    private ResultSummary summary() {
+        def counters = Mock(SummaryCounters)
+        counters.containsUpdates() >> true
+        counters.nodesCreated() >> 1
+        counters.labelsAdded() >> 1
+        counters.propertiesSet() >> 2
+        def summary = Mock(ResultSummary)
+        summary.counters() >> counters
+        summary.resultAvailableAfter(TimeUnit.MILLISECONDS) >> 3L
+        summary.resultConsumedAfter(TimeUnit.MILLISECONDS) >> 5L
+        summary.resultAvailableAfter(TimeUnit.NANOSECONDS) >> 3_000_000L
+        summary.resultConsumedAfter(TimeUnit.NANOSECONDS) >> 5_000_000L
+        return summary
+    }
+
+    private static List<RecordedEvent> stopAndRead(Recording recording) {
+        recording.stop()
+        def file = Files.createTempFile("liquibase-neo4j", ".jfr")
+        try {
+            recording.dump(file)
+            return RecordingFile.readAllEvents(file).sort { it.startTime }
+        } finally {
+            recording.close()
+            Files.deleteIfExists(file)
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package liquibase.ext.neo4j.e2e
+
+import liquibase.Scope
+import liquibase.command.CommandScope
+import liquibase.command.core.UpdateCommandStep
+import liquibase.command.core.helpers.DatabaseChangelogCommandStep
+import liquibase.command.core.helpers.DbUrlConnectionArgumentsCommandStep
+import liquibase.ext.neo4j.Neo4jContainerSpec
+
+import static liquibase.ext.neo4j.configuration.Neo4jConfiguration.HISTORY_GROUP_COMMIT
+import static liquibase.ext.neo4j.configuration.Neo4jConfiguration.HISTORY_GROUP_COMMIT_SIZE
+
+class GroupCommitIT extends Neo4jContainerSpec {
+
+    def "persists the whole history with group commit enabled"() {
+        when:
+        execute(groupCommitSize)
+
+        then:
+        verifyHistory()
+        verifyData()
+
+        where:
+        groupCommitSize << [0, 2, 100]
+    }
+
+    def "runs migrations twice without effect with group commit enabled"() {
+        when:
+        2.times {
+            execute(groupCommitSize)
+        }
+
+        then:
+        verifyHistory()
+        verifyData()
+
+        where:
+        groupCommitSize << [0, 2, 100]
+    }
+
+    private void execute(int groupCommitSize) {
+        Scope.child([(HISTORY_GROUP_COMMIT.key): true, (HISTORY_GROUP_COMMIT_SIZE.key): groupCommitSize], {
+            new CommandScope(UpdateCommandStep.COMMAND_NAME)
+                    .addArgumentValue(DbUrlConnectionArgumentsCommandStep.URL_ARG, "jdbc:neo4j:${neo4jContainer.getBoltUrl()}".toString())
+                    .addArgumentValue(DbUrlConnectionArgumentsCommandStep.USERNAME_ARG, "neo4j")
+                    .addArgumentValue(DbUrlConnectionArgumentsCommandStep.PASSWORD_ARG, PASSWORD)
+                    .addArgumentValue(DatabaseChangelogCommandStep.CHANGELOG_FILE_ARG, "/e2e/group-commit/changeLog.sql")
+                    .setOutput(System.out)
+                    .execute()
+        } as Scope.ScopedRunner)
+    }
+
+    private void verifyHistory() {
+        def rows = queryRunner.getRows("""
+            MATCH (changeSet:__LiquibaseChangeSet)-[execution:IN_CHANGELOG]->(:__LiquibaseChangeLog)
+            OPTIONAL MATCH (changeSet)<-[:CONTEXTUALIZES]-(context:__LiquibaseContext)
+            OPTIONAL MATCH (changeSet)<-[:LABELS]-(label:__LiquibaseLabel)
+            WITH changeSet, execution, collect(context.context) AS contexts, collect(label.label) AS labels
+            ORDER BY execution.dateExecuted ASC, execution.orderExecuted ASC
+            RETURN changeSet.id AS id, execution.orderExecuted AS orderExecuted, contexts, labels
+        """)
+        assert rows == [
+                [id: "create-movie", orderExecuted: 1L, contexts: ["dev"], labels: []],
+                [id: "create-person", orderExecuted: 2L, contexts: [], labels: ["people"]],
+                [id: "link-person-to-movie", orderExecuted: 3L, contexts: [], labels: []],
+                [id: "set-movie-genre", orderExecuted: 4L, contexts: [], labels: []],
+        ]
+    }
+
+    private void verifyData() {
+        def row = queryRunner.getSingleRow("""
+            MATCH (person:Person)-[acted:ACTED_IN]->(movie:Movie)
+            RETURN count(acted) AS count, movie.genre AS genre
+        """)
+        assert row == [count: 1L, genre: "Comedy"]
+    }
+}
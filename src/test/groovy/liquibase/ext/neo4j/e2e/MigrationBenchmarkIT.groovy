@@ -0,0 +1,372 @@
+package liquibase.ext.neo4j.e2e
+
+import liquibase.Scope
+import liquibase.command.CommandScope
+import liquibase.command.core.UpdateCommandStep
+import liquibase.command.core.helpers.DatabaseChangelogCommandStep
+import liquibase.command.core.helpers.DbUrlConnectionArgumentsCommandStep
+import liquibase.ext.neo4j.DockerNeo4j
+import liquibase.resource.ClassLoaderResourceAccessor
+import liquibase.resource.CompositeResourceAccessor
+import liquibase.resource.DirectoryResourceAccessor
+import org.neo4j.driver.AuthTokens
+import org.neo4j.driver.Driver
+import org.neo4j.driver.GraphDatabase
+import org.neo4j.driver.SessionConfig
+import org.testcontainers.neo4j.Neo4jContainer
+import spock.lang.Requires
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.lang.management.ManagementFactory
+import java.lang.management.MemoryType
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.nio.file.StandardOpenOption
+import java.time.ZoneId
+import java.util.logging.LogManager
+
+import static liquibase.ext.neo4j.DockerNeo4j.enterpriseEdition
+import static liquibase.ext.neo4j.DockerNeo4j.neo4jVersion
+import static liquibase.ext.neo4j.changelog.Neo4jChangelogHistoryService.CHANGE_SET_CONSTRAINT_NAME
+import static liquibase.ext.neo4j.changelog.Neo4jChangelogHistoryService.CHANGE_SET_KEY_INDEX_NAME
+import static liquibase.ext.neo4j.changelog.Neo4jChangelogHistoryService.CONTEXT_CONSTRAINT_NAME
+import static liquibase.ext.neo4j.changelog.Neo4jChangelogHistoryService.LABEL_CONSTRAINT_NAME
+import static liquibase.ext.neo4j.changelog.Neo4jChangelogHistoryService.TAG_CONSTRAINT_NAME
+import static liquibase.ext.neo4j.database.KernelVersion.V5_21_0
+import static org.junit.jupiter.api.Assumptions.assumeTrue
+
+/**
+ * End-to-end migration throughput benchmarks.
+ * They only run when the <code>MIGRATION_BENCHMARK</code> environment variable is set, e.g.:
+ * <pre>
+ * MIGRATION_BENCHMARK=true MIGRATION_BENCHMARK_SCALE=0.01 mvn verify -Dit.test=MigrationBenchmarkIT
+ * </pre>
+ * <code>MIGRATION_BENCHMARK_SCALE</code> scales the scenario sizes down (or up) and
+ * <code>MIGRATION_BENCHMARK_URL</code> (with <code>MIGRATION_BENCHMARK_USER</code> and
+ * <code>MIGRATION_BENCHMARK_PASSWORD</code>) targets an already running server, such as a local tarball installation,
+ * instead of a container.
+ * The data of the target database is deleted before every scenario.
+ * Results are written to <code>target/migration-benchmark-results.csv</code>.
+ */
+@Requires({ env["MIGRATION_BENCHMARK"] })
+class MigrationBenchmarkIT extends Specification {
+
+    static {
+        LogManager.getLogManager().reset()
+    }
+
+    static final String PASSWORD = "supers3cr3t"
+
+    static final int BATCH_SIZE = 10_000
+
+    static final Path RESULTS = Paths.get("target", "migration-benchmark-results.csv")
+
+    @Shared
+    Neo4jContainer neo4jContainer
+
+    @Shared
+    Driver driver
+
+    @Shared
+    String boltUrl
+
+    @Shared
+    String user
+
+    @Shared
+    String password
+
+    Path workingDirectory
+
+    def setupSpec() {
+        def externalUrl = System.getenv("MIGRATION_BENCHMARK_URL")
+        if (externalUrl != null) {
+            boltUrl = externalUrl
+            user = System.getenv().getOrDefault("MIGRATION_BENCHMARK_USER", "neo4j")
+            password = System.getenv("MIGRATION_BENCHMARK_PASSWORD")
+        } else {
+            neo4jContainer = DockerNeo4j.container(PASSWORD, ZoneId.of("Europe/Paris"))
+            neo4jContainer.start()
+            boltUrl = neo4jContainer.getBoltUrl()
+            user = "neo4j"
+            password = PASSWORD
+        }
+        driver = GraphDatabase.driver(boltUrl, AuthTokens.basic(user, password))
+        if (!Files.exists(RESULTS)) {
+            Files.createDirectories(RESULTS.parent)
+            Files.writeString(RESULTS, "scenario,entities,wall_time_ms,server_transactions,peak_client_heap_bytes\n")
+        }
+    }
+
+    def setup() {
+        deleteAllData()
+        workingDirectory = Files.createTempDirectory("liquibase-neo4j-benchmark")
+    }
+
+    def cleanup() {
+        workingDirectory.toFile().deleteDir()
+    }
+
+    def cleanupSpec() {
+        driver?.close()
+        neo4jContainer?.stop()
+    }
+
+    def "loads CSV rows"() {
+        given:
+        def rows = scaled(1_000_000)
+        Files.newBufferedWriter(workingDirectory.resolve("data.csv")).withCloseable { writer ->
+            writer.writeLine("id,name,score")
+            for (long i = 0; i < rows; i++) {
+                writer.writeLine("$i,person-$i,${i % 100}")
+            }
+        }
+        writeChangeLog("""
+            <changeSet id="load-people" author="benchmark">
+                <loadData file="data.csv" relativeToChangelogFile="true" tableName="Person">
+                    <column name="id" header="id" type="numeric"/>
+                    <column name="name" header="name" type="string"/>
+                    <column name="score" header="score" type="numeric"/>
+                </loadData>
+            </changeSet>
+        """)
+
+        when:
+        measure("loadData", rows)
+
+        then:
+        count("MATCH (p:Person) RETURN count(p) AS count") == rows
+    }
+
+    def "renames labels"() {
+        given:
+        assumeConcurrencySupported(concurrent)
+        def nodes = scaled(10_000_000)
+        createNodes(nodes, "Movie")
+        writeChangeLog(changeSet(batched, """<neo4j:renameLabel from="Movie" to="Film" ${batchAttributes(batched, concurrent)}/>"""))
+
+        when:
+        measure(scenarioName("renameLabel", batched, concurrent), nodes)
+
+        then:
+        count("MATCH (f:Film) RETURN count(f) AS count") == nodes
+
+        where:
+        batched | concurrent
+        false   | false
+        true    | false
+        true    | true
+    }
+
+    def "renames properties"() {
+        given:
+        assumeConcurrencySupported(concurrent)
+        def nodes = scaled(10_000_000)
+        createNodes(nodes, "Movie")
+        writeChangeLog(changeSet(batched, """<neo4j:renameProperty from="id" to="identifier" ${batchAttributes(batched, concurrent)}/>"""))
+
+        when:
+        measure(scenarioName("renameProperty", batched, concurrent), nodes)
+
+        then:
+        count("MATCH (m:Movie) WHERE m.identifier IS NOT NULL RETURN count(m) AS count") == nodes
+
+        where:
+        batched | concurrent
+        false   | false
+        true    | false
+        true    | true
+    }
+
+    def "inverts relationship directions"() {
+        given:
+        assumeConcurrencySupported(concurrent)
+        def relationships = scaled(10_000_000)
+        createRelationships(relationships, "VIEWED_BY")
+        writeChangeLog(changeSet(batched, """<neo4j:invertDirection type="VIEWED_BY" ${batchAttributes(batched, concurrent)}/>"""))
+
+        when:
+        measure(scenarioName("invertDirection", batched, concurrent), relationships)
+
+        then:
+        count("""
+            MATCH (start:Hub)-[r:VIEWED_BY]->(:Hub)
+            WHERE start.id = (r.id + 1) % \$hubs
+            RETURN count(r) AS count
+        """, [hubs: hubCount(relationships)]) == relationships
+
+        where:
+        batched | concurrent
+        false   | false
+        true    | false
+        true    | true
+    }
+
+    def "merges nodes"() {
+        given:
+        def nodes = scaled(100_000)
+        createNodes(nodes, "Person")
+        writeChangeLog(changeSet(false, """
+            <neo4j:mergeNodes fragment="(p:Person) WITH p ORDER BY p.id ASC" outputVariable="p">
+                <neo4j:propertyPolicy nameMatcher=".*" mergeStrategy="KEEP_FIRST"/>
+            </neo4j:mergeNodes>
+        """))
+
+        when:
+        measure("mergeNodes", nodes)
+
+        then:
+        count("MATCH (p:Person) RETURN count(p) AS count") == 1L
+    }
+
+    def "updates large change set histories"() {
+        given:
+        def changeSets = scaled(50_000)
+        def changeLog = new StringBuilder()
+        for (long i = 0; i < changeSets; i++) {
+            changeLog.append("""<changeSet id="change-set-$i" author="benchmark"><neo4j:cypher>CREATE (:Step {id: $i})</neo4j:cypher></changeSet>\n""")
+        }
+        writeChangeLog(changeLog.toString())
+
+        when:
+        measure("update", changeSets)
+
+        then:
+        count("MATCH (s:Step) RETURN count(s) AS count") == changeSets
+    }
+
+    private void measure(String scenario, long entities) {
+        def heapPools = ManagementFactory.getMemoryPoolMXBeans().findAll { it.type == MemoryType.HEAP }
+        System.gc()
+        heapPools.each { it.resetPeakUsage() }
+        def transactionsBefore = lastCommittedTransactionId()
+        def start = System.nanoTime()
+        Scope.child(Scope.Attr.resourceAccessor.name(), new CompositeResourceAccessor(
+                new DirectoryResourceAccessor(workingDirectory),
+                new ClassLoaderResourceAccessor()
+        ), {
+            new CommandScope(UpdateCommandStep.COMMAND_NAME)
+                    .addArgumentValue(DbUrlConnectionArgumentsCommandStep.URL_ARG, "jdbc:neo4j:$boltUrl".toString())
+                    .addArgumentValue(DbUrlConnectionArgumentsCommandStep.USERNAME_ARG, user)
+                    .addArgumentValue(DbUrlConnectionArgumentsCommandStep.PASSWORD_ARG, password)
+                    .addArgumentValue(DatabaseChangelogCommandStep.CHANGELOG_FILE_ARG, "changeLog.xml")
+                    .setOutput(OutputStream.nullOutputStream())
+                    .execute()
+        } as Scope.ScopedRunner)
+        def wallTimeMillis = (System.nanoTime() - start).intdiv(1_000_000)
+        def transactionsAfter = lastCommittedTransactionId()
+        def serverTransactions = transactionsBefore < 0 || transactionsAfter < 0 ? -1 : transactionsAfter - transactionsBefore
+        def peakHeap = heapPools.sum(0L) { it.peakUsage.used }
+        Files.writeString(RESULTS, "$scenario,$entities,$wallTimeMillis,$serverTransactions,$peakHeap\n", StandardOpenOption.APPEND)
+    }
+
+    // the transaction ID is monotonic, its increase is the number of transactions committed in the meantime
+    private long lastCommittedTransactionId() {
+        try {
+            return driver.session(SessionConfig.forDatabase("system")).withCloseable { session ->
+                session.run("SHOW DATABASE neo4j YIELD lastCommittedTxn RETURN lastCommittedTxn").single().get(0).asLong()
+            }
+        } catch (Exception ignored) {
+            // Neo4j 4.4 does not expose the last committed transaction ID via SHOW DATABASE
+            try {
+                return driver.session().withCloseable { session ->
+                    session.run("""
+                        CALL dbms.queryJmx("org.neo4j:*") YIELD name, attributes
+                        WHERE name ENDS WITH "name=Transactions" AND name CONTAINS "database=neo4j"
+                        RETURN attributes.LastCommittedTxId.value AS id
+                    """).single().get(0).asLong()
+                }
+            } catch (Exception e) {
+                return -1L
+            }
+        }
+    }
+
+    private void createNodes(long count, String label) {
+        autocommit("""
+            UNWIND range(0, \$count - 1) AS i
+            CALL { WITH i CREATE (:$label {id: i, name: "name-" + i}) } IN TRANSACTIONS OF $BATCH_SIZE ROWS
+        """, [count: count])
+    }
+
+    private void createRelationships(long count, String type) {
+        def hubs = hubCount(count)
+        autocommit("UNWIND range(0, \$hubs - 1) AS i CREATE (:Hub {id: i})", [hubs: hubs])
+        autocommit("""
+            MATCH (hub:Hub)
+            WITH collect(hub) AS hubs
+            UNWIND range(0, \$count - 1) AS i
+            CALL {
+                WITH hubs, i
+                WITH hubs[i % size(hubs)] AS start, hubs[(i + 1) % size(hubs)] AS end, i
+                CREATE (start)-[:$type {id: i}]->(end)
+            } IN TRANSACTIONS OF $BATCH_SIZE ROWS
+        """, [count: count])
+    }
+
+    private void deleteAllData() {
+        autocommit("MATCH (n) CALL { WITH n DETACH DELETE n } IN TRANSACTIONS OF $BATCH_SIZE ROWS")
+        [TAG_CONSTRAINT_NAME, LABEL_CONSTRAINT_NAME, CONTEXT_CONSTRAINT_NAME, CHANGE_SET_CONSTRAINT_NAME].each { name ->
+            autocommit("DROP CONSTRAINT $name IF EXISTS")
+        }
+        if (!enterpriseEdition()) {
+            autocommit("DROP INDEX $CHANGE_SET_KEY_INDEX_NAME IF EXISTS")
+        }
+    }
+
+    private void autocommit(String query, Map<String, Object> parameters = [:]) {
+        driver.session().withCloseable { session ->
+            session.run(query, parameters).consume()
+        }
+    }
+
+    private long count(String query, Map<String, Object> parameters = [:]) {
+        driver.session().withCloseable { session ->
+            session.run(query, parameters).single().get("count").asLong()
+        }
+    }
+
+    private void writeChangeLog(String changeSets) {
+        Files.writeString(workingDirectory.resolve("changeLog.xml"), """<?xml version="1.0" encoding="UTF-8"?>
+<databaseChangeLog xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance"
+                   xmlns="http://www.liquibase.org/xml/ns/dbchangelog"
+                   xmlns:neo4j="http://www.liquibase.org/xml/ns/dbchangelog-ext"
+                   xsi:schemaLocation="http://www.liquibase.org/xml/ns/dbchangelog https://www.liquibase.org/xml/ns/dbchangelog/dbchangelog-latest.xsd">
+$changeSets
+</databaseChangeLog>
+""")
+    }
+
+    private static String changeSet(boolean batched, String change) {
+        // batched changes cannot run in the change set transaction
+        return """<changeSet id="benchmark" author="benchmark" runInTransaction="${!batched}">$change</changeSet>"""
+    }
+
+    private static String batchAttributes(boolean batched, boolean concurrent) {
+        if (!batched) {
+            return ""
+        }
+        return """enableBatchImport="true" batchSize="$BATCH_SIZE" concurrent="$concurrent" """
+    }
+
+    private static String scenarioName(String change, boolean batched, boolean concurrent) {
+        return "$change${batched ? "-batched" : ""}${concurrent ? "-concurrent" : ""}"
+    }
+
+    private static void assumeConcurrencySupported(boolean concurrent) {
+        if (concurrent) {
+            assumeTrue(neo4jVersion() >= V5_21_0)
+        }
+    }
+
+    private static long hubCount(long relationshipCount) {
+        return Math.min(relationshipCount, 1000L)
+    }
+
+    private static long scaled(long size) {
+        def scale = Double.parseDouble(System.getenv().getOrDefault("MIGRATION_BENCHMARK_SCALE", "1"))
+        return Math.max(1L, (long) (size * scale))
+    }
+}
@@ -0,0 +1,92 @@
+package liquibase.ext.neo4j.e2e
+
+import liquibase.Scope
+import liquibase.changelog.ChangeLogHistoryServiceFactory
+import liquibase.ext.neo4j.Neo4jContainerSpec
+import liquibase.ext.neo4j.ReflectionUtils
+import liquibase.ext.neo4j.runner.Neo4jTenantMigrationException
+import liquibase.ext.neo4j.runner.Neo4jTenantMigrationRunner
+import liquibase.lockservice.LockServiceFactory
+import spock.lang.Requires
+
+import static liquibase.ext.neo4j.DockerNeo4j.enterpriseEdition
+import static liquibase.ext.neo4j.DockerNeo4j.neo4jVersion
+import static liquibase.ext.neo4j.database.KernelVersion.V4_0_0
+
+@Requires({ (neo4jVersion() >= V4_0_0) && enterpriseEdition() })
+class TenantMigrationIT extends Neo4jContainerSpec {
+
+    static final List<String> TENANTS = ["tenant-1", "tenant-2", "tenant-3", "tenant-4", "tenant-5"]
+
+    def setup() {
+        TENANTS.each { queryRunner.recreateDatabase(it) }
+    }
+
+    def cleanup() {
+        TENANTS.each { queryRunner.dropDatabase(it) }
+    }
+
+    def "migrates every tenant database with a shared driver"() {
+        when:
+        new Neo4jTenantMigrationRunner(jdbcUrl(), authenticationProperties(), 2).withCloseable { runner ->
+            runner.update("/e2e/tenants/changeLog.sql", TENANTS, System.out)
+        }
+
+        then:
+        TENANTS.each { tenant ->
+            assert queryRunner.getRows(tenant, "MATCH (movie:Movie) RETURN movie.genre AS genre") == [[genre: "Comedy"]]
+            assert queryRunner.getRows(tenant, """
+                MATCH (changeSet:__LiquibaseChangeSet)-[execution:IN_CHANGELOG]->(:__LiquibaseChangeLog)
+                RETURN changeSet.id AS id ORDER BY execution.orderExecuted ASC
+            """) == [[id: "create-movie"], [id: "set-movie-genre"]]
+            assert queryRunner.getRows(tenant, "MATCH (lock:__LiquibaseLock) RETURN lock").isEmpty()
+        }
+        queryRunner.getRows("MATCH (movie:Movie) RETURN movie").isEmpty()
+    }
+
+    def "does not keep the in-memory state of migrated tenants around"() {
+        when:
+        new Neo4jTenantMigrationRunner(jdbcUrl(), authenticationProperties(), 2).withCloseable { runner ->
+            runner.update("/e2e/tenants/changeLog.sql", TENANTS, System.out)
+        }
+
+        then:
+        def lockServices = ReflectionUtils.getField("openLockServices", LockServiceFactory.instance) as Map
+        def historyServices = ReflectionUtils.getField("services", Scope.currentScope.getSingleton(ChangeLogHistoryServiceFactory.class)) as Map
+        def tenantLockServices = lockServices.findAll { database, service -> database.connection.catalog in TENANTS }.values()
+        def tenantHistoryServices = historyServices.findAll { database, service -> database.connection.catalog in TENANTS }.values()
+        !tenantLockServices.isEmpty()
+        tenantLockServices.every { !it.hasChangeLogLock() }
+        !tenantHistoryServices.isEmpty()
+        tenantHistoryServices.every { ReflectionUtils.getField("ranChangeSets", it) == null }
+    }
+
+    def "runs migrations twice without effect"() {
+        when:
+        new Neo4jTenantMigrationRunner(jdbcUrl(), authenticationProperties(), 3).withCloseable { runner ->
+            2.times {
+                runner.update("/e2e/tenants/changeLog.sql", TENANTS, System.out)
+            }
+        }
+
+        then:
+        TENANTS.each { tenant ->
+            assert queryRunner.getRows(tenant, "MATCH (movie:Movie) RETURN count(movie) AS count") == [[count: 1L]]
+        }
+    }
+
+    def "reports failures per tenant without stopping the other migrations"() {
+        when:
+        new Neo4jTenantMigrationRunner(jdbcUrl(), authenticationProperties(), 2).withCloseable { runner ->
+            runner.update("/e2e/tenants/changeLog.sql", ["tenant-1", "missing-tenant", "tenant-2"], System.out)
+        }
+
+        then:
+        def exception = thrown(Neo4jTenantMigrationException)
+        exception.failures.keySet() == ["missing-tenant"] as Set
+        exception.message == "Could not migrate 1 out of 3 database(s): missing-tenant"
+        ["tenant-1", "tenant-2"].each { tenant ->
+            assert queryRunner.getRows(tenant, "MATCH (movie:Movie) RETURN movie.genre AS genre") == [[genre: "Comedy"]]
+        }
+    }
+}
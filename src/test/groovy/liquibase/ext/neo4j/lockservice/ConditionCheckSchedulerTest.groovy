@@ -4,6 +4,8 @@ import spock.lang.Specification
 
 import java.time.Duration
 import java.time.Instant
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
 
 class ConditionCheckSchedulerTest extends Specification {
 
@@ -87,4 +89,128 @@ class ConditionCheckSchedulerTest extends Specification {
         cause instanceof RuntimeException
         cause.getMessage() == "oopsie"
     }
+
+    def "returns before timeout with backoff if condition is met"() {
+        given:
+        def start = Instant.now()
+
+        when:
+        def result = scheduler.scheduleCheckWithBackoff(alwaysTrue, mustBeTrue, false, Duration.ofMillis(1), Duration.ofMillis(20))
+
+        then:
+        result
+        def value = Duration.between(start, Instant.now())
+        value < timeout
+    }
+
+    def "returns default value with backoff when timeout period is over"() {
+        given:
+        def start = Instant.now()
+        def attempts = 0
+
+        when:
+        def result = scheduler.scheduleCheckWithBackoff({ -> attempts++; false }, mustBeTrue, false, Duration.ofMillis(1), Duration.ofMillis(20))
+
+        then:
+        !result
+        Duration.between(start, Instant.now()) >= timeout
+        attempts > 1
+        scheduler.getLastException() == null
+    }
+
+    def "fails if maximum backoff delay is larger or equal than timeout"() {
+        when:
+        scheduler.scheduleCheckWithBackoff(alwaysTrue, mustBeTrue, false, Duration.ofMillis(1), timeout)
+
+        then:
+        def exception = thrown(IllegalArgumentException.class)
+        exception.message == "delay PT0.1S should be strictly less than the configured timeout PT0.1S"
+    }
+
+    def "fails if initial backoff delay is larger than maximum delay"() {
+        when:
+        scheduler.scheduleCheckWithBackoff(alwaysTrue, mustBeTrue, false, Duration.ofMillis(30), Duration.ofMillis(20))
+
+        then:
+        def exception = thrown(IllegalArgumentException.class)
+        exception.message == "initial delay PT0.03S should be strictly positive and less than or equal to the maximum delay PT0.02S"
+    }
+
+    def "fails if initial backoff delay is not strictly positive"() {
+        when:
+        scheduler.scheduleCheckWithBackoff(alwaysTrue, mustBeTrue, false, initialDelay, Duration.ofMillis(20))
+
+        then:
+        def exception = thrown(IllegalArgumentException.class)
+        exception.message == "initial delay ${initialDelay} should be strictly positive and less than or equal to the maximum delay PT0.02S"
+
+        where:
+        initialDelay << [Duration.ZERO, Duration.ofMillis(-1)]
+    }
+
+    def "doubles backoff delay up to maximum delay, with jitter"() {
+        expect:
+        ConditionCheckScheduler.backoffDelay(attempt, 10, 100, random) == delay
+
+        where:
+        attempt | random || delay
+        0       | 0.0    || 5
+        0       | 1.0    || 10
+        1       | 0.0    || 10
+        1       | 1.0    || 20
+        3       | 1.0    || 80
+        4       | 0.0    || 50
+        4       | 1.0    || 100
+        50      | 0.5    || 75
+    }
+
+    def "cancels check still running when timeout period is over"() {
+        given:
+        def checkInterrupted = new CountDownLatch(1)
+        def blockingCheck = { ->
+            try {
+                Thread.sleep(10_000)
+            } catch (InterruptedException ignored) {
+                checkInterrupted.countDown()
+            }
+            return true
+        }
+
+        when:
+        def result = scheduler.scheduleCheckWithFixedDelay(blockingCheck, mustBeTrue, false, Duration.ofMillis(20))
+
+        then:
+        !result
+        checkInterrupted.await(1, TimeUnit.SECONDS)
+    }
+
+    def "stops waiting and preserves interrupt status when interrupted"() {
+        given:
+        def longScheduler = new ConditionCheckScheduler(Duration.ofMinutes(1))
+        def start = Instant.now()
+        Thread.currentThread().interrupt()
+
+        when:
+        def result = longScheduler.scheduleCheckWithFixedDelay(alwaysFalse, mustBeTrue, false, Duration.ofMillis(20))
+
+        then:
+        !result
+        Thread.interrupted()
+        Duration.between(start, Instant.now()) < Duration.ofSeconds(5)
+    }
+
+    def "runs checks of different schedulers on shared daemon threads"() {
+        given:
+        def threads = Collections.synchronizedSet(new HashSet<Thread>())
+        def recordingThread = { -> threads.add(Thread.currentThread()); true }
+
+        when:
+        10.times {
+            new ConditionCheckScheduler(timeout).scheduleCheckWithFixedDelay(recordingThread, mustBeTrue, false, Duration.ofMillis(20))
+        }
+
+        then:
+        threads.size() <= Math.max(2, Runtime.getRuntime().availableProcessors())
+        threads.every { it.daemon && it.name.startsWith("liquibase-neo4j-scheduler-") }
+    }
 }
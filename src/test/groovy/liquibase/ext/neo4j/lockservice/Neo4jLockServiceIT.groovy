@@ -1,15 +1,25 @@
 package liquibase.ext.neo4j.lockservice
 
-
+import liquibase.Scope
+import liquibase.database.DatabaseFactory
+import liquibase.exception.LockException
 import liquibase.ext.neo4j.Neo4jContainerSpec
 import liquibase.ext.neo4j.ReflectionUtils
 import org.neo4j.driver.exceptions.ClientException
 
+import java.time.Duration
+import java.time.Instant
 import java.time.ZonedDateTime
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
 
 import static java.time.temporal.ChronoUnit.MINUTES
 import static liquibase.ext.neo4j.DateUtils.date
 import static liquibase.ext.neo4j.DateUtils.nowMinus
+import static liquibase.ext.neo4j.configuration.Neo4jConfiguration.LOCK_LEASE_DURATION
+import static liquibase.ext.neo4j.configuration.Neo4jConfiguration.LOCK_READ_PROBE
 import static liquibase.ext.neo4j.lockservice.Neo4jLockService.LOCK_CONSTRAINT_NAME
 
 class Neo4jLockServiceIT extends Neo4jContainerSpec {
@@ -213,6 +223,221 @@ class Neo4jLockServiceIT extends Neo4jContainerSpec {
         constraints.findIndexOf { it.contains(":__LiquibaseLock") } >= 0
     }
 
+    def "acquires lock shortly after it is released, well before the recheck time"() {
+        given:
+        neo4jLockService.setChangeLogLockWaitTime(1)
+        neo4jLockService.setChangeLogLockRecheckTime(10)
+        queryRunner.run("CREATE (:__LiquibaseLock { id: 'held-elsewhere', lockedBy: 'Neo4jLockService', grantDate: datetime() })")
+        def releaser = Thread.start {
+            Thread.sleep(500)
+            queryRunner.run("MATCH (lock:__LiquibaseLock {id: 'held-elsewhere'}) DELETE lock")
+        }
+        def start = Instant.now()
+
+        when:
+        neo4jLockService.waitForLock()
+
+        then:
+        neo4jLockService.hasChangeLogLock()
+        Duration.between(start, Instant.now()) < Duration.ofSeconds(5)
+
+        cleanup:
+        releaser.join()
+    }
+
+    def "does not try to create lock while another lock is stored when read probe is enabled"() {
+        given:
+        queryRunner.run("CREATE (:__LiquibaseLock { id: 'held-elsewhere', lockedBy: 'SomeOtherService', grantDate: datetime() })")
+
+        when:
+        def acquiredLock = Scope.child([(LOCK_READ_PROBE.key): true], { -> neo4jLockService.acquireLock() } as Scope.ScopedRunnerWithReturn<Boolean>)
+
+        then:
+        !acquiredLock
+        countLockNodes() == 1L
+    }
+
+    def "tries to create lock while another lock is stored when read probe is disabled"() {
+        given:
+        queryRunner.run("CREATE (:__LiquibaseLock { id: 'held-elsewhere', lockedBy: 'SomeOtherService', grantDate: datetime() })")
+
+        when:
+        def acquiredLock = Scope.child([(LOCK_READ_PROBE.key): false], { -> neo4jLockService.acquireLock() } as Scope.ScopedRunnerWithReturn<Boolean>)
+
+        then:
+        acquiredLock
+        countLockNodes() == 2L
+    }
+
+    def "tries to create lock while another lock is stored by default"() {
+        given:
+        queryRunner.run("CREATE (:__LiquibaseLock { id: 'held-elsewhere', lockedBy: 'SomeOtherService', grantDate: datetime() })")
+
+        when:
+        def acquiredLock = neo4jLockService.acquireLock()
+
+        then:
+        acquiredLock
+        countLockNodes() == 2L
+    }
+
+    def "takes over expired lease"() {
+        given:
+        queryRunner.run("CREATE (:__LiquibaseLock { id: 'crashed', lockedBy: 'Neo4jLockService', grantDate: datetime() - duration('PT2M'), expiresAt: datetime() - duration('PT1M') })")
+
+        when:
+        def acquiredLock = withLeaseDuration(60) { neo4jLockService.acquireLock() }
+
+        then:
+        acquiredLock
+        def row = queryRunner.getSingleRow("MATCH (lock:__LiquibaseLock) RETURN count(lock) AS count, collect(lock.id)[0] AS id, collect(lock.expiresAt > datetime())[0] AS alive")
+        row["count"] == 1L
+        row["id"] != "crashed"
+        row["alive"]
+
+        cleanup:
+        neo4jLockService.reset()
+    }
+
+    def "lets a single instance take over an expired lease"() {
+        given:
+        neo4jLockService.init()
+        queryRunner.run("CREATE (:__LiquibaseLock { id: 'crashed', lockedBy: 'Neo4jLockService', grantDate: datetime() - duration('PT2M'), expiresAt: datetime() - duration('PT1M') })")
+        def contenders = (1..8).collect {
+            def contenderDatabase = DatabaseFactory.instance.openDatabase("jdbc:neo4j:${neo4jContainer.getBoltUrl()}", "neo4j", PASSWORD, null, null)
+            def lockService = new Neo4jLockService()
+            lockService.setDatabase(contenderDatabase)
+            lockService.init()
+            return lockService
+        }
+        def start = new CountDownLatch(1)
+        def pool = Executors.newFixedThreadPool(contenders.size())
+
+        when:
+        def futures = contenders.collect { lockService ->
+            pool.submit({ ->
+                start.await()
+                withLeaseDuration(60) { lockService.acquireLock() }
+            } as Callable<Boolean>)
+        }
+        start.countDown()
+        def acquisitions = futures.collect { it.get(1, TimeUnit.MINUTES) }
+
+        then:
+        acquisitions.count(true) == 1
+        def row = queryRunner.getSingleRow("MATCH (lock:__LiquibaseLock) RETURN count(lock) AS count, collect(lock.id)[0] AS id, collect(lock._lock)[0] AS marker")
+        row["count"] == 1L
+        row["id"] == contenders[acquisitions.indexOf(true)].lockId.toString()
+        row["marker"] == null
+
+        cleanup:
+        pool.shutdownNow()
+        contenders.each {
+            it.reset()
+            it.database.close()
+        }
+    }
+
+    def "does not take over live lease"() {
+        given:
+        queryRunner.run("CREATE (:__LiquibaseLock { id: 'alive', lockedBy: 'Neo4jLockService', grantDate: datetime(), expiresAt: datetime() + duration('PT1M') })")
+
+        when:
+        def acquiredLock = withLeaseDuration(60) { neo4jLockService.acquireLock() }
+
+        then:
+        !acquiredLock
+        queryRunner.getSingleRow("MATCH (lock:__LiquibaseLock) RETURN collect(lock.id) AS ids")["ids"] == ["alive"]
+    }
+
+    def "does not take over lock without lease"() {
+        given:
+        queryRunner.run("CREATE (:__LiquibaseLock { id: 'forever', lockedBy: 'Neo4jLockService', grantDate: datetime() })")
+
+        when:
+        def acquiredLock = withLeaseDuration(60) { neo4jLockService.acquireLock() }
+
+        then:
+        !acquiredLock
+        queryRunner.getSingleRow("MATCH (lock:__LiquibaseLock) RETURN collect(lock.id) AS ids")["ids"] == ["forever"]
+    }
+
+    def "extends lease in the background while holding lock"() {
+        given:
+        withLeaseDuration(3) { neo4jLockService.acquireLock() }
+        def initialExpiry = queryRunner.getSingleRow("MATCH (lock:__LiquibaseLock) RETURN lock.expiresAt AS expiresAt")["expiresAt"]
+
+        when:
+        Thread.sleep(2500)
+
+        then:
+        def currentExpiry = queryRunner.getSingleRow("MATCH (lock:__LiquibaseLock) RETURN lock.expiresAt AS expiresAt")["expiresAt"]
+        currentExpiry > initialExpiry
+
+        when:
+        neo4jLockService.releaseLock()
+
+        then:
+        countLockNodes() == 0L
+    }
+
+    def "keeps extending lease while a long transaction holds the connection"() {
+        given:
+        withLeaseDuration(3) { neo4jLockService.acquireLock() }
+        def connection = database.connection.underlyingConnection
+        def autoCommit = connection.autoCommit
+        connection.autoCommit = false
+        connection.createStatement().execute("CREATE (:Movie {title: 'The Long Goodbye'})")
+        def contender = new Neo4jLockService()
+        def contenderDatabase = DatabaseFactory.instance.openDatabase("jdbc:neo4j:${neo4jContainer.getBoltUrl()}", "neo4j", PASSWORD, null, null)
+        contender.setDatabase(contenderDatabase)
+
+        when:
+        Thread.sleep(5000)
+
+        then:
+        neo4jLockService.hasChangeLogLock()
+        !withLeaseDuration(3) { contender.acquireLock() }
+        queryRunner.getSingleRow("MATCH (lock:__LiquibaseLock) RETURN collect(lock.id) AS ids")["ids"] == [neo4jLockService.lockId.toString()]
+
+        when:
+        connection.rollback()
+        neo4jLockService.releaseLock()
+
+        then:
+        countLockNodes() == 0L
+
+        cleanup:
+        connection.autoCommit = autoCommit
+        contender.reset()
+        contenderDatabase?.close()
+    }
+
+    def "gives up lock once its lease is lost"() {
+        given:
+        withLeaseDuration(3) { neo4jLockService.acquireLock() }
+
+        when:
+        queryRunner.run("MATCH (lock:__LiquibaseLock) SET lock.id = 'taken-over'")
+        Thread.sleep(2500)
+
+        then:
+        !neo4jLockService.hasChangeLogLock()
+
+        when:
+        neo4jLockService.releaseLock()
+
+        then:
+        def exception = thrown(LockException)
+        exception.message.contains("was lost before the lock was released")
+        !neo4jLockService.hasChangeLogLock()
+        queryRunner.getSingleRow("MATCH (lock:__LiquibaseLock) RETURN collect(lock.id) AS ids")["ids"] == ["taken-over"]
+    }
+
+    private static <T> T withLeaseDuration(long seconds, Closure<T> closure) {
+        return Scope.child([(LOCK_LEASE_DURATION.key): seconds], closure as Scope.ScopedRunnerWithReturn<T>)
+    }
+
     private Object countLockNodes() {
         def row = queryRunner.getSingleRow("MATCH (l:__LiquibaseLock) RETURN count(l) AS count")
         return row["count"]
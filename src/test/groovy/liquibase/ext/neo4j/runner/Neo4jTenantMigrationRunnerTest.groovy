@@ -0,0 +1,29 @@
+package liquibase.ext.neo4j.runner
+
+import spock.lang.Specification
+
+class Neo4jTenantMigrationRunnerTest extends Specification {
+
+    def "reports migration failures per database"() {
+        given:
+        def failure1 = new RuntimeException("oops")
+        def failure2 = new IllegalStateException("nope")
+
+        when:
+        def exception = new Neo4jTenantMigrationException(5, [("tenant-2"): failure1, ("tenant-4"): failure2])
+
+        then:
+        exception.message == "Could not migrate 2 out of 5 database(s): tenant-2, tenant-4"
+        exception.failures == [("tenant-2"): failure1, ("tenant-4"): failure2]
+        exception.suppressed.toList() == [failure1, failure2]
+    }
+
+    def "rejects non-positive parallelism"() {
+        when:
+        new Neo4jTenantMigrationRunner("jdbc:neo4j:bolt://localhost", new Properties(), 0)
+
+        then:
+        def exception = thrown(IllegalArgumentException)
+        exception.message == "parallelism must be strictly positive, found 0"
+    }
+}
@@ -0,0 +1,13 @@
+-- liquibase formatted sql
+
+-- changeset fbiville:create-movie context:dev
+CREATE (:Movie {title: 'My Life'});
+
+-- changeset fbiville:create-person labels:people
+CREATE (:Person {name: 'Jane'});
+
+-- changeset fbiville:link-person-to-movie runInTransaction:false
+MATCH (movie:Movie {title: 'My Life'}), (person:Person {name: 'Jane'}) CREATE (person)-[:ACTED_IN]->(movie);
+
+-- changeset fbiville:set-movie-genre
+MATCH (movie:Movie {title: 'My Life'}) SET movie.genre = 'Comedy';
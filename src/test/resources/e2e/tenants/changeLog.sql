@@ -0,0 +1,7 @@
+-- liquibase formatted sql
+
+-- changeset fbiville:create-movie
+CREATE (:Movie {title: 'My Life'});
+
+-- changeset fbiville:set-movie-genre
+MATCH (movie:Movie {title: 'My Life'}) SET movie.genre = 'Comedy';